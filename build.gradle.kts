@@ -1,6 +1,7 @@
 plugins {
     application
     id("org.openjfx.javafxplugin") version "0.1.0"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 repositories {
@@ -9,6 +10,7 @@ repositories {
 
 dependencies {
     implementation("com.google.code.gson:gson:2.10.1")
+    jmh("org.openjdk.jol:jol-core:0.17") // object layouts for HeapReport --footprint
 }
 
 java {
@@ -25,3 +27,77 @@ javafx {
 application {
     mainClass.set("org.example.MiniNotion")
 }
+
+tasks.register<JavaExec>("convertTasks") {
+    description = "Converts a task file between JSON and binary, e.g. -Pargs=\"data/task.json data/task.bin\""
+    group = "application"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("org.example.storage.FormatConverter")
+    args = (project.findProperty("args") as String? ?: "").split(" ").filter { it.isNotBlank() }
+}
+
+// Headless command-line tool, e.g. ./gradlew cli -Pargs="import tickets.csv"
+tasks.register<JavaExec>("cli") {
+    description = "Runs the MiniNotion command-line tool (import, export, update) with -Pargs"
+    group = "application"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("org.example.cli.MiniNotionCli")
+    workingDir = projectDir
+    args = (project.findProperty("args") as String? ?: "").split(" ").filter { it.isNotBlank() }
+}
+
+// Load test for the HTTP API, e.g. ./gradlew apiLoad -Pargs="--clients 5000 --seconds 30"
+// against `./gradlew cli -Pargs="serve"` (or the app started with -Dmininotion.api.port=8765)
+// Lives in src/jmh/java (package org.example.api, for its thread helper) so it stays out of the app jar.
+tasks.register<JavaExec>("apiLoad") {
+    description = "Runs the HTTP API load generator with -Pargs"
+    group = "verification"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("org.example.api.ApiLoadGenerator")
+    args = (project.findProperty("args") as String? ?: "").split(" ").filter { it.isNotBlank() }
+}
+
+// Frame-time and allocation measurement for the task list, e.g. -Pargs="--rows=100000 --mode=compact".
+// Lives in src/jmh/java (package org.example, for the list cell) so it stays out of the app jar.
+tasks.register<JavaExec>("scrollHarness") {
+    description = "Scrolls the task list through a synthetic board and reports frame times with -Pargs"
+    group = "verification"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("org.example.ScrollHarness")
+    args = (project.findProperty("args") as String? ?: "").split(" ").filter { it.isNotBlank() }
+}
+
+// Retained heap per storage format, e.g. -Pargs="--tasks 200000 --description 2000 --footprint"
+tasks.register<JavaExec>("heapReport") {
+    description = "Loads a synthetic board in each storage format and prints the retained heap with -Pargs"
+    group = "verification"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("org.example.bench.HeapReport")
+    maxHeapSize = "4g"
+    args = (project.findProperty("args") as String? ?: "").split(" ").filter { it.isNotBlank() }
+}
+
+val cliStartScripts by tasks.registering(CreateStartScripts::class) {
+    description = "Creates bin/mininotion-cli launch scripts for the distribution"
+    mainClass.set("org.example.cli.MiniNotionCli")
+    applicationName = "mininotion-cli"
+    outputDir = layout.buildDirectory.dir("cli-scripts").get().asFile
+    classpath = files(tasks.jar) + configurations.runtimeClasspath.get()
+}
+
+distributions {
+    main {
+        contents {
+            from(cliStartScripts) { into("bin") }
+        }
+    }
+}
+
+// Benchmarks live in src/jmh/java. Run all with `./gradlew jmh`, or a subset with
+// `./gradlew jmh -PjmhIncludes=StorageBenchmark`. Results go to build/results/jmh/results.json.
+jmh {
+    jmhVersion.set("1.37")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+    (project.findProperty("jmhIncludes") as String?)?.let { includes.set(listOf(it)) }
+}
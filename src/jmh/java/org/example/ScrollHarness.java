@@ -0,0 +1,158 @@
+package org.example;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.scene.Scene;
+import javafx.scene.control.ListView;
+import javafx.scene.control.skin.VirtualFlow;
+import javafx.stage.Stage;
+import org.example.model.Subtask;
+import org.example.model.Task;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Scrolls the task list through a synthetic board and reports frame times and the
+ * FX thread's allocation rate.
+ *
+ * Usage: {@code ScrollHarness [--rows=100000] [--mode=full|compact] [--seconds=10] [--pixels=60]}
+ *
+ * Every frame scrolls the list by {@code pixels} (wrapping at the end). The first two
+ * seconds are warm-up. Reported: frame-time percentiles, frames over 16.7 ms and 33 ms,
+ * cell updates and bytes allocated on the FX thread per frame, and GC count and time.
+ */
+public class ScrollHarness {
+
+    // Launched through this class so JavaFX also starts from the plain class path
+    public static void main(String[] args) {
+        Application.launch(App.class, args);
+    }
+
+    public static class App extends Application {
+
+        private static final long WARMUP_NANOS = 2_000_000_000L;
+
+        private final com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        private ListView<Task> listView;
+        private VirtualFlow<?> flow;
+        private long[] frames;
+        private int frameCount;
+
+        @Override
+        public void start(Stage stage) {
+            Map<String, String> options = getParameters().getNamed();
+            int rows = Integer.parseInt(options.getOrDefault("rows", "100000"));
+            boolean compact = "compact".equals(options.getOrDefault("mode", "full"));
+            int seconds = Integer.parseInt(options.getOrDefault("seconds", "10"));
+            double pixels = Double.parseDouble(options.getOrDefault("pixels", "60"));
+
+            TaskRowCache rowCache = new TaskRowCache();
+            listView = new ListView<>(FXCollections.observableArrayList(generate(rows)));
+            listView.setCellFactory(param -> new TaskListCell(rowCache, compact));
+            if (compact) listView.setFixedCellSize(TaskListCell.COMPACT_CELL_SIZE);
+
+            Scene scene = new Scene(listView, 600, 900);
+            scene.getStylesheets().add(getClass().getResource("/styles/style.css").toExternalForm());
+            stage.setTitle("Scroll harness - " + rows + " rows, " + (compact ? "compact" : "full"));
+            stage.setScene(scene);
+            stage.show();
+
+            frames = new long[seconds * 1000];
+            new AnimationTimer() {
+                private long start, last;
+                private long startBytes, startCells, startGcCount, startGcMillis;
+
+                @Override
+                public void handle(long now) {
+                    if (flow == null) {
+                        flow = (VirtualFlow<?>) listView.lookup(".virtual-flow");
+                        start = now;
+                        last = now;
+                        return;
+                    }
+                    if (startBytes == 0 && now - start >= WARMUP_NANOS) {
+                        start = now;
+                        startBytes = threads.getCurrentThreadAllocatedBytes();
+                        startCells = RenderStats.cellUpdates();
+                        startGcCount = gcCount();
+                        startGcMillis = gcMillis();
+                    } else if (startBytes != 0 && frameCount < frames.length) {
+                        frames[frameCount++] = now - last;
+                    }
+                    last = now;
+                    if (startBytes != 0 && (now - start >= seconds * 1_000_000_000L || frameCount == frames.length)) {
+                        stop();
+                        report(rows, compact, now - start, threads.getCurrentThreadAllocatedBytes() - startBytes,
+                                RenderStats.cellUpdates() - startCells, gcCount() - startGcCount, gcMillis() - startGcMillis);
+                        Platform.exit();
+                        return;
+                    }
+                    if (flow.scrollPixels(pixels) == 0) flow.scrollTo(0); // reached the end
+                }
+            }.start();
+        }
+
+        private void report(int rows, boolean compact, long nanos, long bytes, long cells, long gcs, long gcMillis) {
+            long[] sorted = Arrays.copyOf(frames, frameCount);
+            Arrays.sort(sorted);
+            long over16 = Arrays.stream(sorted).filter(f -> f > 16_700_000L).count();
+            long over33 = Arrays.stream(sorted).filter(f -> f > 33_300_000L).count();
+            System.out.printf("%,d rows, %s cells, %,d frames in %.1f s (%.1f fps)%n",
+                    rows, compact ? "compact" : "full", frameCount, nanos / 1e9, frameCount / (nanos / 1e9));
+            System.out.printf("frame ms: p50 %.2f  p90 %.2f  p99 %.2f  max %.2f  (>16.7 ms: %d, >33 ms: %d)%n",
+                    percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99),
+                    sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6, over16, over33);
+            System.out.printf("FX thread: %,d bytes/frame (%.1f MB/s), %.1f cell updates/frame; GC: %d collections, %d ms%n",
+                    frameCount == 0 ? 0 : bytes / frameCount, bytes / (nanos / 1e9) / (1 << 20),
+                    frameCount == 0 ? 0 : cells / (double) frameCount, gcs, gcMillis);
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) return 0;
+            int index = (int) Math.ceil(p / 100 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+        }
+
+        private static long gcCount() {
+            long count = 0;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) count += gc.getCollectionCount();
+            return count;
+        }
+
+        private static long gcMillis() {
+            long millis = 0;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) millis += gc.getCollectionTime();
+            return millis;
+        }
+
+        private static List<Task> generate(int rows) {
+            Random random = new Random(42);
+            LocalDate today = LocalDate.now();
+            Task.Priority[] priorities = Task.Priority.values();
+            Task.Status[] statuses = Task.Status.values();
+            List<Task> tasks = new ArrayList<>(rows);
+            for (int i = 0; i < rows; i++) {
+                LocalDate due = random.nextInt(10) == 0 ? null : today.plusDays(random.nextInt(120) - 60);
+                Task task = new Task("Task " + i, "Generated by ScrollHarness", priorities[random.nextInt(priorities.length)], due);
+                task.setStatus(statuses[random.nextInt(statuses.length)]);
+                for (int s = random.nextInt(5); s > 0; s--) {
+                    Subtask subtask = new Subtask("Step " + s);
+                    task.addSubtask(subtask);
+                    subtask.setCompleted(random.nextBoolean());
+                }
+                tasks.add(task);
+            }
+            return tasks;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package org.example.api;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives a running {@link TaskApiServer} with many concurrent clients and prints
+ * throughput and latency percentiles per operation.
+ *
+ * Usage: {@code ApiLoadGenerator [--url http://localhost:8765] [--clients 2000] [--seconds 30] [--tasks 1000]}
+ *
+ * Each client loops until the deadline: 70% GET of a random task (conditional when it
+ * already holds the ETag), 20% PATCH of its priority with If-Match (a 412 counts as
+ * a conflict, not an error), 10% filtered list queries. Missing tasks are created first.
+ */
+public class ApiLoadGenerator {
+
+    private enum Op { GET, PATCH, LIST }
+
+    private static final String[] PRIORITIES = { "HIGH", "MEDIUM", "LOW" };
+
+    private final Gson gson = new Gson();
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+    private String baseUrl = "http://localhost:8765";
+    private int clients = 2000;
+    private int seconds = 30;
+    private int taskCount = 1000;
+
+    public static void main(String[] args) throws Exception {
+        ApiLoadGenerator generator = new ApiLoadGenerator();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--url": generator.baseUrl = args[i + 1]; break;
+                case "--clients": generator.clients = Integer.parseInt(args[i + 1]); break;
+                case "--seconds": generator.seconds = Integer.parseInt(args[i + 1]); break;
+                case "--tasks": generator.taskCount = Integer.parseInt(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        generator.run();
+    }
+
+    private void run() throws Exception {
+        List<String> ids = seed();
+        System.out.printf("%d clients for %d s against %s (%d tasks, %s threads)%n",
+                clients, seconds, baseUrl, ids.size(), VirtualThreads.available() ? "virtual" : "platform");
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Recorder> recorders = new ArrayList<>();
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("load", clients); // one per client in any case
+        for (int i = 0; i < clients; i++) {
+            Recorder recorder = new Recorder();
+            recorders.add(recorder);
+            executor.execute(() -> clientLoop(ids, deadline, recorder));
+        }
+        executor.shutdown();
+        executor.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+
+        System.out.printf("%-6s %10s %10s %9s %9s %9s %9s %9s%n", "op", "requests", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        long total = 0;
+        for (Op op : Op.values()) {
+            long[] latencies = Recorder.merge(recorders, op);
+            total += latencies.length;
+            print(op.name(), latencies);
+        }
+        long[] all = Recorder.merge(recorders, null);
+        print("all", all);
+        System.out.printf("%,d requests, %,d conflicts (412), %,d errors%n", total, conflicts.get(), errors.get());
+    }
+
+    private List<String> seed() throws Exception {
+        List<String> ids = listIds();
+        for (int i = ids.size(); i < taskCount; i++) {
+            String body = "{\"title\":\"Load test task " + i + "\",\"description\":\"Created by ApiLoadGenerator\"}";
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/tasks"))
+                    .POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 201) throw new IllegalStateException("Seeding failed: " + response.body());
+        }
+        return ids.size() >= taskCount ? ids : listIds();
+    }
+
+    private List<String> listIds() throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/tasks?limit=" + taskCount)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        List<String> ids = new ArrayList<>();
+        for (JsonElement task : gson.fromJson(response.body(), JsonArray.class)) {
+            ids.add(task.getAsJsonObject().get("id").getAsString());
+        }
+        return ids;
+    }
+
+    private void clientLoop(List<String> ids, long deadline, Recorder recorder) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String[] etags = new String[ids.size()];
+        while (System.nanoTime() < deadline) {
+            int pick = random.nextInt(100);
+            int index = random.nextInt(ids.size());
+            URI uri = URI.create(baseUrl + "/tasks/" + ids.get(index));
+            try {
+                if (pick < 70) {
+                    HttpRequest.Builder request = HttpRequest.newBuilder(uri);
+                    if (etags[index] != null) request.header("If-None-Match", etags[index]);
+                    HttpResponse<String> response = timed(recorder, Op.GET, request.build());
+                    if (response.statusCode() == 200) etags[index] = response.headers().firstValue("ETag").orElse(null);
+                    else if (response.statusCode() != 304) errors.incrementAndGet();
+                } else if (pick < 90) {
+                    if (etags[index] == null) {
+                        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofString());
+                        etags[index] = response.headers().firstValue("ETag").orElse("*");
+                    }
+                    String body = "{\"priority\":\"" + PRIORITIES[random.nextInt(PRIORITIES.length)] + "\"}";
+                    HttpResponse<String> response = timed(recorder, Op.PATCH, HttpRequest.newBuilder(uri)
+                            .method("PATCH", HttpRequest.BodyPublishers.ofString(body))
+                            .header("If-Match", etags[index]).build());
+                    if (response.statusCode() == 412) conflicts.incrementAndGet();
+                    else if (response.statusCode() != 200) errors.incrementAndGet();
+                    etags[index] = response.statusCode() == 200 ? response.headers().firstValue("ETag").orElse(null) : null;
+                } else {
+                    String query = "/tasks?priority=" + PRIORITIES[random.nextInt(PRIORITIES.length)] + "&order=due&limit=20";
+                    HttpResponse<String> response = timed(recorder, Op.LIST, HttpRequest.newBuilder(URI.create(baseUrl + query)).build());
+                    if (response.statusCode() != 200) errors.incrementAndGet();
+                }
+            } catch (Exception e) {
+                errors.incrementAndGet();
+            }
+        }
+    }
+
+    private HttpResponse<String> timed(Recorder recorder, Op op, HttpRequest request) throws Exception {
+        long start = System.nanoTime();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        recorder.record(op, System.nanoTime() - start);
+        return response;
+    }
+
+    private void print(String label, long[] latencies) {
+        if (latencies.length == 0) return;
+        System.out.printf("%-6s %,10d %,10.0f %9.2f %9.2f %9.2f %9.2f %9.2f%n", label, latencies.length,
+                latencies.length / (double) seconds,
+                percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 99),
+                percentile(latencies, 99.9), latencies[latencies.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+    }
+
+    /** Per-client latency log; only its own thread writes to it. */
+    private static class Recorder {
+        private final long[][] samples = new long[Op.values().length][256];
+        private final int[] sizes = new int[Op.values().length];
+
+        void record(Op op, long nanos) {
+            int i = op.ordinal();
+            if (sizes[i] == samples[i].length) samples[i] = Arrays.copyOf(samples[i], sizes[i] * 2);
+            samples[i][sizes[i]++] = nanos;
+        }
+
+        // Sorted latencies of one operation, or of all of them when op is null
+        static long[] merge(List<Recorder> recorders, Op op) {
+            int total = 0;
+            for (Recorder r : recorders) {
+                for (Op o : Op.values()) if (op == null || o == op) total += r.sizes[o.ordinal()];
+            }
+            long[] merged = new long[total];
+            int position = 0;
+            for (Recorder r : recorders) {
+                for (Op o : Op.values()) {
+                    if (op != null && o != op) continue;
+                    System.arraycopy(r.samples[o.ordinal()], 0, merged, position, r.sizes[o.ordinal()]);
+                    position += r.sizes[o.ordinal()];
+                }
+            }
+            Arrays.sort(merged);
+            return merged;
+        }
+    }
+}
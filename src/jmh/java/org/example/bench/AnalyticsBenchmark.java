@@ -0,0 +1,80 @@
+package org.example.bench;
+
+import org.example.analytics.BoardAnalytics;
+import org.example.analytics.BoardStats;
+import org.example.engine.TaskRepository;
+import org.example.model.Task;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Board statistics after one edit: a full parallel recount over a repository snapshot
+ * against {@link BoardAnalytics}, which applies the change event to its running sums. The
+ * analytics listener runs on the editing thread here, so its work is part of the timing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AnalyticsBenchmark {
+
+    @Param({"1000000"})
+    public int taskCount;
+
+    private TaskRepository repository;
+    private BoardAnalytics analytics;
+    private List<String> ids;
+    private final LocalDate today = LocalDate.now();
+    private final Random random = new Random(42);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repository = new TaskRepository();
+        repository.load(new TaskGenerator().taskCount(taskCount).generate());
+        analytics = new BoardAnalytics(repository, Runnable::run);
+        analytics.start();
+        ids = new ArrayList<>(taskCount);
+        for (Task task : repository.liveTasks()) ids.add(task.getId());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        analytics.close();
+    }
+
+    private void edit() {
+        Task.Status status = Task.Status.values()[random.nextInt(Task.Status.values().length)];
+        repository.update(ids.get(random.nextInt(ids.size())), task -> task.setStatus(status));
+    }
+
+    @Benchmark
+    public BoardStats fullRecount() {
+        edit();
+        return BoardStats.compute(repository.snapshot().getTasks(), today);
+    }
+
+    @Benchmark
+    public BoardStats incremental() {
+        edit();
+        return analytics.stats(today);
+    }
+}
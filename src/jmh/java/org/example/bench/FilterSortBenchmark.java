@@ -0,0 +1,101 @@
+package org.example.bench;
+
+import org.example.index.SearchIndex;
+import org.example.model.Task;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The list pipeline in MiniNotion: search predicate evaluation over every task, the
+ * two list comparators, and the per-row progress computation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterSortBenchmark {
+
+    @Param({"10000", "100000"})
+    public int taskCount;
+
+    @Param({"5"})
+    public int maxSubtasks;
+
+    @Param({"80"})
+    public int descriptionSize;
+
+    @Param({"repo"})
+    public String query;
+
+    private List<Task> tasks;
+    private SearchIndex searchIndex;
+
+    @Setup
+    public void setUp() {
+        tasks = new TaskGenerator()
+                .taskCount(taskCount)
+                .maxSubtasks(maxSubtasks)
+                .descriptionSize(descriptionSize)
+                .generate();
+        searchIndex = new SearchIndex();
+        tasks.forEach(searchIndex::index);
+    }
+
+    /** The original predicate: lowercase every title and scan it per keystroke. */
+    @Benchmark
+    public void searchTitleScan(Blackhole bh) {
+        String lowerCaseFilter = query.toLowerCase();
+        for (Task task : tasks) {
+            bh.consume(task.getTitle().toLowerCase().contains(lowerCaseFilter));
+        }
+    }
+
+    /** Index lookup for a fresh query followed by a membership test per task. */
+    @Benchmark
+    public void searchIndexed(Blackhole bh) {
+        Set<String> matches = searchIndex.lookup(query);
+        for (Task task : tasks) {
+            bh.consume(matches.contains(task.getId()));
+        }
+    }
+
+    @Benchmark
+    public List<Task> sortByDueDate() {
+        List<Task> copy = new ArrayList<>(tasks);
+        copy.sort(Task.BY_DUE_DATE);
+        return copy;
+    }
+
+    @Benchmark
+    public List<Task> sortByPriority() {
+        List<Task> copy = new ArrayList<>(tasks);
+        copy.sort(Task.BY_PRIORITY);
+        return copy;
+    }
+
+    @Benchmark
+    public double completionPercentage() {
+        double sum = 0;
+        for (Task task : tasks) {
+            sum += task.getCompletionPercentage();
+        }
+        return sum;
+    }
+}
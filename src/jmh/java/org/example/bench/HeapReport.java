@@ -0,0 +1,120 @@
+package org.example.bench;
+
+import org.example.engine.TaskEngine;
+import org.example.model.Task;
+import org.example.storage.StorageFormat;
+import org.example.storage.TaskStorage;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Loads the same synthetic board in each storage format and prints the heap it retains,
+ * once as the bare task list and once inside a {@link TaskEngine} (with its repository
+ * copies and indexes), plus load time and a search over descriptions. With
+ * {@code --footprint}, JOL also walks the generated task list and prints its objects by
+ * class, which shows where the bytes per task go (task fields, IDs, subtask columns).
+ *
+ * Usage: {@code HeapReport [--tasks 200000] [--description 2000] [--subtasks 5] [--formats binary,lazy] [--footprint]}
+ */
+public class HeapReport {
+
+    public static void main(String[] args) throws Exception {
+        int taskCount = 200_000;
+        int descriptionSize = 2000;
+        int maxSubtasks = 5;
+        String[] formats = { "binary", "lazy" };
+        boolean footprint = false;
+        for (int i = 0; i < args.length; i += 2) {
+            if ("--footprint".equals(args[i])) {
+                footprint = true;
+                i--;
+                continue;
+            }
+            if (i + 1 == args.length) throw new IllegalArgumentException(args[i] + " needs a value");
+            switch (args[i]) {
+                case "--tasks": taskCount = Integer.parseInt(args[i + 1]); break;
+                case "--description": descriptionSize = Integer.parseInt(args[i + 1]); break;
+                case "--subtasks": maxSubtasks = Integer.parseInt(args[i + 1]); break;
+                case "--formats": formats = args[i + 1].split(","); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        Path dir = Files.createTempDirectory("mininotion-heap");
+        try {
+            List<Task> tasks = new TaskGenerator().taskCount(taskCount).descriptionSize(descriptionSize)
+                    .maxSubtasks(maxSubtasks).generate();
+            for (String format : formats) {
+                new TaskStorage(StorageFormat.forName(format), dir.resolve(format)).saveTasks(tasks);
+            }
+            if (footprint) {
+                GraphLayout layout = GraphLayout.parseInstance(tasks);
+                System.out.printf("Generated task list: %,d bytes, %,d bytes/task%n", layout.totalSize(), layout.totalSize() / taskCount);
+                System.out.println(layout.toFootprint());
+            }
+            tasks = null;
+
+            System.out.printf("%,d tasks, %d-char descriptions, up to %d subtasks%n", taskCount, descriptionSize, maxSubtasks);
+            System.out.printf("%-8s %-7s %12s %10s %10s %12s%n", "format", "holder", "heap MB", "bytes/task", "load ms", "search ms");
+            for (String format : formats) {
+                report(format, "list", dir.resolve(format), false);
+                report(format, "engine", dir.resolve(format), true);
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(dir)) {
+                for (Path path : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    private static void report(String format, String holder, Path dataDir, boolean engine) throws IOException {
+        long baseline = usedHeap();
+        TaskStorage storage = new TaskStorage(StorageFormat.forName(format), dataDir);
+        long start = System.nanoTime();
+        Object retained;
+        int count;
+        long loadMillis;
+        String search = "-";
+        if (engine) {
+            TaskEngine taskEngine = new TaskEngine(storage);
+            taskEngine.load();
+            loadMillis = (System.nanoTime() - start) / 1_000_000;
+            long searchStart = System.nanoTime();
+            taskEngine.getSearchIndex().lookup("migration budget");
+            search = String.format("%.2f", (System.nanoTime() - searchStart) / 1e6);
+            retained = taskEngine;
+            count = taskEngine.size();
+        } else {
+            List<Task> tasks = storage.loadTasks();
+            loadMillis = (System.nanoTime() - start) / 1_000_000;
+            retained = tasks;
+            count = tasks.size();
+        }
+        long bytes = usedHeap() - baseline;
+        Reference.reachabilityFence(retained);
+        System.out.printf("%-8s %-7s %,12.1f %,10d %,10d %12s%n", format, holder, bytes / 1e6, bytes / Math.max(1, count),
+                loadMillis, search);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.bench;
+
+import javafx.beans.Observable;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.SortedList;
+import org.example.index.OrderedTaskList;
+import org.example.index.TaskOrdering;
+import org.example.model.Task;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeping the task list sorted: a {@link SortedList} over the revision-extractor list, as
+ * MiniNotion used, against {@link OrderedTaskList}. Measures one due-date edit (which
+ * must reposition the task) and a switch between two orderings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderingBenchmark {
+
+    @Param({"10000", "100000"})
+    public int taskCount;
+
+    @Param({"sorted", "ordered"})
+    public String list;
+
+    private List<Task> tasks;
+    private SortedList<Task> sorted;
+    private OrderedTaskList ordered;
+    private ObservableList<Task> view;
+    private int next;
+    private boolean byPriority;
+
+    @Setup
+    public void setUp() {
+        tasks = new TaskGenerator().taskCount(taskCount).generate();
+        ObservableList<Task> source = FXCollections.observableArrayList(task -> new Observable[] { task.revisionProperty() });
+        source.addAll(tasks);
+        if ("sorted".equals(list)) {
+            sorted = new SortedList<>(source, Task.BY_DUE_DATE);
+            view = sorted;
+        } else {
+            ordered = new OrderedTaskList(source, TaskOrdering.DUE_DATE);
+            view = ordered;
+        }
+    }
+
+    @Benchmark
+    public Task editDueDate() {
+        int i = next++;
+        tasks.get(i % tasks.size()).setDueDate(LocalDate.of(2025, 1, 1).plusDays(i % 365));
+        return view.get(0);
+    }
+
+    @Benchmark
+    public Task switchOrdering() {
+        byPriority = !byPriority;
+        if (sorted != null) {
+            sorted.setComparator(byPriority ? Task.BY_PRIORITY : Task.BY_DUE_DATE);
+        } else {
+            ordered.setOrdering(byPriority ? TaskOrdering.PRIORITY : TaskOrdering.DUE_DATE);
+        }
+        return view.get(0);
+    }
+}
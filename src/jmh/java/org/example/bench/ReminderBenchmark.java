@@ -0,0 +1,69 @@
+package org.example.bench;
+
+import org.example.schedule.TimerWheel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The reminder scheduler's {@link TimerWheel} holding {@code pending} reminders spread
+ * over the next year, in epoch minutes: moving one reminder (what an edit costs) and a
+ * minute's tick. Both should stay flat as {@code pending} grows; the heap per entry,
+ * printed once per trial, should stay the same too.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ReminderBenchmark {
+
+    private static final int MINUTES_PER_YEAR = 365 * 24 * 60;
+
+    @Param({"100000", "1000000"})
+    public int pending;
+
+    private TimerWheel<Object> wheel;
+    private int[] handles;
+    private final Object payload = new Object();
+    private final Random random = new Random(42);
+    private long minute;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        minute = 29_000_000; // 2025
+        wheel = new TimerWheel<>(minute);
+        handles = new int[pending];
+        for (int i = 0; i < pending; i++) handles[i] = wheel.schedule(minute + 1 + random.nextInt(MINUTES_PER_YEAR), payload);
+        System.out.printf("%nHeap per pending entry: %.1f bytes%n", (double) GraphLayout.parseInstance(wheel).totalSize() / pending);
+    }
+
+    @Benchmark
+    public int reschedule() {
+        int i = random.nextInt(pending);
+        wheel.cancel(handles[i]);
+        return handles[i] = wheel.schedule(minute + 1 + random.nextInt(MINUTES_PER_YEAR), payload);
+    }
+
+    // Whatever fires is scheduled again a year on, so the wheel stays at its size
+    @Benchmark
+    public int tick() {
+        long next = ++minute;
+        wheel.advance(next, fired -> wheel.schedule(next + MINUTES_PER_YEAR, fired));
+        return wheel.size();
+    }
+}
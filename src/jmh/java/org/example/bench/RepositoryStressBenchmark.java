@@ -0,0 +1,116 @@
+package org.example.bench;
+
+import org.example.engine.TaskRepository;
+import org.example.model.Task;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Multi-threaded stress test for {@link TaskRepository}.
+ *
+ * Every update increments a counter kept in the task's title and description. After each
+ * iteration the counters are summed and compared with the number of updates performed;
+ * a lost update or a torn published copy (title != description) fails the run. Compare
+ * {@code stripes=1} (one global lock) with the default striping, and a hot set of 64
+ * tasks with a spread-out board. Run with {@code -PjmhIncludes=RepositoryStressBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryStressBenchmark {
+
+    @Param({"64", "10000"})
+    public int taskCount;
+
+    @Param({"1", "64"})
+    public int stripes;
+
+    private TaskRepository repository;
+    private String[] ids;
+    private final LongAdder updates = new LongAdder();
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        repository = new TaskRepository(stripes);
+        ids = new String[taskCount];
+        for (int i = 0; i < taskCount; i++) {
+            Task task = new Task("0", "0", Task.Priority.MEDIUM, null);
+            repository.add(task);
+            ids[i] = task.getId();
+        }
+        updates.reset();
+    }
+
+    @TearDown(Level.Iteration)
+    public void verify() {
+        long total = 0;
+        for (String id : ids) {
+            Task live = repository.get(id);
+            Task copy = repository.getCopy(id);
+            if (!live.getTitle().equals(copy.getTitle()) || !copy.getTitle().equals(copy.getDescription())) {
+                throw new IllegalStateException("Published copy of " + id + " is stale or torn");
+            }
+            total += Long.parseLong(live.getTitle());
+        }
+        if (total != updates.sum()) {
+            throw new IllegalStateException("Lost updates: " + updates.sum() + " performed, " + total + " recorded");
+        }
+    }
+
+    private void increment() {
+        String id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        repository.update(id, task -> {
+            String next = Long.toString(Long.parseLong(task.getTitle()) + 1);
+            task.setTitle(next);
+            task.setDescription(next);
+        });
+        updates.increment();
+    }
+
+    /** Mutation throughput with every available core writing. */
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void update() {
+        increment();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public void mixedWrite() {
+        increment();
+    }
+
+    /** Lock-free reads running next to the writers; a torn copy fails the run. */
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public int mixedRead() {
+        Task copy = repository.getCopy(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+        if (!copy.getTitle().equals(copy.getDescription())) {
+            throw new IllegalStateException("Torn read of " + copy.getId());
+        }
+        return repository.snapshot().size();
+    }
+}
@@ -0,0 +1,87 @@
+package org.example.bench;
+
+import org.example.model.Task;
+import org.example.storage.StorageFormat;
+import org.example.storage.TaskStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Full-file save and load through {@link TaskStorage} in each storage format. The size of
+ * the files written (the index and the side file for lazy) is printed at the end of each
+ * trial, so one run compares both speed and footprint on disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class StorageBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int taskCount;
+
+    @Param({"json", "binary", "lazy"})
+    public String format;
+
+    private List<Task> tasks;
+    private Path dataDir;
+    private TaskStorage storage;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        tasks = new TaskGenerator().taskCount(taskCount).generate();
+        dataDir = Files.createTempDirectory("mininotion-jmh");
+        storage = new TaskStorage(StorageFormat.forName(format), dataDir);
+        storage.saveTasks(tasks);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        long bytes = 0;
+        StringBuilder sizes = new StringBuilder();
+        try (Stream<Path> files = Files.walk(dataDir)) {
+            for (Path path : (Iterable<Path>) files.filter(Files::isRegularFile).sorted()::iterator) {
+                long size = Files.size(path);
+                bytes += size;
+                sizes.append(String.format(", %s %.1f MB", path.getFileName(), size / 1e6));
+            }
+        }
+        System.out.printf("%nStored %,d tasks as %s: %.1f MB (%s)%n", taskCount, format, bytes / 1e6, sizes.substring(2));
+        try (Stream<Path> files = Files.walk(dataDir)) {
+            for (Path path : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public void saveTasks() throws IOException {
+        storage.saveTasks(tasks);
+    }
+
+    @Benchmark
+    public List<Task> loadTasks() throws IOException {
+        return storage.loadTasks();
+    }
+}
@@ -0,0 +1,111 @@
+package org.example.bench;
+
+import org.example.engine.TaskEngine;
+import org.example.model.Task;
+import org.example.storage.StorageFormat;
+import org.example.storage.TaskStorage;
+import org.example.sync.SyncServer;
+import org.example.sync.TaskSync;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Syncing {@code edits} changed tasks of a large board between two replicas over a
+ * loopback socket. Both replicas hold the full board (the initial sync is part of the
+ * setup), so the time and the bytes exchanged, printed at the end of each trial, should
+ * follow the number of edits rather than {@code taskCount}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SyncBenchmark {
+
+    @Param({"10000", "500000"})
+    public int taskCount;
+
+    @Param({"100"})
+    public int edits;
+
+    private Path dataDir;
+    private TaskEngine local;
+    private TaskEngine remote;
+    private TaskSync sync;
+    private SyncServer server;
+    private List<String> ids;
+    private final Random random = new Random(42);
+    private long syncs;
+    private long bytes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataDir = Files.createTempDirectory("mininotion-jmh");
+        TaskStorage localStorage = new TaskStorage(StorageFormat.forName("binary"), dataDir.resolve("local"));
+        localStorage.saveTasks(new TaskGenerator().taskCount(taskCount).generate());
+        local = new TaskEngine(localStorage);
+        local.load(); // versions every task as a local change
+        remote = new TaskEngine(new TaskStorage(StorageFormat.forName("binary"), dataDir.resolve("remote")));
+        remote.load();
+        // Each engine stays on one thread: the local one on the benchmark's, the remote one on the server's
+        sync = new TaskSync(local, Runnable::run);
+        server = new SyncServer(new TaskSync(remote, Runnable::run), 0, result -> { });
+        server.start();
+        TaskSync.Result initial = sync.sync("localhost", server.getPort());
+        System.out.println("\nInitial sync: " + initial);
+        ids = new ArrayList<>(taskCount);
+        for (Task task : local.getRepository().liveTasks()) ids.add(task.getId());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (syncs > 0) System.out.printf("%nAverage per sync: %,d bytes%n", bytes / syncs);
+        server.close();
+        local.close();
+        remote.close();
+        try (Stream<Path> files = Files.walk(dataDir)) {
+            for (Path path : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void edit() {
+        for (int i = 0; i < edits; i++) {
+            Task task = local.getTask(ids.get(random.nextInt(ids.size())));
+            Task.Priority priority = Task.Priority.values()[random.nextInt(Task.Priority.values().length)];
+            local.updateTask(task, task.getTitle(), task.getDescription(), priority, task.getDueDate(), task.getStatus());
+        }
+    }
+
+    @Benchmark
+    public TaskSync.Result syncEdits() throws IOException {
+        TaskSync.Result result = sync.sync("localhost", server.getPort());
+        syncs++;
+        bytes += result.getBytesSent() + result.getBytesReceived();
+        return result;
+    }
+}
@@ -0,0 +1,94 @@
+package org.example.bench;
+
+import org.example.model.Subtask;
+import org.example.model.Task;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/** Deterministic synthetic boards for benchmarks. */
+public class TaskGenerator {
+
+    private static final String[] WORDS = {
+            "report", "review", "deploy", "budget", "design", "meeting", "invoice", "release",
+            "client", "backlog", "roadmap", "migration", "hiring", "security", "audit", "launch"
+    };
+    private static final String[] SUBTASK_TEXTS = {
+            "Write tests", "Review PR", "Update docs", "Deploy to staging", "Notify team", "Check metrics"
+    };
+
+    private int taskCount = 10_000;
+    private int maxSubtasks = 5;
+    private int descriptionSize = 80;
+    private int dateSpreadDays = 365;
+    private long seed = 42;
+
+    public TaskGenerator taskCount(int taskCount) {
+        this.taskCount = taskCount;
+        return this;
+    }
+
+    /** Each task gets between 0 and {@code maxSubtasks} subtasks. */
+    public TaskGenerator maxSubtasks(int maxSubtasks) {
+        this.maxSubtasks = maxSubtasks;
+        return this;
+    }
+
+    /** Approximate description length in characters. */
+    public TaskGenerator descriptionSize(int descriptionSize) {
+        this.descriptionSize = descriptionSize;
+        return this;
+    }
+
+    /** Due dates are spread over this many days around today; one task in ten has none. */
+    public TaskGenerator dateSpreadDays(int dateSpreadDays) {
+        this.dateSpreadDays = dateSpreadDays;
+        return this;
+    }
+
+    public TaskGenerator seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public List<Task> generate() {
+        Random random = new Random(seed);
+        LocalDate today = LocalDate.now();
+        List<Task> tasks = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            String title = words(random, 2 + random.nextInt(3)) + " " + i;
+            LocalDate due = random.nextInt(10) == 0 ? null
+                    : today.plusDays(random.nextInt(dateSpreadDays) - dateSpreadDays / 4);
+            Task task = new Task(title, description(random), Task.Priority.values()[random.nextInt(3)], due);
+            task.setStatus(Task.Status.values()[random.nextInt(3)]);
+            int subtasks = maxSubtasks == 0 ? 0 : random.nextInt(maxSubtasks + 1);
+            for (int j = 0; j < subtasks; j++) {
+                Subtask subtask = new Subtask(SUBTASK_TEXTS[random.nextInt(SUBTASK_TEXTS.length)]);
+                subtask.setCompleted(random.nextBoolean());
+                task.addSubtask(subtask);
+            }
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private String description(Random random) {
+        StringBuilder sb = new StringBuilder(descriptionSize + 16);
+        while (sb.length() < descriptionSize) {
+            if (sb.length() > 0) sb.append(' ');
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.substring(0, 1).toUpperCase() + sb.substring(1);
+    }
+}
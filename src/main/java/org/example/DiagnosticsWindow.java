@@ -0,0 +1,95 @@
+package org.example;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.layout.BorderPane;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+import javafx.util.Duration;
+import org.example.metrics.Metrics;
+
+import java.util.function.Function;
+
+/**
+ * Live view of {@link Metrics}: count, mean and percentiles of every timer (in ms) and
+ * histogram, and the value of every counter, refreshed once a second while it is open.
+ * One instance per application, opened from the toolbar.
+ */
+final class DiagnosticsWindow {
+
+    private static Stage stage;
+    private static Timeline refresh;
+
+    private DiagnosticsWindow() {
+    }
+
+    static void show(Window owner) {
+        if (stage == null) create(owner);
+        stage.show();
+        stage.toFront();
+    }
+
+    static void close() {
+        if (stage != null) stage.close();
+    }
+
+    private static void create(Window owner) {
+        TableView<Metrics.Summary> table = new TableView<>();
+        table.getColumns().add(textColumn("Metric", Metrics.Summary::getName, 170));
+        table.getColumns().add(textColumn("Type", Metrics.Summary::getType, 80));
+        table.getColumns().add(numberColumn("Count", summary -> (double) summary.getCount(), "%,.0f", false));
+        table.getColumns().add(numberColumn("Mean", Metrics.Summary::getMean, "%.3f", true));
+        table.getColumns().add(numberColumn("p50", Metrics.Summary::getP50, "%.3f", true));
+        table.getColumns().add(numberColumn("p90", Metrics.Summary::getP90, "%.3f", true));
+        table.getColumns().add(numberColumn("p99", Metrics.Summary::getP99, "%.3f", true));
+        table.getColumns().add(numberColumn("Max", Metrics.Summary::getMax, "%.3f", true));
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+
+        Label note = new Label(Metrics.ENABLED
+                ? "Cumulative since start-up; timers in milliseconds. Also published over JMX."
+                : "Recording is off (-Dmininotion.metrics=false).");
+
+        BorderPane root = new BorderPane(table);
+        root.setBottom(note);
+
+        stage = new Stage();
+        stage.initOwner(owner);
+        stage.setTitle("MiniNotion - Diagnostics");
+        stage.setScene(new Scene(root, 760, 420));
+
+        refresh = new Timeline(new KeyFrame(Duration.seconds(1), e -> table.getItems().setAll(Metrics.summaries())));
+        refresh.setCycleCount(Timeline.INDEFINITE);
+        stage.setOnShown(e -> {
+            table.getItems().setAll(Metrics.summaries());
+            refresh.play();
+        });
+        stage.setOnHidden(e -> refresh.stop());
+    }
+
+    private static TableColumn<Metrics.Summary, String> textColumn(String title, Function<Metrics.Summary, String> value,
+                                                                   double width) {
+        TableColumn<Metrics.Summary, String> column = new TableColumn<>(title);
+        column.setCellValueFactory(cell -> new ReadOnlyStringWrapper(value.apply(cell.getValue())));
+        column.setPrefWidth(width);
+        return column;
+    }
+
+    // Counters have no distribution, so their other columns stay empty
+    private static TableColumn<Metrics.Summary, String> numberColumn(String title, Function<Metrics.Summary, Double> value,
+                                                                     String format, boolean distribution) {
+        TableColumn<Metrics.Summary, String> column = new TableColumn<>(title);
+        column.setCellValueFactory(cell -> {
+            Metrics.Summary summary = cell.getValue();
+            boolean blank = distribution && "counter".equals(summary.getType());
+            return new ReadOnlyObjectWrapper<>(blank ? "" : String.format(format, value.apply(summary)));
+        });
+        column.setStyle("-fx-alignment: CENTER-RIGHT;");
+        return column;
+    }
+}
@@ -1,48 +1,146 @@
 package org.example;
 
+import javafx.animation.PauseTransition;
 import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.beans.Observable;
 import javafx.beans.binding.Bindings;
+import javafx.beans.binding.ObjectBinding;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.collections.transformation.FilteredList;
-import javafx.collections.transformation.SortedList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
 import javafx.scene.layout.*;
-import javafx.scene.paint.Color;
-import javafx.scene.shape.Circle;
-import javafx.scene.text.Font;
-import javafx.scene.text.FontWeight;
-import javafx.scene.text.Text;
+import javafx.stage.Modality;
 import javafx.stage.Stage;
+import javafx.util.Duration;
+import org.example.analytics.BoardAnalytics;
+import org.example.api.TaskApiServer;
+import org.example.engine.TaskEngine;
+import org.example.engine.TaskRepository;
+import org.example.engine.WorkspaceManager;
+import org.example.index.OrderedTaskList;
+import org.example.index.TaskIndex;
+import org.example.index.TaskOrdering;
+import org.example.metrics.Counter;
+import org.example.metrics.Metrics;
+import org.example.metrics.MetricsDumper;
+import org.example.metrics.MetricsJmx;
+import org.example.metrics.Timer;
+import org.example.model.Recurrence;
 import org.example.model.Subtask;
 import org.example.model.Task;
+import org.example.schedule.ReminderScheduler;
+import org.example.storage.AutoSaver;
+import org.example.storage.StorageFormat;
 import org.example.storage.TaskStorage;
+import org.example.sync.SyncServer;
+import org.example.sync.TaskSync;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.util.Comparator;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.time.format.TextStyle;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 
 public class MiniNotion extends Application {
 
-    private final TaskStorage taskStorage = new TaskStorage();
+    private static final String STORAGE_MODE = System.getProperty("mininotion.storage", "journal");
+    private static final long GROUP_COMMIT_MILLIS = Long.getLong("mininotion.journal.groupCommitMs", 50);
+    private static final long AUTOSAVE_DEBOUNCE_MILLIS = Long.getLong("mininotion.autosave.debounceMs", 1000);
+    private static final long SEARCH_DEBOUNCE_MILLIS = Long.getLong("mininotion.search.debounceMs", 150);
+    private static final int API_PORT = Integer.getInteger("mininotion.api.port", 0); // 0 = no API server
+    private static final int SYNC_PORT = Integer.getInteger("mininotion.sync.port", 0); // 0 = not listening
+    private static final boolean COMPACT_ROWS = "compact".equals(System.getProperty("mininotion.rows"));
+    private static final int LOAD_BATCH_SIZE = 500;
+    private static final long WORKSPACE_MEMORY_BYTES = Long.getLong("mininotion.workspaces.memoryMB", 512) << 20;
+    private static final int WORKSPACE_SEARCH_LIMIT = 500;
+    private static final String METRICS_DUMP = System.getProperty("mininotion.metrics.dump"); // JSON-lines file
+    private static final long METRICS_DUMP_SECONDS = Long.getLong("mininotion.metrics.dumpSeconds", 60);
+    private static final Timer FILTER_TIMER = Metrics.timer("filter.apply");
+    private static final Counter FILTER_EVALUATIONS = Metrics.counter("filter.evaluations");
+    private static final Timer DETAILS_SHOW_TIMER = Metrics.timer("details.show");
+    private static final Timer DETAILS_UPDATE_TIMER = Metrics.timer("details.update");
+    private static final Timer FIRST_ROW_TIMER = Metrics.timer("startup.firstRow"); // once per run
+    private static final Timer WORKSPACE_LOAD_TIMER = Metrics.timer("workspace.load"); // start or switch until loaded
+    private static final String VIEW_ALL = "All Tasks";
+    private static final String VIEW_DUE_THIS_WEEK = "Due This Week";
+    private static final String VIEW_OVERDUE = "Overdue";
+    private static final int UPCOMING_DAYS = 14; // occurrences of a recurring task listed in its details
+
+    private final WorkspaceManager workspaces =
+            new WorkspaceManager(Paths.get("data"), MiniNotion::openStorage, WORKSPACE_MEMORY_BYTES);
+    private TaskEngine engine; // of the active workspace; replaced on the FX thread when switching
+    private String workspaceName;
+    private TaskRepository.ChangeListener changeListener;
+    private ComboBox<String> workspaceBox;
+    private ToolBar toolBar;
+    private String pendingSelection; // task to select once the workspace being opened has loaded
+    private Stage stage;
     private ObservableList<Task> tasks;
+    private AutoSaver autoSaver; // File modes only; the journal already persists every edit
+    private TaskApiServer apiServer;
+    private SyncServer syncServer;
+    private BoardAnalytics analytics; // of the active workspace, kept up to date on the analytics thread
+    private final ExecutorService analyticsThread = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "board-analytics");
+        t.setDaemon(true);
+        return t;
+    });
+    private ReminderScheduler reminders; // of the active workspace
+    private MetricsDumper metricsDumper;
     private ListView<Task> taskListView;
+    private final TaskRowCache rowCache = new TaskRowCache();
     private FilteredList<Task> filteredData;
+    private ObjectBinding<Predicate<Task>> filterBinding;
+    private SearchFilter searchFilter;
     private VBox detailsPanel; // Panel to show details of selected task
 
     // UI elements for the details panel that need to be updated
     private Label titleLabel, statusLabel, priorityLabel, dueDateLabel;
     private Label descriptionText;
+    private VBox recurrenceBox;
+    private Label recurrenceLabel, upcomingLabel;
+    private Button completeOccurrenceButton, skipOccurrenceButton;
     private VBox subtaskContainer;
     private ProgressBar subtaskProgressBar;
+    private Label detailsPlaceholder;
+    private List<Node> detailsNodes;
+    private Task detailsTask; // Task currently shown in the details panel
+    private final Task.Observer detailsObserver = this::detailsTaskChanged;
+
+    private volatile boolean loadComplete;
+    private boolean editedWhileLoading;
+    private long startNanos;
+    private long firstRowNanos = -1;
 
     public static void main(String[] args) {
         launch(args);
@@ -50,12 +148,11 @@ public class MiniNotion extends Application {
 
     @Override
     public void start(Stage primaryStage) {
-        try {
-            tasks = FXCollections.observableArrayList(taskStorage.loadTasks());
-        } catch (IOException e) {
-            e.printStackTrace();
-            tasks = FXCollections.observableArrayList();
-        }
+        startNanos = System.nanoTime();
+        stage = primaryStage;
+        // The extractor turns each task's revision bump into a list update event, so only
+        // the row of a changed task is re-rendered instead of refreshing the whole view.
+        tasks = FXCollections.observableArrayList(task -> new Observable[] { task.revisionProperty() });
 
         BorderPane root = new BorderPane();
         root.setPadding(new Insets(10));
@@ -63,7 +160,7 @@ public class MiniNotion extends Application {
         taskListView = createListView();
 
 
-        ToolBar toolBar = createToolBar();
+        toolBar = createToolBar();
 
 
         detailsPanel = createDetailsPanel();
@@ -78,11 +175,18 @@ public class MiniNotion extends Application {
         // Listener to update details panel when selection changes
         taskListView.getSelectionModel().selectedItemProperty().addListener((obs, oldSelection, newSelection) -> {
             if (newSelection != null) {
-                updateDetailsPanel(newSelection);
+                showDetails(newSelection);
             }
         });
 
         Scene scene = new Scene(root, 1200, 700);
+        scene.addPostLayoutPulseListener(RenderStats::layoutPulse);
+        scene.addPostLayoutPulseListener(searchFilter::layoutPulse);
+        // Text fields keep their own undo; these only fire when the key is not consumed there
+        scene.getAccelerators().put(new KeyCodeCombination(KeyCode.Z, KeyCombination.SHORTCUT_DOWN), () -> undoRedo(true));
+        scene.getAccelerators().put(new KeyCodeCombination(KeyCode.Z, KeyCombination.SHORTCUT_DOWN, KeyCombination.SHIFT_DOWN),
+                () -> undoRedo(false));
+        scene.getAccelerators().put(new KeyCodeCombination(KeyCode.Y, KeyCombination.SHORTCUT_DOWN), () -> undoRedo(false));
         scene.getStylesheets().add(getClass().getResource("/styles/style.css").toExternalForm());
 
         try {
@@ -91,18 +195,305 @@ public class MiniNotion extends Application {
             System.err.println("App icon not found.");
         }
 
-        primaryStage.setTitle("MiniNotion - Complete");
         primaryStage.setScene(scene);
         primaryStage.show();
+        MetricsJmx.register();
+        if (METRICS_DUMP != null) metricsDumper = new MetricsDumper(Paths.get(METRICS_DUMP), METRICS_DUMP_SECONDS * 1000);
+        switchWorkspace(System.getProperty("mininotion.workspace", WorkspaceManager.DEFAULT));
 
         primaryStage.setOnCloseRequest(event -> {
+            detachWorkspace();
+            DiagnosticsWindow.close();
+            StatsWindow.close();
             try {
-                taskStorage.saveTasks(tasks);
+                workspaces.close(); // saves every resident workspace
             } catch (IOException e) {
                 e.printStackTrace();
                 showError("Save Error", "Could not save tasks to file.");
             }
+            if (metricsDumper != null) metricsDumper.close();
+        });
+    }
+
+    private static TaskStorage openStorage(Path dir) throws IOException {
+        TaskStorage storage = new TaskStorage(StorageFormat.forName(STORAGE_MODE), dir);
+        if ("journal".equals(STORAGE_MODE)) storage.enableJournal(GROUP_COMMIT_MILLIS);
+        return storage;
+    }
+
+    /**
+     * Makes {@code name} the active workspace. The previous one is flushed and stays
+     * resident until the workspace memory budget evicts it; the new one is opened on a
+     * background thread and, unless it is still resident, streamed into the list in
+     * batches, so the window is usable while a large board is still loading.
+     */
+    private void switchWorkspace(String name) {
+        if (workspaceName != null) startNanos = System.nanoTime();
+        detachWorkspace();
+        toolBar.setDisable(true); // until the new engine is attached
+        workspaceBox.setDisable(true); // until it has loaded
+        if (!workspaceBox.getItems().contains(name)) workspaceBox.getItems().add(name);
+        workspaceBox.setValue(name);
+        loadComplete = false;
+        editedWhileLoading = false;
+        Thread loader = new Thread(() -> {
+            TaskEngine next;
+            try {
+                next = workspaces.activate(name); // may save and evict other workspaces
+            } catch (IOException | IllegalArgumentException e) {
+                e.printStackTrace();
+                Platform.runLater(() -> {
+                    showError("Load Error", "Could not open workspace " + name + ".");
+                    toolBar.setDisable(false);
+                    workspaceBox.setDisable(false);
+                });
+                return;
+            }
+            // Repository changes (from any thread) reach the list in batches on the FX thread;
+            // batches still queued for a previous workspace are dropped
+            TaskRepository.ChangeListener listener = batch -> {
+                if (engine == next) applyChanges(batch);
+            };
+            next.getRepository().subscribe(Platform::runLater, listener);
+            if (next.isLoaded()) {
+                List<Task> resident = new ArrayList<>(next.getRepository().liveTasks());
+                Platform.runLater(() -> {
+                    attachWorkspace(name, next, listener);
+                    tasks.setAll(resident);
+                });
+            } else {
+                Platform.runLater(() -> attachWorkspace(name, next, listener));
+                try {
+                    next.streamLoad(LOAD_BATCH_SIZE, next::addLoaded); // thread-safe; the list follows via applyChanges
+                } catch (IOException e) {
+                    e.printStackTrace();
+                    Platform.runLater(() -> showError("Load Error", "Could not load tasks from file."));
+                }
+            }
+            Platform.runLater(() -> {
+                loadComplete = true;
+                workspaceBox.setDisable(false);
+                if (autoSaver != null && editedWhileLoading) autoSaver.requestSave();
+                selectPending();
+                WORKSPACE_LOAD_TIMER.stop(startNanos);
+            });
+        }, "task-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private void attachWorkspace(String name, TaskEngine next, TaskRepository.ChangeListener listener) {
+        engine = next;
+        workspaceName = name;
+        changeListener = listener;
+        filterBinding.invalidate();
+        searchFilter.setEngine(next);
+        toolBar.setDisable(false);
+        stage.setTitle("MiniNotion - " + name);
+        if (!next.getStorage().isJournaled()) {
+            autoSaver = new AutoSaver(next.getStorage(), () -> next.getRepository().snapshot().getTasks(), AUTOSAVE_DEBOUNCE_MILLIS);
+        }
+        startApiServer();
+        startSyncServer();
+        analytics = new BoardAnalytics(next.getRepository(), analyticsThread);
+        analytics.start();
+        reminders = new ReminderScheduler(next.getRepository(), Platform::runLater, (due, overdue) -> {
+            if (engine == next) remindersFired(due, overdue);
         });
+        reminders.start();
+    }
+
+    // Flushes the active workspace and empties the view; its engine stays with the manager
+    private void detachWorkspace() {
+        if (engine == null) return;
+        if (apiServer != null) {
+            apiServer.close();
+            apiServer = null;
+        }
+        if (syncServer != null) {
+            try {
+                syncServer.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            syncServer = null;
+        }
+        analytics.close();
+        analytics = null;
+        reminders.close();
+        reminders = null;
+        if (autoSaver != null) {
+            if (!autoSaver.close(5, TimeUnit.SECONDS)) {
+                showError("Save Error", "Could not save tasks to file.");
+            }
+            autoSaver = null;
+        }
+        engine.getRepository().unsubscribe(changeListener);
+        searchFilter.setEngine(null);
+        clearDetails();
+        tasks.clear();
+        engine = null;
+        workspaceName = null;
+    }
+
+    private void selectPending() {
+        if (pendingSelection == null) return;
+        Task task = engine.getTask(pendingSelection);
+        pendingSelection = null;
+        if (task == null) return;
+        taskListView.getSelectionModel().select(task);
+        taskListView.scrollTo(task);
+    }
+
+    private void showNewWorkspaceDialog() {
+        TextInputDialog dialog = new TextInputDialog();
+        dialog.setTitle("New Workspace");
+        dialog.setHeaderText("Name the new workspace.");
+        dialog.showAndWait().map(String::trim).filter(name -> !name.isEmpty()).ifPresent(name -> {
+            try {
+                WorkspaceManager.directory(Paths.get("data"), name);
+            } catch (IllegalArgumentException e) {
+                showError("Invalid Name", "Use letters, digits, spaces, '.', '_' or '-'.");
+                return;
+            }
+            switchWorkspace(name);
+        });
+    }
+
+    /** Searches every workspace, answering closed ones from their saved search indexes. */
+    private void showWorkspaceSearchDialog(String initialQuery) {
+        Dialog<WorkspaceManager.Hit> dialog = new Dialog<>();
+        dialog.setTitle("Search All Workspaces");
+        dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OPEN, ButtonType.CANCEL);
+
+        TextField queryField = new TextField(initialQuery);
+        queryField.setPromptText("Search every workspace...");
+        ListView<WorkspaceManager.Hit> hits = new ListView<>();
+        hits.setPrefSize(520, 360);
+        Label status = new Label();
+        Runnable runSearch = () -> {
+            String query = queryField.getText();
+            status.setText("Searching...");
+            Thread search = new Thread(() -> {
+                try {
+                    List<WorkspaceManager.Hit> found = workspaces.search(query, WORKSPACE_SEARCH_LIMIT);
+                    Platform.runLater(() -> {
+                        hits.getItems().setAll(found);
+                        status.setText(found.size() + (found.size() >= WORKSPACE_SEARCH_LIMIT ? "+" : "") + " matches");
+                    });
+                } catch (IOException ex) {
+                    ex.printStackTrace();
+                    Platform.runLater(() -> status.setText("Search failed: " + ex.getMessage()));
+                }
+            }, "workspace-search");
+            search.setDaemon(true);
+            search.start();
+        };
+        queryField.setOnAction(e -> runSearch.run());
+        hits.setOnMouseClicked(e -> {
+            if (e.getClickCount() == 2 && hits.getSelectionModel().getSelectedItem() != null) {
+                dialog.setResult(hits.getSelectionModel().getSelectedItem());
+                dialog.close();
+            }
+        });
+
+        dialog.getDialogPane().setContent(new VBox(10, queryField, hits, status));
+        dialog.setResultConverter(button -> button == ButtonType.OPEN ? hits.getSelectionModel().getSelectedItem() : null);
+        if (!initialQuery.isBlank()) runSearch.run();
+        dialog.showAndWait().ifPresent(hit -> {
+            pendingSelection = hit.getTaskId();
+            if (hit.getWorkspace().equals(workspaceName) && loadComplete) {
+                selectPending();
+            } else if (!hit.getWorkspace().equals(workspaceName)) {
+                switchWorkspace(hit.getWorkspace());
+            }
+        });
+    }
+
+    // Local HTTP API for scripts; requests are served on the FX thread, like UI edits
+    private void startApiServer() {
+        if (API_PORT <= 0 || apiServer != null) return;
+        try {
+            apiServer = new TaskApiServer(engine, Platform::runLater, new InetSocketAddress("localhost", API_PORT));
+            apiServer.start();
+        } catch (IOException e) {
+            System.err.println("Could not start the task API on port " + API_PORT + ": " + e.getMessage());
+        }
+    }
+
+    // Lets other instances sync with the active workspace; received tasks are applied on the FX thread
+    private void startSyncServer() {
+        if (SYNC_PORT <= 0 || syncServer != null) return;
+        try {
+            syncServer = new SyncServer(new TaskSync(engine, Platform::runLater), SYNC_PORT,
+                    result -> System.out.println("Synced: " + result));
+            syncServer.start();
+        } catch (IOException e) {
+            System.err.println("Could not listen for sync on port " + SYNC_PORT + ": " + e.getMessage());
+        }
+    }
+
+    /** Syncs the active workspace with another instance (host:port) or through a shared folder. */
+    private void showSyncDialog() {
+        TextInputDialog dialog = new TextInputDialog();
+        dialog.setTitle("Sync");
+        dialog.setHeaderText("Sync with another MiniNotion instance.");
+        dialog.setContentText("Peer (host:port) or shared folder:");
+        dialog.showAndWait().map(String::trim).filter(target -> !target.isEmpty()).ifPresent(target -> {
+            TaskSync sync = new TaskSync(engine, Platform::runLater);
+            Thread worker = new Thread(() -> {
+                try {
+                    int colon = target.lastIndexOf(':');
+                    TaskSync.Result result = target.matches(".+:\\d+")
+                            ? sync.sync(target.substring(0, colon), Integer.parseInt(target.substring(colon + 1)))
+                            : sync.syncFolder(Paths.get(target));
+                    Platform.runLater(() -> showAlert("Sync Complete", "Synced: " + result + "."));
+                } catch (IOException ex) {
+                    ex.printStackTrace();
+                    Platform.runLater(() -> showError("Sync Error", "Could not sync with " + target + ": " + ex.getMessage()));
+                }
+            }, "task-sync");
+            worker.setDaemon(true);
+            worker.start();
+        });
+    }
+
+    // Runs on the FX thread with every change queued since the previous batch
+    private void applyChanges(List<TaskRepository.Change> batch) {
+        List<Task> added = new ArrayList<>();
+        boolean edited = false;
+        for (TaskRepository.Change change : batch) {
+            switch (change.getType()) {
+                case LOADED:
+                    added.add(change.getTask());
+                    break;
+                case ADDED:
+                    added.add(change.getTask());
+                    edited = true;
+                    break;
+                case REMOVED:
+                    if (!added.remove(change.getTask())) {
+                        tasks.addAll(added);
+                        added.clear();
+                        tasks.remove(change.getTask());
+                    }
+                    edited = true;
+                    break;
+                default:
+                    edited = true; // rows follow through the revision extractor
+            }
+        }
+        tasks.addAll(added);
+        searchFilter.refresh(); // new and edited tasks are matched against the query in the background
+        if (firstRowNanos < 0 && !tasks.isEmpty()) {
+            firstRowNanos = System.nanoTime() - startNanos;
+            FIRST_ROW_TIMER.record(firstRowNanos);
+        }
+        if (edited && autoSaver != null) {
+            // Saving before loading finished would truncate the file to the rows loaded so far
+            if (loadComplete) autoSaver.requestSave();
+            else editedWhileLoading = true;
+        }
     }
 
     private ToolBar createToolBar() {
@@ -124,62 +515,118 @@ public class MiniNotion extends Application {
         deleteButton.setId("deleteButton");
         deleteButton.setOnAction(e -> deleteTask());
 
+        Button undoButton = new Button("Undo");
+        undoButton.setOnAction(e -> undoRedo(true));
+        undoButton.setTooltip(historyTooltip(true));
+        Button redoButton = new Button("Redo");
+        redoButton.setOnAction(e -> undoRedo(false));
+        redoButton.setTooltip(historyTooltip(false));
+
+        // --- Workspaces ---
+        workspaceBox = new ComboBox<>();
+        try {
+            workspaceBox.getItems().setAll(workspaces.names());
+        } catch (IOException e) {
+            e.printStackTrace();
+            workspaceBox.getItems().setAll(WorkspaceManager.DEFAULT);
+        }
+        // Programmatic switches set the value while the box is disabled
+        workspaceBox.valueProperty().addListener((obs, oldVal, newVal) -> {
+            if (newVal != null && !workspaceBox.isDisabled() && !newVal.equals(workspaceName)) switchWorkspace(newVal);
+        });
+        Button newWorkspaceButton = new Button("New");
+        newWorkspaceButton.setOnAction(e -> showNewWorkspaceDialog());
+        Button syncButton = new Button("Sync");
+        syncButton.setOnAction(e -> showSyncDialog());
+        Button diagnosticsButton = new Button("Diagnostics");
+        diagnosticsButton.setOnAction(e -> DiagnosticsWindow.show(stage));
+        Button statsButton = new Button("Stats");
+        statsButton.setOnAction(e -> StatsWindow.show(stage, () -> analytics == null ? null : analytics.stats(LocalDate.now())));
+        HBox workspaceGroup = new HBox(5, new Label("Workspace:"), workspaceBox, newWorkspaceButton);
+        workspaceGroup.setAlignment(Pos.CENTER_LEFT);
+
         // --- Filtering and Sorting ---
         TextField searchField = new TextField();
-        searchField.setPromptText("\uD83D\uDD0E Search tasks..."); // Using Unicode escape for 🔍
+        searchField.setPromptText("\uD83D\uDD0E Search tasks, notes, subtasks..."); // Using Unicode escape for 🔍
+        Button searchAllButton = new Button("All Workspaces");
+        searchAllButton.setOnAction(e -> showWorkspaceSearchDialog(searchField.getText()));
 
         ComboBox<Task.Status> statusFilter = new ComboBox<>();
         statusFilter.getItems().addAll(Task.Status.values());
         statusFilter.setPromptText("Filter by Status...");
 
-        ChoiceBox<String> sortBy = new ChoiceBox<>(FXCollections.observableArrayList("Due Date", "Priority"));
-        sortBy.setValue("Due Date");
+        ComboBox<String> viewFilter = new ComboBox<>(FXCollections.observableArrayList(VIEW_ALL, VIEW_DUE_THIS_WEEK, VIEW_OVERDUE));
+        viewFilter.setValue(VIEW_ALL);
+
+        ChoiceBox<TaskOrdering> sortBy = new ChoiceBox<>(FXCollections.observableArrayList(TaskOrdering.values()));
+        sortBy.setValue(TaskOrdering.DUE_DATE);
 
-        setupFilteringAndSorting(searchField, statusFilter, sortBy);
+        setupFilteringAndSorting(searchField, statusFilter, viewFilter, sortBy);
 
-        HBox filterSortGroup = new HBox(10, new Label("Filter:"), statusFilter, new Label("Sort By:"), sortBy);
+        HBox filterSortGroup = new HBox(10, new Label("Filter:"), statusFilter, viewFilter, new Label("Sort By:"), sortBy);
         filterSortGroup.setAlignment(Pos.CENTER_LEFT);
 
         Region spacer = new Region();
         HBox.setHgrow(spacer, Priority.ALWAYS);
 
-        return new ToolBar(addButton, editButton, deleteButton, spacer, searchField, filterSortGroup);
+        return new ToolBar(workspaceGroup, new Separator(), addButton, editButton, deleteButton, undoButton, redoButton, spacer,
+                searchField, searchAllButton, filterSortGroup, syncButton, statsButton, diagnosticsButton);
     }
 
-    private void setupFilteringAndSorting(TextField searchField, ComboBox<Task.Status> statusFilter, ChoiceBox<String> sortBy) {
-        filteredData = new FilteredList<>(tasks, p -> true);
-
-        // Combine predicates for search and status filter
+    private void setupFilteringAndSorting(TextField searchField, ComboBox<Task.Status> statusFilter,
+                                          ComboBox<String> viewFilter, ChoiceBox<TaskOrdering> sortBy) {
+        // Sort before filtering: the ordered list moves only the edited task, and the
+        // filter keeps its source's order, so neither step re-sorts on edits
+        OrderedTaskList orderedData = new OrderedTaskList(tasks, sortBy.getValue());
+        filteredData = new FilteredList<>(orderedData, p -> true);
+
+        // Combine predicates for search and status filter. Search results are computed off the
+        // FX thread and arrive as a set of tasks, so evaluating a task is a set-membership check.
+        ObjectProperty<Predicate<Task>> searchMatches = new SimpleObjectProperty<>(task -> true);
+        searchFilter = new SearchFilter(SEARCH_DEBOUNCE_MILLIS, searchMatches::set);
+        searchField.textProperty().addListener((obs, oldText, text) -> searchFilter.textChanged(text));
         Predicate<Task> searchPredicate = task -> {
-            String searchText = searchField.getText();
-            if (searchText == null || searchText.isEmpty()) return true;
-            String lowerCaseFilter = searchText.toLowerCase();
-            return task.getTitle().toLowerCase().contains(lowerCaseFilter);
-        };
-
-        Predicate<Task> statusPredicate = task -> {
-            Task.Status selectedStatus = statusFilter.getValue();
-            return selectedStatus == null || task.getStatus() == selectedStatus;
+            FILTER_EVALUATIONS.increment();
+            return searchMatches.get().test(task);
         };
 
-        // Use JavaFX Bindings to combine the predicates
-        filteredData.predicateProperty().bind(Bindings.createObjectBinding(
-                () -> searchPredicate.and(statusPredicate),
-                searchField.textProperty(),
-                statusFilter.valueProperty()
-        ));
+        // Use JavaFX Bindings to combine the predicates; status and view filters are answered by the task index
+        // of the active workspace, so switching workspaces invalidates the binding
+        filterBinding = Bindings.createObjectBinding(
+                () -> engine == null ? task -> true
+                        : searchPredicate.and(buildIndexQuery(statusFilter.getValue(), viewFilter.getValue()).toPredicate()),
+                searchMatches,
+                statusFilter.valueProperty(),
+                viewFilter.valueProperty()
+        );
+        filteredData.setPredicate(filterBinding.get());
+        filterBinding.addListener((obs, oldPredicate, predicate) -> {
+            long start = FILTER_TIMER.start(); // includes the list view catching up
+            filteredData.setPredicate(predicate);
+            FILTER_TIMER.stop(start);
+        });
 
-        SortedList<Task> sortedData = new SortedList<>(filteredData);
         sortBy.getSelectionModel().selectedItemProperty().addListener((obs, oldVal, newVal) -> {
-            if ("Priority".equals(newVal)) {
-                sortedData.setComparator(Comparator.comparing(Task::getPriority));
-            } else {
-                sortedData.setComparator(Comparator.comparing(Task::getDueDate, Comparator.nullsLast(Comparator.naturalOrder())));
-            }
+            if (newVal == null) return;
+            Task selected = taskListView.getSelectionModel().getSelectedItem();
+            orderedData.setOrdering(newVal);
+            if (selected != null) taskListView.getSelectionModel().select(selected);
         });
 
-        sortedData.setComparator(Comparator.comparing(Task::getDueDate, Comparator.nullsLast(Comparator.naturalOrder())));
-        taskListView.setItems(sortedData);
+        taskListView.setItems(filteredData);
+    }
+
+    private TaskIndex.Query buildIndexQuery(Task.Status status, String view) {
+        TaskIndex.Query query = engine.getTaskIndex().query().status(status);
+        LocalDate today = LocalDate.now();
+        if (VIEW_DUE_THIS_WEEK.equals(view)) {
+            query.dueOnOrAfter(today).dueOnOrBefore(today.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY)));
+        } else if (VIEW_OVERDUE.equals(view)) {
+            EnumSet<Task.Status> open = EnumSet.of(Task.Status.TO_DO, Task.Status.IN_PROGRESS);
+            if (status != null) open.retainAll(EnumSet.of(status));
+            query.statuses(open).dueOnOrBefore(today.minusDays(1));
+        }
+        return query;
     }
 
     private VBox createDetailsPanel() {
@@ -195,44 +642,35 @@ public class MiniNotion extends Application {
         dueDateLabel = new Label();
         descriptionText = new Label();
         descriptionText.setWrapText(true);
+
+        recurrenceLabel = new Label();
+        upcomingLabel = new Label();
+        upcomingLabel.setWrapText(true);
+        completeOccurrenceButton = new Button();
+        completeOccurrenceButton.setOnAction(e -> {
+            RenderStats.editStarted("complete occurrence");
+            engine.completeOccurrence(detailsTask); // the observer moves the due date on
+        });
+        skipOccurrenceButton = new Button("Skip");
+        skipOccurrenceButton.setOnAction(e -> {
+            RenderStats.editStarted("skip occurrence");
+            engine.skipOccurrence(detailsTask);
+        });
+        recurrenceBox = new VBox(6, recurrenceLabel, upcomingLabel, new HBox(10, completeOccurrenceButton, skipOccurrenceButton));
         subtaskContainer = new VBox(8);
         subtaskProgressBar = new ProgressBar(0);
         subtaskProgressBar.setMaxWidth(Double.MAX_VALUE);
 
-        // Placeholder content
-        Label placeholder = new Label("Select a task to see its details");
-        placeholder.getStyleClass().add("placeholder-text");
-        detailsPanel.getChildren().add(placeholder);
-
-        return detailsPanel;
-    }
-
-    private void updateDetailsPanel(Task task) {
-        detailsPanel.getChildren().clear();
-
-        // Populate with selected task's data
-        titleLabel.setText(task.getTitle());
-        statusLabel.setText("Status: " + task.getStatus());
-        priorityLabel.setText("Priority: " + task.getPriority());
-        dueDateLabel.setText("Due: " + (task.getDueDate() != null ? task.getDueDate().toString() : "N/A"));
-        descriptionText.setText(task.getDescription());
-
-        // Add Subtask controls
         Label subtaskHeader = new Label("Subtasks");
         subtaskHeader.getStyleClass().add("details-header");
 
-        updateSubtaskList(task); // Populate the subtask container
-        subtaskProgressBar.setProgress(task.getCompletionPercentage());
-
         TextField addSubtaskField = new TextField();
         addSubtaskField.setPromptText("Add a new subtask...");
         addSubtaskField.setOnKeyPressed(event -> {
-            if (event.getCode() == KeyCode.ENTER && !addSubtaskField.getText().trim().isEmpty()) {
-                Subtask newSubtask = new Subtask(addSubtaskField.getText().trim());
-                task.addSubtask(newSubtask);
+            if (event.getCode() == KeyCode.ENTER && detailsTask != null && !addSubtaskField.getText().trim().isEmpty()) {
+                RenderStats.editStarted("add subtask");
+                engine.addSubtask(detailsTask, addSubtaskField.getText().trim()); // the observer appends its checkbox
                 addSubtaskField.clear();
-                updateSubtaskList(task);
-                taskListView.refresh();
             }
         });
 
@@ -240,29 +678,131 @@ public class MiniNotion extends Application {
         descriptionScrollPane.setFitToWidth(true);
         descriptionScrollPane.getStyleClass().add("description-scroll-pane");
 
-        detailsPanel.getChildren().addAll(
-                titleLabel, statusLabel, priorityLabel, dueDateLabel,
+        // Built once; switching tasks only changes their content
+        detailsNodes = List.of(
+                titleLabel, statusLabel, priorityLabel, dueDateLabel, recurrenceBox,
                 new Separator(),
                 descriptionScrollPane,
                 new Separator(),
                 subtaskHeader, subtaskProgressBar, subtaskContainer, addSubtaskField
         );
+
+        // Placeholder content
+        detailsPlaceholder = new Label("Select a task to see its details");
+        detailsPlaceholder.getStyleClass().add("placeholder-text");
+        detailsPanel.getChildren().add(detailsPlaceholder);
+
+        return detailsPanel;
+    }
+
+    private void showDetails(Task task) {
+        long start = DETAILS_SHOW_TIMER.start();
+        if (detailsTask != null) {
+            detailsTask.removeObserver(detailsObserver);
+            if (detailsTask != task) engine.closeDetails(detailsTask);
+        }
+        detailsTask = task;
+        engine.openDetails(task); // with lazy storage, keeps the description and subtasks loaded while shown
+        task.addObserver(detailsObserver);
+        if (detailsPanel.getChildren().contains(detailsPlaceholder)) {
+            detailsPanel.getChildren().setAll(detailsNodes);
+        }
+
+        // Populate with selected task's data
+        titleLabel.setText(task.getTitle());
+        statusLabel.setText("Status: " + task.getStatus());
+        priorityLabel.setText("Priority: " + task.getPriority());
+        dueDateLabel.setText(formatDueDate(task));
+        updateRecurrence(task);
+        descriptionText.setText(task.getDescription());
+        subtaskProgressBar.progressProperty().bind(task.progressProperty());
+        updateSubtaskList(task); // Populate the subtask container
+        DETAILS_SHOW_TIMER.stop(start);
+    }
+
+    private void clearDetails() {
+        if (detailsTask != null) {
+            detailsTask.removeObserver(detailsObserver);
+            engine.closeDetails(detailsTask);
+        }
+        detailsTask = null;
+        subtaskProgressBar.progressProperty().unbind();
+        detailsPanel.getChildren().setAll(detailsPlaceholder);
+    }
+
+    // Updates only the widget that shows the changed field
+    private void detailsTaskChanged(Task task, Task.Field field, Object oldValue, Object newValue) {
+        long start = DETAILS_UPDATE_TIMER.start();
+        switch (field) {
+            case TITLE: titleLabel.setText(task.getTitle()); break;
+            case STATUS: statusLabel.setText("Status: " + task.getStatus()); break;
+            case PRIORITY: priorityLabel.setText("Priority: " + task.getPriority()); break;
+            case DUE_DATE:
+                dueDateLabel.setText(formatDueDate(task));
+                updateRecurrence(task);
+                break;
+            case RECURRENCE: updateRecurrence(task); break;
+            case REMINDER: dueDateLabel.setText(formatDueDate(task)); break;
+            case DESCRIPTION: descriptionText.setText(task.getDescription()); break;
+            case SUBTASKS:
+                if (oldValue == null) {
+                    subtaskContainer.getChildren().add(createSubtaskCheckBox(task, (Subtask) newValue));
+                } else {
+                    updateSubtaskList(task);
+                }
+                break;
+            default:
+                return; // progress is bound directly
+        }
+        RenderStats.detailUpdated();
+        DETAILS_UPDATE_TIMER.stop(start);
+    }
+
+    private static String formatDueDate(Task task) {
+        String due = "Due: " + (task.getDueDate() != null ? task.getDueDate().toString() : "N/A");
+        LocalDateTime reminder = task.getReminder();
+        return reminder != null ? due + " | Reminder: " + reminder.toLocalDate() + " " + reminder.toLocalTime() : due;
+    }
+
+    // Occurrences come from the rule, only for the days listed
+    private void updateRecurrence(Task task) {
+        Recurrence recurrence = task.getRecurrence();
+        recurrenceBox.setVisible(recurrence != null);
+        recurrenceBox.setManaged(recurrence != null);
+        if (recurrence == null) return;
+        recurrenceLabel.setText("Repeats: " + recurrence);
+        LocalDate today = LocalDate.now();
+        StringBuilder upcoming = new StringBuilder();
+        for (LocalDate date : recurrence.occurrences(today, today.plusDays(UPCOMING_DAYS - 1))) {
+            upcoming.append(upcoming.length() == 0 ? "Next " + UPCOMING_DAYS + " days: " : ", ").append(date);
+            if (recurrence.isDone(date)) upcoming.append(" \u2713");
+            else if (recurrence.isSkipped(date)) upcoming.append(" (skipped)");
+        }
+        upcomingLabel.setText(upcoming.length() == 0 ? "No occurrences in the next " + UPCOMING_DAYS + " days" : upcoming.toString());
+        LocalDate due = task.getDueDate();
+        boolean pending = due != null && !recurrence.isDone(due) && !recurrence.isSkipped(due);
+        completeOccurrenceButton.setText(pending ? "Done for " + due : "All done");
+        completeOccurrenceButton.setDisable(!pending);
+        skipOccurrenceButton.setDisable(!pending);
     }
 
     private void updateSubtaskList(Task task) {
         subtaskContainer.getChildren().clear();
         for (Subtask subtask : task.getSubtasks()) {
-            CheckBox checkBox = new CheckBox(subtask.getText());
-            checkBox.setSelected(subtask.isCompleted());
-            checkBox.setOnAction(e -> {
-                subtask.setCompleted(checkBox.isSelected());
-                subtaskProgressBar.setProgress(task.getCompletionPercentage());
-                taskListView.refresh();
-            });
-            subtaskContainer.getChildren().add(checkBox);
+            subtaskContainer.getChildren().add(createSubtaskCheckBox(task, subtask));
         }
     }
 
+    private CheckBox createSubtaskCheckBox(Task task, Subtask subtask) {
+        CheckBox checkBox = new CheckBox(subtask.getText());
+        checkBox.setSelected(subtask.isCompleted());
+        checkBox.setOnAction(e -> {
+            RenderStats.editStarted("toggle subtask");
+            engine.setSubtaskCompleted(task, subtask, checkBox.isSelected());
+        });
+        return checkBox;
+    }
+
 
     // --- (Utility and Dialog methods below) ---
     private ImageView createIcon(String path) {
@@ -277,10 +817,48 @@ public class MiniNotion extends Application {
 
     private ListView<Task> createListView() {
         ListView<Task> listView = new ListView<>();
-        listView.setCellFactory(param -> new TaskListCell());
+        listView.setCellFactory(param -> new TaskListCell(rowCache, COMPACT_ROWS));
+        if (COMPACT_ROWS) listView.setFixedCellSize(TaskListCell.COMPACT_CELL_SIZE);
+        scheduleMidnightRollover();
         return listView;
     }
 
+    // Rows bound from now on compare against the new date; the ones that turn overdue at
+    // midnight are flipped one by one when the reminder scheduler reports them
+    private void scheduleMidnightRollover() {
+        PauseTransition midnight = new PauseTransition(Duration.millis(TaskRowCache.millisUntilMidnight() + 1000));
+        midnight.setOnFinished(e -> {
+            rowCache.rollOver();
+            scheduleMidnightRollover();
+        });
+        midnight.play();
+    }
+
+    // Re-binds only the rows of tasks that just turned overdue, then shows the reminders that came due
+    private void remindersFired(List<Task> due, List<Task> overdue) {
+        for (Task task : overdue) {
+            TaskListCell cell = rowCache.duePassed(task);
+            if (cell != null) cell.rebind();
+        }
+        if (due.isEmpty()) return;
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < due.size() && i < 10; i++) {
+            Task task = due.get(i);
+            text.append("\u2022 ").append(task.getTitle());
+            if (task.getDueDate() != null) text.append(" (due ").append(task.getDueDate()).append(')');
+            text.append('\n');
+        }
+        if (due.size() > 10) text.append("and ").append(due.size() - 10).append(" more");
+        // Non-modal, so a reminder popping up does not block whatever is being edited
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.initOwner(stage);
+        alert.initModality(Modality.NONE);
+        alert.setTitle("Reminder");
+        alert.setHeaderText(due.size() == 1 ? due.get(0).getTitle() : due.size() + " reminders");
+        alert.setContentText(text.toString().trim());
+        alert.show();
+    }
+
     private void deleteTask() {
         Task selected = taskListView.getSelectionModel().getSelectedItem();
         if (selected == null) {
@@ -292,13 +870,36 @@ public class MiniNotion extends Application {
         confirmAlert.setHeaderText("Delete Task: \"" + selected.getTitle() + "\"?");
         confirmAlert.showAndWait().ifPresent(response -> {
             if (response == ButtonType.YES) {
-                tasks.remove(selected);
-                detailsPanel.getChildren().clear(); // Clear details panel
-                detailsPanel.getChildren().add(new Label("Select a task to see its details"));
+                engine.deleteTask(selected);
+                clearDetails();
             }
         });
     }
 
+    /** Undoes or redoes the last command of the active workspace, which may be from a previous session. */
+    private void undoRedo(boolean undo) {
+        if (engine == null || toolBar.isDisabled()) return;
+        RenderStats.editStarted(undo ? "undo" : "redo");
+        boolean applied = undo ? engine.undo() : engine.redo();
+        if (!applied || detailsTask == null) return;
+        if (engine.getTask(detailsTask.getId()) != detailsTask) {
+            clearDetails(); // undone creation or redone deletion
+        } else {
+            updateSubtaskList(detailsTask); // subtask check boxes do not follow completion changes
+        }
+    }
+
+    // Names the command the button would undo or redo, looked up when the tooltip opens
+    private Tooltip historyTooltip(boolean undo) {
+        Tooltip tooltip = new Tooltip();
+        tooltip.setOnShowing(e -> {
+            String next = engine == null ? null : undo ? engine.undoDescription() : engine.redoDescription();
+            String shortcut = undo ? " (Ctrl+Z)" : " (Ctrl+Shift+Z)";
+            tooltip.setText(next == null ? (undo ? "Nothing to undo" : "Nothing to redo") : (undo ? "Undo " : "Redo ") + next + shortcut);
+        });
+        return tooltip;
+    }
+
     private void showTaskDialog(Task task) {
         // (This method remains largely the same as before)
         Dialog<Task> dialog = new Dialog<>();
@@ -323,12 +924,57 @@ public class MiniNotion extends Application {
         ComboBox<Task.Status> statusCombo = new ComboBox<>();
         statusCombo.getItems().setAll(Task.Status.values());
 
+        // Repeat: "Never" or a frequency, every n units, weekdays for weekly rules, optional end
+        ChoiceBox<String> repeatChoice = new ChoiceBox<>(FXCollections.observableArrayList("Never", "Daily", "Weekly", "Monthly"));
+        repeatChoice.setValue("Never");
+        Spinner<Integer> intervalSpinner = new Spinner<>(1, 99, 1);
+        intervalSpinner.setPrefWidth(70);
+        DatePicker untilPicker = new DatePicker();
+        untilPicker.setPromptText("No end");
+        HBox weekdaysBox = new HBox(6);
+        List<CheckBox> weekdayBoxes = new ArrayList<>();
+        for (DayOfWeek day : DayOfWeek.values()) {
+            CheckBox dayBox = new CheckBox(day.getDisplayName(TextStyle.SHORT, Locale.getDefault()));
+            weekdayBoxes.add(dayBox);
+            weekdaysBox.getChildren().add(dayBox);
+        }
+        HBox repeatBox = new HBox(8, repeatChoice, new Label("every"), intervalSpinner, new Label("until"), untilPicker);
+        repeatBox.setAlignment(Pos.CENTER_LEFT);
+        Label dueDateTitle = new Label("Due Date:");
+        DatePicker reminderDatePicker = new DatePicker();
+        reminderDatePicker.setPromptText("No reminder");
+        TextField reminderTimeField = new TextField();
+        reminderTimeField.setPromptText("HH:mm");
+        reminderTimeField.setPrefWidth(70);
+        HBox reminderBox = new HBox(8, reminderDatePicker, new Label("at"), reminderTimeField);
+        reminderBox.setAlignment(Pos.CENTER_LEFT);
+        Runnable repeatChanged = () -> {
+            boolean repeats = !"Never".equals(repeatChoice.getValue());
+            intervalSpinner.setDisable(!repeats);
+            untilPicker.setDisable(!repeats);
+            weekdaysBox.setVisible("Weekly".equals(repeatChoice.getValue()));
+            dueDateTitle.setText(repeats ? "Starts:" : "Due Date:");
+        };
+        repeatChoice.valueProperty().addListener((obs, oldVal, newVal) -> repeatChanged.run());
+
         if (task != null) {
             titleField.setText(task.getTitle());
             descriptionArea.setText(task.getDescription());
             priorityCombo.setValue(task.getPriority());
             dueDatePicker.setValue(task.getDueDate());
             statusCombo.setValue(task.getStatus());
+            Recurrence recurrence = task.getRecurrence();
+            if (recurrence != null) {
+                repeatChoice.getSelectionModel().select(recurrence.getFrequency().ordinal() + 1);
+                intervalSpinner.getValueFactory().setValue(recurrence.getInterval());
+                untilPicker.setValue(recurrence.getUntil());
+                dueDatePicker.setValue(recurrence.getStart());
+                for (DayOfWeek day : recurrence.getWeekdays()) weekdayBoxes.get(day.ordinal()).setSelected(true);
+            }
+            if (task.getReminder() != null) {
+                reminderDatePicker.setValue(task.getReminder().toLocalDate());
+                reminderTimeField.setText(task.getReminder().toLocalTime().toString());
+            }
         } else {
             priorityCombo.setValue(Task.Priority.MEDIUM);
             statusCombo.setValue(Task.Status.TO_DO);
@@ -341,10 +987,16 @@ public class MiniNotion extends Application {
         grid.add(descriptionArea, 1, 1);
         grid.add(new Label("Priority:"), 0, 2);
         grid.add(priorityCombo, 1, 2);
-        grid.add(new Label("Due Date:"), 0, 3);
+        grid.add(dueDateTitle, 0, 3);
         grid.add(dueDatePicker, 1, 3);
         grid.add(new Label("Status:"), 0, 4);
         grid.add(statusCombo, 1, 4);
+        grid.add(new Label("Repeat:"), 0, 5);
+        grid.add(repeatBox, 1, 5);
+        grid.add(weekdaysBox, 1, 6);
+        grid.add(new Label("Reminder:"), 0, 7);
+        grid.add(reminderBox, 1, 7);
+        repeatChanged.run();
 
         dialog.getDialogPane().setContent(grid);
 
@@ -354,80 +1006,55 @@ public class MiniNotion extends Application {
                     showError("Validation Error", "Title cannot be empty.");
                     return null;
                 }
+                LocalDateTime reminder = null;
+                if (reminderDatePicker.getValue() != null) {
+                    String time = reminderTimeField.getText().trim();
+                    try {
+                        reminder = reminderDatePicker.getValue().atTime(time.isEmpty() ? LocalTime.of(9, 0) : LocalTime.parse(time));
+                    } catch (DateTimeParseException e) {
+                        showError("Validation Error", "Reminder time must be given as HH:mm.");
+                        return null;
+                    }
+                }
+                RenderStats.editStarted(task == null ? "add task" : "edit task");
+                Recurrence recurrence = null;
+                int repeat = repeatChoice.getSelectionModel().getSelectedIndex();
+                if (repeat > 0) {
+                    Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+                    for (DayOfWeek day : DayOfWeek.values()) {
+                        if (weekdayBoxes.get(day.ordinal()).isSelected()) days.add(day);
+                    }
+                    LocalDate start = dueDatePicker.getValue() != null ? dueDatePicker.getValue() : LocalDate.now();
+                    recurrence = new Recurrence(Recurrence.Frequency.values()[repeat - 1], intervalSpinner.getValue(),
+                            days, start, untilPicker.getValue());
+                    // An unchanged rule keeps its done and skipped occurrences
+                    if (task != null && recurrence.sameRule(task.getRecurrence())) recurrence = task.getRecurrence();
+                }
+                Task saved;
                 if (task == null) {
-                    return new Task(titleField.getText(), descriptionArea.getText(), priorityCombo.getValue(), dueDatePicker.getValue());
+                    saved = engine.createTask(titleField.getText(), descriptionArea.getText(), priorityCombo.getValue(),
+                            dueDatePicker.getValue(), statusCombo.getValue(), recurrence);
                 } else {
-                    task.setTitle(titleField.getText());
-                    task.setDescription(descriptionArea.getText());
-                    task.setPriority(priorityCombo.getValue());
-                    task.setDueDate(dueDatePicker.getValue());
-                    task.setStatus(statusCombo.getValue());
-                    return task;
+                    engine.updateTask(task, titleField.getText(), descriptionArea.getText(), priorityCombo.getValue(),
+                            dueDatePicker.getValue(), statusCombo.getValue(), recurrence);
+                    saved = task;
                 }
+                // Compared to the minute, which is all a task keeps
+                if (reminder != null) reminder = reminder.withSecond(0).withNano(0);
+                if (!Objects.equals(reminder, saved.getReminder())) engine.setReminder(saved, reminder);
+                return saved;
             }
             return null;
         });
 
         Optional<Task> result = dialog.showAndWait();
         result.ifPresent(updatedTask -> {
-            if (!tasks.contains(updatedTask)) {
-                tasks.add(updatedTask);
-            }
-            taskListView.refresh();
-            updateDetailsPanel(updatedTask);
+            // A task whose sort key changed is moved by remove/add, which drops the selection
+            if (task != null) taskListView.getSelectionModel().select(updatedTask);
+            if (updatedTask != detailsTask) showDetails(updatedTask);
         });
     }
 
-    private static class TaskListCell extends ListCell<Task> {
-        private final HBox content;
-        private final Circle priorityCircle;
-        private final Text title;
-        private final Text details;
-        private final ProgressBar progressBar;
-
-        public TaskListCell() {
-            super();
-            priorityCircle = new Circle(5);
-            title = new Text();
-            title.setFont(Font.font("System", FontWeight.BOLD, 14));
-            details = new Text();
-            details.setFill(Color.GRAY);
-            progressBar = new ProgressBar();
-            progressBar.setMaxWidth(Double.MAX_VALUE);
-            VBox textVBox = new VBox(5, title, details, progressBar);
-            content = new HBox(10, priorityCircle, textVBox);
-            HBox.setHgrow(textVBox, Priority.ALWAYS);
-            content.setAlignment(Pos.CENTER_LEFT);
-            content.setPadding(new Insets(5, 10, 5, 10));
-        }
-
-        @Override
-        protected void updateItem(Task task, boolean empty) {
-            super.updateItem(task, empty);
-            getStyleClass().remove("overdue-task");
-            if (task == null || empty) {
-                setGraphic(null);
-            } else {
-                title.setText(task.getTitle());
-                String dueDateStr = task.getDueDate() != null ? task.getDueDate().toString() : "No due date";
-                details.setText("Status: " + task.getStatus() + " | Due: " + dueDateStr);
-                progressBar.setProgress(task.getCompletionPercentage());
-
-
-                if (task.getDueDate() != null && task.getDueDate().isBefore(LocalDate.now()) && task.getStatus() != Task.Status.DONE) {
-                    getStyleClass().add("overdue-task");
-                }
-
-                switch (task.getPriority()) {
-                    case HIGH: priorityCircle.setFill(Color.RED); break;
-                    case MEDIUM: priorityCircle.setFill(Color.ORANGE); break;
-                    case LOW: priorityCircle.setFill(Color.GREEN); break;
-                }
-                setGraphic(content);
-            }
-        }
-    }
-
     private void showAlert(String title, String message) {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle(title);
@@ -0,0 +1,63 @@
+package org.example;
+
+/**
+ * Counts list-cell updates, details-panel widget updates and layout pulses, so the
+ * rendering cost of a single edit can be checked. All calls happen on the FX thread.
+ *
+ * Run with {@code -Dmininotion.renderStats=true} to print the counts caused by each
+ * edit once the following layout pulse has finished.
+ */
+final class RenderStats {
+
+    static final boolean ENABLED = Boolean.getBoolean("mininotion.renderStats");
+
+    private static long cellUpdates;
+    private static long detailUpdates;
+    private static long layoutPulses;
+
+    private static String pendingEdit;
+    private static long cellMark;
+    private static long detailMark;
+    private static long pulseMark;
+
+    private RenderStats() {
+    }
+
+    static void cellUpdated() {
+        cellUpdates++;
+    }
+
+    static void detailUpdated() {
+        detailUpdates++;
+    }
+
+    /** Marks the start of an edit; the counts since this mark are reported after the next layout. */
+    static void editStarted(String edit) {
+        if (!ENABLED) return;
+        pendingEdit = edit;
+        cellMark = cellUpdates;
+        detailMark = detailUpdates;
+        pulseMark = layoutPulses;
+    }
+
+    /** Registered as the scene's post-layout pulse listener. */
+    static void layoutPulse() {
+        layoutPulses++;
+        if (pendingEdit == null) return;
+        System.out.printf("[render] %s: %d cell updates, %d detail updates, %d layout passes%n",
+                pendingEdit, cellUpdates - cellMark, detailUpdates - detailMark, layoutPulses - pulseMark);
+        pendingEdit = null;
+    }
+
+    static long cellUpdates() {
+        return cellUpdates;
+    }
+
+    static long detailUpdates() {
+        return detailUpdates;
+    }
+
+    static long layoutPulses() {
+        return layoutPulses;
+    }
+}
@@ -0,0 +1,189 @@
+package org.example;
+
+import javafx.animation.Animation;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.util.Duration;
+import org.example.engine.TaskEngine;
+import org.example.index.SearchIndex;
+import org.example.metrics.Counter;
+import org.example.metrics.Metrics;
+import org.example.metrics.Timer;
+import org.example.model.Task;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Search box filtering off the FX thread. Keystrokes are debounced; the query then runs
+ * against the search index on a background thread, and the matching tasks come back as one
+ * set for the list filter to swap in at once. A newer query cancels the one in flight. A
+ * query that only extends the previous one ("secu", "secur") matches a subset of its tasks,
+ * so only those are checked against it, not the whole index; while that subset is still all
+ * of them, the previous set is kept and the list is left alone.
+ *
+ * {@code search.latency} times each keystroke to the layout pulse that paints its result.
+ * All methods are called on the FX thread.
+ */
+final class SearchFilter {
+
+    private static final Timer LOOKUP_TIMER = Metrics.timer("search.lookup");
+    private static final Timer LATENCY_TIMER = Metrics.timer("search.latency");
+    private static final Counter REUSED = Metrics.counter("search.reused");
+    private static final Counter CANCELLED = Metrics.counter("search.cancelled");
+    private static final int CANCEL_CHECK_INTERVAL = 4096; // matches resolved between checks
+
+    private final Consumer<Predicate<Task>> onResult;
+    private final PauseTransition debounce;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "task-search");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicLong generation = new AtomicLong(); // of the latest search; older ones give up
+    private Future<?> inFlight;
+    private boolean refreshPending; // the index changed while a search was in flight
+
+    private TaskEngine engine;
+    private String text = "";
+    private long keystrokeNanos = -1; // latest keystroke not searched yet
+    private long paintNanos = -1; // keystroke whose result was swapped in, until the next layout pulse
+
+    // Last result, which a narrowing query starts from
+    private SearchIndex lastIndex;
+    private String lastQuery;
+    private Set<String> lastIds;
+    private Set<Task> lastMatches;
+    private long lastVersion;
+
+    /** @param onResult receives a predicate for each result; all tasks match while the query is blank */
+    SearchFilter(long debounceMillis, Consumer<Predicate<Task>> onResult) {
+        this.onResult = onResult;
+        this.debounce = new PauseTransition(Duration.millis(debounceMillis));
+        debounce.setOnFinished(e -> submit());
+    }
+
+    /** Searches the given workspace, or none (null); the current query is run again right away. */
+    void setEngine(TaskEngine engine) {
+        this.engine = engine;
+        lastIndex = null;
+        lastQuery = null;
+        lastIds = null;
+        lastMatches = null;
+        debounce.stop();
+        submit();
+    }
+
+    void textChanged(String text) {
+        this.text = text == null ? "" : text;
+        keystrokeNanos = LATENCY_TIMER.start();
+        debounce.playFromStart();
+    }
+
+    /** Tasks were loaded, added or edited: searches again once the index differs from the last result. */
+    void refresh() {
+        if (engine == null || text.isBlank() || debounce.getStatus() == Animation.Status.RUNNING) return;
+        if (inFlight != null) {
+            refreshPending = true; // restarting it on every batch of a load could starve it
+            return;
+        }
+        SearchIndex index = engine.getSearchIndex();
+        if (index == lastIndex && text.equals(lastQuery) && index.version() == lastVersion) return;
+        debounce.playFromStart();
+    }
+
+    /** Registered as a post-layout pulse listener of the scene. */
+    void layoutPulse() {
+        if (paintNanos < 0) return;
+        LATENCY_TIMER.stop(paintNanos);
+        paintNanos = -1;
+    }
+
+    private void submit() {
+        long id = generation.incrementAndGet();
+        if (inFlight != null && inFlight.cancel(false)) CANCELLED.increment();
+        inFlight = null;
+        refreshPending = false;
+        String query = text;
+        long keystroke = keystrokeNanos;
+        keystrokeNanos = -1;
+        if (engine == null || query.isBlank()) {
+            lastQuery = null;
+            lastIds = null;
+            lastMatches = null;
+            swap(task -> true, keystroke);
+            return;
+        }
+        TaskEngine target = engine;
+        SearchIndex index = target.getSearchIndex();
+        boolean narrows = index == lastIndex && SearchIndex.narrows(lastQuery, query);
+        Set<String> previousIds = narrows ? lastIds : null;
+        Set<Task> previousMatches = lastMatches;
+        long previousVersion = lastVersion;
+        inFlight = executor.submit(() -> search(id, target, index, query, previousIds, previousMatches, previousVersion, keystroke));
+    }
+
+    // Background thread. Task IDs are resolved to tasks here, so the filter tests set membership
+    // without formatting an ID per row
+    private void search(long id, TaskEngine target, SearchIndex index, String query, Set<String> previousIds,
+                        Set<Task> previousMatches, long previousVersion, long keystroke) {
+        long start = LOOKUP_TIMER.start();
+        long version = index.version();
+        // The previous result only holds while the index is unchanged since
+        boolean narrowing = previousIds != null && previousVersion == version;
+        Set<String> ids = narrowing ? index.lookupWithin(query, previousIds) : index.lookup(query);
+        if (generation.get() != id) return;
+        // A subset of the previous result that is just as large is the same result
+        boolean same = narrowing && ids.size() == previousIds.size();
+        Set<Task> matches;
+        if (narrowing) {
+            REUSED.increment();
+            if (same) {
+                matches = previousMatches;
+            } else {
+                matches = new HashSet<>(ids.size() * 4 / 3 + 1);
+                for (Task task : previousMatches) {
+                    if (ids.contains(task.getId())) matches.add(task);
+                }
+            }
+        } else {
+            matches = new HashSet<>(ids.size() * 4 / 3 + 1);
+            int resolved = 0;
+            for (String taskId : ids) {
+                if (++resolved % CANCEL_CHECK_INTERVAL == 0 && generation.get() != id) return;
+                Task task = target.getRepository().get(taskId);
+                if (task != null) matches.add(task);
+            }
+        }
+        LOOKUP_TIMER.stop(start);
+        Platform.runLater(() -> {
+            if (generation.get() != id) return;
+            inFlight = null;
+            lastIndex = index;
+            lastQuery = query;
+            lastIds = ids;
+            lastMatches = matches;
+            lastVersion = version;
+            swap(same ? null : matches::contains, keystroke);
+            if (refreshPending) {
+                refreshPending = false;
+                refresh();
+            }
+        });
+    }
+
+    // A null predicate keeps the current one; the latency is still taken at the next pulse
+    private void swap(Predicate<Task> predicate, long keystroke) {
+        if (predicate != null) onResult.accept(predicate);
+        if (keystroke >= 0) {
+            paintNanos = keystroke;
+            Platform.requestNextPulse();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.example;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.chart.CategoryAxis;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.chart.StackedBarChart;
+import javafx.scene.chart.XYChart;
+import javafx.scene.control.Label;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.GridPane;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+import javafx.util.Duration;
+import org.example.analytics.BoardStats;
+import org.example.model.Task;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.function.Supplier;
+
+/**
+ * Board analytics of the active workspace: tasks per status and priority, overdue tasks,
+ * average completion and a burndown of the coming weeks. The figures are kept up to date
+ * off the FX thread by {@link org.example.analytics.BoardAnalytics}; the window reads them
+ * once a second while it is open. One instance per application, opened from the toolbar.
+ */
+final class StatsWindow {
+
+    private static final int WEEKS_AHEAD = 8;
+    private static final DateTimeFormatter WEEK_FORMAT = DateTimeFormatter.ofPattern("MMM d");
+
+    private static Stage stage;
+    private static Timeline refresh;
+    private static Supplier<BoardStats> source;
+
+    private StatsWindow() {
+    }
+
+    /** @param stats figures of the active workspace, or null while none is open */
+    static void show(Window owner, Supplier<BoardStats> stats) {
+        source = stats;
+        if (stage == null) create(owner);
+        stage.show();
+        stage.toFront();
+    }
+
+    static void close() {
+        if (stage != null) stage.close();
+    }
+
+    private static void create(Window owner) {
+        GridPane figures = new GridPane();
+        figures.setHgap(20);
+        figures.setVgap(5);
+        figures.setPadding(new Insets(10));
+
+        CategoryAxis weekAxis = new CategoryAxis();
+        weekAxis.setLabel("Due week");
+        NumberAxis countAxis = new NumberAxis();
+        countAxis.setLabel("Tasks");
+        StackedBarChart<String, Number> burndown = new StackedBarChart<>(weekAxis, countAxis);
+        burndown.setTitle("Open and done tasks by due week");
+        burndown.setAnimated(false);
+
+        BorderPane root = new BorderPane(burndown);
+        root.setTop(figures);
+
+        stage = new Stage();
+        stage.initOwner(owner);
+        stage.setTitle("MiniNotion - Stats");
+        stage.setScene(new Scene(root, 640, 560));
+
+        Runnable update = () -> update(figures, burndown);
+        refresh = new Timeline(new KeyFrame(Duration.seconds(1), e -> update.run()));
+        refresh.setCycleCount(Timeline.INDEFINITE);
+        stage.setOnShown(e -> {
+            update.run();
+            refresh.play();
+        });
+        stage.setOnHidden(e -> refresh.stop());
+    }
+
+    private static void update(GridPane figures, StackedBarChart<String, Number> burndown) {
+        BoardStats stats = source.get();
+        figures.getChildren().clear();
+        burndown.getData().clear();
+        if (stats == null) {
+            figures.add(new Label("No workspace open."), 0, 0);
+            return;
+        }
+        int row = 0;
+        figures.addRow(row++, new Label("Tasks"), new Label(String.format("%,d", stats.getTotal())));
+        for (Task.Status status : Task.Status.values()) {
+            figures.addRow(row++, new Label(status.toString()), new Label(String.format("%,d", stats.getCount(status))));
+        }
+        figures.addRow(row++, new Label("Overdue"), new Label(String.format("%,d", stats.getOverdue())));
+        figures.addRow(row, new Label("Average completion"),
+                new Label(String.format("%.0f%%", stats.getAverageCompletion() * 100)));
+        int column = 2;
+        row = 0;
+        for (Task.Priority priority : Task.Priority.values()) {
+            figures.add(new Label(priority + " priority"), column, row);
+            figures.add(new Label(String.format("%,d", stats.getCount(priority))), column + 1, row++);
+        }
+        figures.add(new Label("No due date"), column, row);
+        figures.add(new Label(String.format("%,d", stats.getUndated())), column + 1, row);
+
+        // Weeks before this one are summed into one bar, weeks past the horizon are left out
+        LocalDate thisWeek = stats.getToday().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        int[] open = new int[WEEKS_AHEAD + 1];
+        int[] done = new int[WEEKS_AHEAD + 1];
+        for (BoardStats.Week week : stats.getWeeks()) {
+            long index = week.getStart().isBefore(thisWeek) ? 0 : 1 + (week.getStart().toEpochDay() - thisWeek.toEpochDay()) / 7;
+            if (index > WEEKS_AHEAD) break;
+            open[(int) index] += week.getOpen();
+            done[(int) index] += week.getTasks() - week.getOpen();
+        }
+        XYChart.Series<String, Number> openSeries = new XYChart.Series<>();
+        openSeries.setName("Open");
+        XYChart.Series<String, Number> doneSeries = new XYChart.Series<>();
+        doneSeries.setName("Done");
+        for (int i = 0; i <= WEEKS_AHEAD; i++) {
+            String label = i == 0 ? "Earlier" : thisWeek.plusWeeks(i - 1).format(WEEK_FORMAT);
+            openSeries.getData().add(new XYChart.Data<>(label, open[i]));
+            doneSeries.getData().add(new XYChart.Data<>(label, done[i]));
+        }
+        burndown.getData().add(openSeries);
+        burndown.getData().add(doneSeries);
+    }
+}
@@ -0,0 +1,104 @@
+package org.example;
+
+import javafx.css.PseudoClass;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Circle;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.Text;
+import org.example.metrics.Metrics;
+import org.example.metrics.Timer;
+import org.example.model.Task;
+
+/**
+ * Row of the task list. The nodes are built once per cell and {@link #updateItem} only
+ * swaps their content: display strings and the overdue flag come from the shared
+ * {@link TaskRowCache}, and overdue rows are marked with the {@code :overdue} pseudo-class
+ * instead of editing the style class list, so re-binding a cell while scrolling does
+ * not allocate.
+ *
+ * Compact rows put the title and details on one line without a progress bar; use them
+ * with a fixed cell size for very large boards.
+ */
+final class TaskListCell extends ListCell<Task> {
+
+    static final double COMPACT_CELL_SIZE = 28;
+
+    private static final PseudoClass OVERDUE = PseudoClass.getPseudoClass("overdue");
+    private static final Color[] PRIORITY_COLORS = { Color.RED, Color.ORANGE, Color.GREEN }; // by Task.Priority ordinal
+    private static final Font TITLE_FONT = Font.font("System", FontWeight.BOLD, 14);
+    private static final Timer UPDATE_TIMER = Metrics.timer("cell.update");
+
+    private final TaskRowCache rowCache;
+    private TaskRowCache.Row shown;
+    private final HBox content;
+    private final Circle priorityCircle;
+    private final Text title;
+    private final Text details;
+    private final ProgressBar progressBar; // null in compact rows
+
+    TaskListCell(TaskRowCache rowCache, boolean compact) {
+        this.rowCache = rowCache;
+        priorityCircle = new Circle(5);
+        title = new Text();
+        title.setFont(TITLE_FONT);
+        details = new Text();
+        details.setFill(Color.GRAY);
+        if (compact) {
+            progressBar = null;
+            content = new HBox(10, priorityCircle, title, details);
+            content.setPadding(new Insets(0, 10, 0, 10));
+            getStyleClass().add("compact");
+        } else {
+            progressBar = new ProgressBar();
+            progressBar.setMaxWidth(Double.MAX_VALUE);
+            VBox textVBox = new VBox(5, title, details, progressBar);
+            content = new HBox(10, priorityCircle, textVBox);
+            HBox.setHgrow(textVBox, Priority.ALWAYS);
+            content.setPadding(new Insets(5, 10, 5, 10));
+        }
+        content.setAlignment(Pos.CENTER_LEFT);
+    }
+
+    @Override
+    protected void updateItem(Task task, boolean empty) {
+        long start = UPDATE_TIMER.start();
+        super.updateItem(task, empty);
+        RenderStats.cellUpdated();
+        bind(task, empty);
+        UPDATE_TIMER.stop(start);
+    }
+
+    /** Binds the current item again, e.g. after its overdue flag changed. */
+    void rebind() {
+        RenderStats.cellUpdated();
+        bind(getItem(), isEmpty());
+    }
+
+    private void bind(Task task, boolean empty) {
+        if (shown != null && shown.cell == this) shown.cell = null;
+        shown = null;
+        if (task == null || empty) {
+            pseudoClassStateChanged(OVERDUE, false);
+            setGraphic(null);
+            return;
+        }
+        TaskRowCache.Row row = rowCache.get(task);
+        row.cell = this;
+        shown = row;
+        // Setting the same String instance again is a no-op for Text
+        title.setText(task.getTitle());
+        details.setText(row.details);
+        if (progressBar != null) progressBar.setProgress(task.getCompletionPercentage());
+        pseudoClassStateChanged(OVERDUE, row.overdue);
+        priorityCircle.setFill(task.getPriority() != null ? PRIORITY_COLORS[task.getPriority().ordinal()] : Color.GRAY);
+        setGraphic(content);
+    }
+}
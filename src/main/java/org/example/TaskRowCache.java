@@ -0,0 +1,77 @@
+package org.example;
+
+import org.example.model.Task;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Per-task display strings and overdue flags for the task list, so re-binding a cell
+ * while scrolling neither builds strings nor reads the clock. An entry is rebuilt when
+ * the task's version changes; an overdue flag is re-evaluated when the reminder
+ * scheduler reports its task as due ({@link #duePassed}), or for every row after
+ * {@link #rollOver()} moves to a new day. FX thread only.
+ */
+final class TaskRowCache {
+
+    static final class Row {
+        private long version = -1;
+        private long day;
+        String details;
+        boolean overdue;
+        TaskListCell cell; // showing the row, if any
+    }
+
+    private final Map<Task, Row> rows = new WeakHashMap<>(); // entries go away with their tasks
+    private long today = LocalDate.now().toEpochDay();
+
+    Row get(Task task) {
+        Row row = rows.get(task);
+        if (row == null) {
+            row = new Row();
+            rows.put(task, row);
+        }
+        if (row.version != task.getVersion()) {
+            LocalDate due = task.getDueDate();
+            row.details = "Status: " + task.getStatus() + " | Due: " + (due != null ? due.toString() : "No due date")
+                    + (task.isRecurring() ? " \u21BB" : ""); // due is the next pending occurrence
+            row.version = task.getVersion();
+            row.day = Long.MIN_VALUE;
+        }
+        if (row.day != today) {
+            LocalDate due = task.getDueDate();
+            row.overdue = due != null && due.toEpochDay() < today && task.getStatus() != Task.Status.DONE;
+            row.day = today;
+        }
+        return row;
+    }
+
+    /**
+     * Re-evaluates the overdue flag of a task whose due date has just passed. Returns the
+     * cell showing the task, the only one to bind again, or null if it is off screen.
+     */
+    TaskListCell duePassed(Task task) {
+        rollOver();
+        Row row = rows.get(task);
+        if (row == null) return null;
+        row.day = Long.MIN_VALUE;
+        return row.cell;
+    }
+
+    /** Moves to the current date; returns whether it changed, i.e. rows bound earlier may be stale. */
+    boolean rollOver() {
+        long now = LocalDate.now().toEpochDay();
+        if (now == today) return false;
+        today = now;
+        return true;
+    }
+
+    /** Milliseconds until the next local midnight. */
+    static long millisUntilMidnight() {
+        LocalDateTime now = LocalDateTime.now();
+        return now.until(now.toLocalDate().plusDays(1).atStartOfDay(), ChronoUnit.MILLIS);
+    }
+}
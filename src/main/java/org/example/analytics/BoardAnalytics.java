@@ -0,0 +1,77 @@
+package org.example.analytics;
+
+import org.example.engine.TaskRepository;
+import org.example.model.Task;
+
+import java.io.Closeable;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Keeps {@link BoardStats} of a repository up to date incrementally. It is seeded with a
+ * parallel count over a snapshot and then follows the repository's change events: an
+ * edited task's previous contribution is taken out of the running sums and its current one
+ * put in, so an edit costs O(1) instead of a recount of the board.
+ *
+ * The task copies counted are kept (they are the repository's published copies, so this
+ * costs a map entry per task) to know what to take out. Events and the seeding run on
+ * {@code executor}, e.g. a background thread; {@link #stats} may be called from any thread.
+ */
+public class BoardAnalytics implements Closeable {
+
+    private final TaskRepository repository;
+    private final Executor executor;
+    private final TaskRepository.ChangeListener listener = this::changed;
+    private Map<Task, Task> counted = new HashMap<>(); // by ID: live task or copy -> copy counted; executor only
+    private Tally tally = new Tally(); // guarded by this
+
+    public BoardAnalytics(TaskRepository repository, Executor executor) {
+        this.repository = repository;
+        this.executor = executor;
+    }
+
+    /** Subscribes to changes and seeds the sums; changes made meanwhile are applied after. */
+    public void start() {
+        repository.subscribe(executor, listener);
+        executor.execute(this::recount);
+    }
+
+    /** Current figures; {@code today} decides which tasks are overdue. */
+    public synchronized BoardStats stats(LocalDate today) {
+        return new BoardStats(tally, today);
+    }
+
+    @Override
+    public void close() {
+        repository.unsubscribe(listener);
+    }
+
+    // Full parallel count, swapped in at the end so stats() is not held up meanwhile
+    private void recount() {
+        List<Task> tasks = repository.snapshot().getTasks();
+        Tally fresh = tasks.parallelStream().collect(Tally::new, Tally::add, Tally::merge);
+        Map<Task, Task> copies = new HashMap<>(tasks.size() * 4 / 3 + 1);
+        for (Task task : tasks) copies.put(task, task);
+        counted = copies;
+        synchronized (this) {
+            tally = fresh;
+        }
+    }
+
+    // Events only name the task, so the current copy is read back; replaying one is harmless
+    private synchronized void changed(List<TaskRepository.Change> batch) {
+        for (TaskRepository.Change change : batch) {
+            Task task = change.getTask();
+            Task previous = counted.remove(task);
+            if (previous != null) tally.remove(previous);
+            Task current = change.getType() == TaskRepository.Change.Type.REMOVED ? null : repository.getCopy(task.getId());
+            if (current != null) {
+                tally.add(current);
+                counted.put(current, current);
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package org.example.analytics;
+
+import org.example.model.Task;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Board-level figures at one point in time: tasks per status and priority, overdue tasks
+ * (open and due before {@code today}, as highlighted in the list), average completion and
+ * a burndown of the dated tasks by due week (Monday to Sunday).
+ */
+public final class BoardStats {
+
+    /** Tasks due in one week, and how many of them are not done. */
+    public static final class Week {
+        private final LocalDate start;
+        private final int tasks;
+        private final int open;
+
+        Week(LocalDate start, int tasks, int open) {
+            this.start = start;
+            this.tasks = tasks;
+            this.open = open;
+        }
+
+        /** The Monday the week starts on. */
+        public LocalDate getStart() { return start; }
+        public int getTasks() { return tasks; }
+        public int getOpen() { return open; }
+    }
+
+    private final LocalDate today;
+    private final int total;
+    private final int[] byStatus;
+    private final int[] byPriority;
+    private final int overdue;
+    private final int undated;
+    private final double averageCompletion;
+    private final List<Week> weeks;
+
+    BoardStats(Tally tally, LocalDate today) {
+        this.today = today;
+        this.total = tally.total;
+        this.byStatus = tally.byStatus.clone();
+        this.byPriority = tally.byPriority.clone();
+        this.averageCompletion = tally.total == 0 ? 0 : tally.completion / tally.total;
+        long todayDay = today.toEpochDay();
+        int overdue = 0;
+        int undated = 0;
+        TreeMap<LocalDate, int[]> byWeek = new TreeMap<>();
+        for (Map.Entry<Integer, int[]> entry : tally.byDueDay.entrySet()) {
+            int[] counts = entry.getValue();
+            if (entry.getKey() == Tally.NO_DUE_DATE) {
+                undated += counts[0];
+                continue;
+            }
+            if (entry.getKey() < todayDay) overdue += counts[1];
+            LocalDate monday = LocalDate.ofEpochDay(entry.getKey()).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            int[] week = byWeek.computeIfAbsent(monday, m -> new int[2]);
+            week[0] += counts[0];
+            week[1] += counts[1];
+        }
+        this.overdue = overdue;
+        this.undated = undated;
+        List<Week> weeks = new ArrayList<>(byWeek.size());
+        byWeek.forEach((monday, counts) -> weeks.add(new Week(monday, counts[0], counts[1])));
+        this.weeks = Collections.unmodifiableList(weeks);
+    }
+
+    /**
+     * Counts {@code tasks} from scratch as a parallel stream: fork/join chunks of the
+     * collection are tallied on the common pool and merged. The tasks must not change
+     * meanwhile, e.g. a repository snapshot.
+     */
+    public static BoardStats compute(Collection<Task> tasks, LocalDate today) {
+        return new BoardStats(tasks.parallelStream().collect(Tally::new, Tally::add, Tally::merge), today);
+    }
+
+    public LocalDate getToday() { return today; }
+    public int getTotal() { return total; }
+
+    public int getCount(Task.Status status) {
+        return byStatus[status.ordinal() + 1];
+    }
+
+    public int getCount(Task.Priority priority) {
+        return byPriority[priority.ordinal() + 1];
+    }
+
+    /** Open tasks due before today. */
+    public int getOverdue() { return overdue; }
+    /** Tasks without a due date, which the burndown leaves out. */
+    public int getUndated() { return undated; }
+    /** Mean of {@link Task#getCompletionPercentage()}, 0 to 1. */
+    public double getAverageCompletion() { return averageCompletion; }
+    /** Due weeks that have tasks, in date order. */
+    public List<Week> getWeeks() { return weeks; }
+}
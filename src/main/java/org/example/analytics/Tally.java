@@ -0,0 +1,59 @@
+package org.example.analytics;
+
+import org.example.model.Task;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Running sums behind {@link BoardStats}: counts per status and priority, the summed
+ * completion, and per due day how many tasks there are and how many are still open. Tasks
+ * are added and removed with a sign, so the same sums serve a full count (merged across
+ * fork/join chunks) and incremental updates.
+ */
+final class Tally {
+
+    static final int NO_DUE_DATE = Integer.MIN_VALUE;
+
+    int total;
+    final int[] byStatus = new int[Task.Status.values().length + 1]; // ordinal + 1, 0 = none
+    final int[] byPriority = new int[Task.Priority.values().length + 1];
+    double completion;
+    final Map<Integer, int[]> byDueDay = new HashMap<>(); // {tasks, open}; NO_DUE_DATE for undated
+
+    void add(Task task) {
+        add(task, 1);
+    }
+
+    void remove(Task task) {
+        add(task, -1);
+    }
+
+    private void add(Task task, int sign) {
+        Task.Status status = task.getStatus();
+        Task.Priority priority = task.getPriority();
+        LocalDate due = task.getDueDate();
+        total += sign;
+        byStatus[status == null ? 0 : status.ordinal() + 1] += sign;
+        byPriority[priority == null ? 0 : priority.ordinal() + 1] += sign;
+        completion += sign * task.getCompletionPercentage();
+        int day = due == null ? NO_DUE_DATE : (int) due.toEpochDay();
+        int[] counts = byDueDay.computeIfAbsent(day, d -> new int[2]);
+        counts[0] += sign;
+        if (status != Task.Status.DONE) counts[1] += sign;
+        if (counts[0] == 0) byDueDay.remove(day);
+    }
+
+    void merge(Tally other) {
+        total += other.total;
+        for (int i = 0; i < byStatus.length; i++) byStatus[i] += other.byStatus[i];
+        for (int i = 0; i < byPriority.length; i++) byPriority[i] += other.byPriority[i];
+        completion += other.completion;
+        for (Map.Entry<Integer, int[]> entry : other.byDueDay.entrySet()) {
+            int[] counts = byDueDay.computeIfAbsent(entry.getKey(), d -> new int[2]);
+            counts[0] += entry.getValue()[0];
+            counts[1] += entry.getValue()[1];
+        }
+    }
+}
@@ -0,0 +1,424 @@
+package org.example.api;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.example.engine.TaskEngine;
+import org.example.index.TaskIndex;
+import org.example.model.Task;
+import org.example.storage.JsonStorageFormat;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Local HTTP/JSON API over a {@link TaskEngine}.
+ *
+ * <pre>
+ * GET    /tasks?status=&amp;priority=&amp;dueAfter=&amp;dueBefore=&amp;q=&amp;order=due|priority&amp;offset=&amp;limit=
+ * POST   /tasks                              create; 201 with Location and ETag
+ * GET    /tasks/{id}                         ETag; If-None-Match gives 304
+ * PATCH  /tasks/{id}                         update the given fields; needs If-Match
+ * DELETE /tasks/{id}                         needs If-Match
+ * POST   /tasks/{id}/subtasks                {"text": ...}; needs If-Match
+ * PUT    /tasks/{id}/subtasks/{index}        {"completed": true|false}; needs If-Match
+ * </pre>
+ *
+ * Every request runs on its own virtual thread on Java 21+; before that, on one of at most
+ * {@code mininotion.api.maxThreads} platform threads (200 by default). Reads are answered
+ * from the repository's published copies without locking; writes are handed to
+ * {@code engineExecutor} - the FX thread in the desktop app - so task observers such as
+ * the UI run on the thread they expect. Writes use optimistic concurrency: the ETag is a hash of the task's stored
+ * form, so it changes with every edit, survives restarts, and a task deleted and brought
+ * back by undo gets back the ETag of its content rather than reusing a stale one. A write
+ * whose If-Match no longer matches fails with 412.
+ */
+public class TaskApiServer implements Closeable {
+
+    private static final long ENGINE_TIMEOUT_SECONDS = 10;
+    private static final int DEFAULT_LIMIT = 1000;
+    private static final int MAX_PLATFORM_THREADS = Integer.getInteger("mininotion.api.maxThreads", 200); // before Java 21
+
+    static {
+        // Without TCP_NODELAY small responses wait for the client's delayed ACK (~40 ms each).
+        // Read once when the JDK server is first used, so it must be set before HttpServer.create.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final TaskEngine engine;
+    private final Executor engineExecutor;
+    private final HttpServer server;
+    private final ExecutorService requestExecutor;
+    private final Gson gson = JsonStorageFormat.gsonBuilder().serializeNulls().create();
+
+    public TaskApiServer(TaskEngine engine, Executor engineExecutor, InetSocketAddress address) throws IOException {
+        this.engine = engine;
+        this.engineExecutor = engineExecutor;
+        this.server = HttpServer.create(address, 4096);
+        this.requestExecutor = VirtualThreads.newThreadPerTaskExecutor("api", MAX_PLATFORM_THREADS);
+        server.createContext("/tasks", this::handle);
+        server.setExecutor(requestExecutor);
+    }
+
+    public void start() {
+        server.start();
+        System.out.printf("Task API listening on http://%s:%d/tasks (%s threads)%n",
+                server.getAddress().getHostString(), getPort(), VirtualThreads.available() ? "virtual" : "platform");
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(1);
+        requestExecutor.shutdown();
+    }
+
+    // --- Dispatch ---
+
+    private void handle(HttpExchange exchange) throws IOException {
+        Response response;
+        try {
+            response = route(exchange);
+        } catch (ApiException e) {
+            response = error(e.status, e.getMessage());
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            response = error(500, "Internal error: " + e.getMessage());
+        }
+        try {
+            send(exchange, response);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Response route(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String[] parts = exchange.getRequestURI().getPath().replaceAll("/+$", "").split("/");
+        // parts: "", "tasks", id, "subtasks", index
+        if (parts.length < 2 || !"tasks".equals(parts[1])) {
+            throw new ApiException(404, "No such resource");
+        } else if (parts.length == 2) {
+            if ("GET".equals(method)) return listTasks(queryParams(exchange));
+            if ("POST".equals(method)) return createTask(readBody(exchange));
+        } else if (parts.length == 3) {
+            String id = decode(parts[2]);
+            if ("GET".equals(method)) return getTask(id, exchange.getRequestHeaders().getFirst("If-None-Match"));
+            if ("PATCH".equals(method) || "PUT".equals(method)) return updateTask(id, ifMatch(exchange), readBody(exchange));
+            if ("DELETE".equals(method)) return deleteTask(id, ifMatch(exchange));
+        } else if (parts.length == 4 && "subtasks".equals(parts[3])) {
+            if ("POST".equals(method)) return addSubtask(decode(parts[2]), ifMatch(exchange), readBody(exchange));
+        } else if (parts.length == 5 && "subtasks".equals(parts[3])) {
+            if ("PUT".equals(method) || "PATCH".equals(method)) {
+                return setSubtaskCompleted(decode(parts[2]), parseIndex(parts[4]), ifMatch(exchange), readBody(exchange));
+            }
+        } else {
+            throw new ApiException(404, "No such resource");
+        }
+        throw new ApiException(405, "Method " + method + " not allowed here");
+    }
+
+    // --- Handlers (engine work runs inside onEngine) ---
+
+    private Response listTasks(Map<String, String> params) {
+        TaskIndex.Query query = engine.getTaskIndex().query();
+        if (params.containsKey("status")) query.status(parseEnum(Task.Status.class, params.get("status")));
+        if (params.containsKey("priority")) query.priority(parseEnum(Task.Priority.class, params.get("priority")));
+        if (params.containsKey("dueAfter")) query.dueOnOrAfter(parseDate(params.get("dueAfter")));
+        if (params.containsKey("dueBefore")) query.dueOnOrBefore(parseDate(params.get("dueBefore")));
+        String order = params.getOrDefault("order", "");
+        query.orderBy("due".equals(order) ? TaskIndex.Order.DUE_DATE
+                : "priority".equals(order) ? TaskIndex.Order.PRIORITY : TaskIndex.Order.NONE);
+        int offset = parseInt(params.getOrDefault("offset", "0"), "offset");
+        int limit = parseInt(params.getOrDefault("limit", String.valueOf(DEFAULT_LIMIT)), "limit");
+        String text = params.get("q");
+
+        // Reads don't go through the engine thread: the indexes are synchronized and task
+        // fields are taken from the repository's published copies.
+        Set<String> matches = engine.getSearchIndex().search(text);
+        JsonArray array = new JsonArray();
+        int total = 0;
+        for (Task task : query.list()) {
+            if (matches != null && !matches.contains(task.getId())) continue;
+            if (total >= offset && array.size() < limit) {
+                Task copy = engine.getRepository().getCopy(task.getId());
+                if (copy == null) continue; // deleted meanwhile
+                array.add(toJson(copy));
+            }
+            total++;
+        }
+        Response response = new Response(200, gson.toJson(array));
+        response.headers.put("X-Total-Count", String.valueOf(total));
+        return response;
+    }
+
+    private Response getTask(String id, String ifNoneMatch) {
+        Task copy = engine.getRepository().getCopy(id);
+        if (copy == null) throw new ApiException(404, "No task " + id);
+        String etag = etag(copy);
+        if (etag.equals(ifNoneMatch)) return withEtag(new Response(304, null), etag);
+        return withEtag(new Response(200, gson.toJson(toJson(copy))), etag);
+    }
+
+    private Response createTask(JsonObject body) {
+        String title = string(body, "title");
+        if (title == null || title.isBlank()) throw new ApiException(400, "title is required");
+        String description = string(body, "description");
+        Task.Priority priority = body.has("priority") ? parseEnum(Task.Priority.class, string(body, "priority")) : Task.Priority.MEDIUM;
+        Task.Status status = body.has("status") ? parseEnum(Task.Status.class, string(body, "status")) : Task.Status.TO_DO;
+        LocalDate dueDate = parseDate(string(body, "dueDate"));
+        return onEngine(() -> {
+            Task task = engine.createTask(title, description, priority, dueDate, status);
+            Response response = withEtag(new Response(201, gson.toJson(toJson(task))), etag(task));
+            response.headers.put("Location", "/tasks/" + task.getId());
+            return response;
+        });
+    }
+
+    private Response updateTask(String id, String ifMatch, JsonObject body) {
+        if (body.has("title") && (string(body, "title") == null || string(body, "title").isBlank())) {
+            throw new ApiException(400, "title must not be empty");
+        }
+        Task.Priority priority = body.has("priority") ? parseEnum(Task.Priority.class, string(body, "priority")) : null;
+        Task.Status status = body.has("status") ? parseEnum(Task.Status.class, string(body, "status")) : null;
+        LocalDate dueDate = parseDate(string(body, "dueDate"));
+        return onEngine(() -> {
+            Task task = findMatching(id, ifMatch);
+            engine.updateTask(task,
+                    body.has("title") ? string(body, "title") : task.getTitle(),
+                    body.has("description") ? string(body, "description") : task.getDescription(),
+                    priority != null ? priority : task.getPriority(),
+                    body.has("dueDate") ? dueDate : task.getDueDate(),
+                    status != null ? status : task.getStatus());
+            return withEtag(new Response(200, gson.toJson(toJson(task))), etag(task));
+        });
+    }
+
+    private Response deleteTask(String id, String ifMatch) {
+        return onEngine(() -> {
+            engine.deleteTask(findMatching(id, ifMatch));
+            return new Response(204, null);
+        });
+    }
+
+    private Response addSubtask(String id, String ifMatch, JsonObject body) {
+        String text = string(body, "text");
+        if (text == null || text.isBlank()) throw new ApiException(400, "text is required");
+        return onEngine(() -> {
+            Task task = findMatching(id, ifMatch);
+            engine.addSubtask(task, text.trim());
+            return withEtag(new Response(201, gson.toJson(toJson(task))), etag(task));
+        });
+    }
+
+    private Response setSubtaskCompleted(String id, int index, String ifMatch, JsonObject body) {
+        JsonElement completed = body.get("completed");
+        if (completed == null || !completed.isJsonPrimitive() || !completed.getAsJsonPrimitive().isBoolean()) {
+            throw new ApiException(400, "completed (boolean) is required");
+        }
+        return onEngine(() -> {
+            Task task = findMatching(id, ifMatch);
+            if (index >= task.getSubtaskCount()) throw new ApiException(404, "No subtask " + index);
+            engine.setSubtaskCompleted(task, index, completed.getAsBoolean());
+            return withEtag(new Response(200, gson.toJson(toJson(task))), etag(task));
+        });
+    }
+
+    // --- Engine access ---
+
+    private <T> T onEngine(Supplier<T> action) {
+        try {
+            return CompletableFuture.supplyAsync(action, engineExecutor).get(ENGINE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ApiException(503, "Task engine busy");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException(503, "Interrupted");
+        }
+    }
+
+    private Task find(String id) {
+        Task task = engine.getTask(id);
+        if (task == null) throw new ApiException(404, "No task " + id);
+        return task;
+    }
+
+    // Must run on the engine thread so the check and the write that follows are atomic
+    private Task findMatching(String id, String ifMatch) {
+        Task task = find(id);
+        if (!"*".equals(ifMatch) && !etag(task).equals(ifMatch)) {
+            throw new ApiException(412, "Task " + id + " was modified (current ETag " + etag(task) + ")");
+        }
+        return task;
+    }
+
+    private String etag(Task task) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(gson.toJson(task).getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(digest, 0, 12) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every JDK has SHA-256
+        }
+    }
+
+    private JsonObject toJson(Task task) {
+        JsonObject json = gson.toJsonTree(task).getAsJsonObject();
+        json.addProperty("etag", etag(task));
+        json.addProperty("progress", task.getCompletionPercentage());
+        return json;
+    }
+
+    // --- Request parsing ---
+
+    private static String ifMatch(HttpExchange exchange) {
+        String value = exchange.getRequestHeaders().getFirst("If-Match");
+        if (value == null) throw new ApiException(428, "If-Match header with the task's ETag is required");
+        return value.trim();
+    }
+
+    private JsonObject readBody(HttpExchange exchange) throws IOException {
+        String text = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        if (text.isBlank()) return new JsonObject();
+        try {
+            JsonElement element = gson.fromJson(text, JsonElement.class);
+            if (!element.isJsonObject()) throw new ApiException(400, "Body must be a JSON object");
+            return element.getAsJsonObject();
+        } catch (JsonParseException e) {
+            throw new ApiException(400, "Malformed JSON: " + e.getMessage());
+        }
+    }
+
+    private static Map<String, String> queryParams(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) return params;
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) params.put(decode(pair.substring(0, eq)), decode(pair.substring(eq + 1)));
+        }
+        return params;
+    }
+
+    private static String decode(String value) {
+        return URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String string(JsonObject object, String name) {
+        JsonElement element = object.get(name);
+        return element == null || element.isJsonNull() ? null : element.getAsString();
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT).replace('-', '_').replace(' ', '_'));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new ApiException(400, "Invalid " + type.getSimpleName().toLowerCase(Locale.ROOT) + ": " + value);
+        }
+    }
+
+    private static LocalDate parseDate(String value) {
+        if (value == null || value.isBlank()) return null;
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new ApiException(400, "Invalid date " + value + ", expected YYYY-MM-DD");
+        }
+    }
+
+    private static int parseInt(String value, String name) {
+        try {
+            int n = Integer.parseInt(value);
+            if (n < 0) throw new NumberFormatException();
+            return n;
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "Invalid " + name + ": " + value);
+        }
+    }
+
+    private static int parseIndex(String value) {
+        return parseInt(value, "subtask index");
+    }
+
+    // --- Responses ---
+
+    private static class Response {
+        final int status;
+        final String body;
+        final Map<String, String> headers = new HashMap<>();
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    private static class ApiException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private static Response withEtag(Response response, String etag) {
+        response.headers.put("ETag", etag);
+        return response;
+    }
+
+    private Response error(int status, String message) {
+        JsonObject body = new JsonObject();
+        body.addProperty("error", message);
+        return new Response(status, gson.toJson(body));
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        response.headers.forEach(exchange.getResponseHeaders()::set);
+        if (response.body == null) {
+            // For 204/304 the JDK server only keeps the connection alive if the request was read to EOF
+            exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+            exchange.sendResponseHeaders(response.status, -1);
+            return;
+        }
+        byte[] bytes = response.body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.api;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread-per-task executors that use virtual threads when running on Java 21+.
+ * The build targets Java 17, so the factory method is looked up reflectively. On older
+ * runtimes a pool of daemon platform threads stands in, capped so that a burst of
+ * connections queues up instead of starting a thread, and its stack, for each.
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {}
+
+    /** @param maxPlatformThreads threads of the fallback pool; further tasks wait for one of them */
+    static ExecutorService newThreadPerTaskExecutor(String name, int maxPlatformThreads) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(maxPlatformThreads, maxPlatformThreads,
+                    60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                Thread t = new Thread(r, name + "-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+            pool.allowCoreThreadTimeOut(true); // idle threads go away as in a cached pool
+            return pool;
+        }
+    }
+
+    static boolean available() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
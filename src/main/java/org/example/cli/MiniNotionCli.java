@@ -0,0 +1,303 @@
+package org.example.cli;
+
+import org.example.api.TaskApiServer;
+import org.example.engine.TaskEngine;
+import org.example.engine.TaskExporter;
+import org.example.engine.TaskImporter;
+import org.example.engine.WorkspaceManager;
+import org.example.index.TaskIndex;
+import org.example.metrics.MetricsJmx;
+import org.example.model.Task;
+import org.example.storage.StorageFormat;
+import org.example.storage.TaskStorage;
+import org.example.sync.SyncServer;
+import org.example.sync.TaskSync;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Command-line access to a MiniNotion data directory, without the GUI.
+ *
+ * <pre>
+ * MiniNotionCli [--data dir] [--workspace name] [--storage journal|json|binary|lazy] import tickets.csv
+ * MiniNotionCli export board.jsonl
+ * MiniNotionCli update --status TO_DO --due-before 2024-06-30 --set-priority HIGH
+ * MiniNotionCli --data other sync --peer localhost:8766
+ * </pre>
+ *
+ * Imports and exports stream their rows; in journal mode (the default) an import holds
+ * only one row plus the unsnapshotted journal tail in memory.
+ */
+public class MiniNotionCli {
+
+    private static final String USAGE = String.join("\n",
+            "Usage: MiniNotionCli [--data <dir>] [--workspace <name>] [--storage journal|json|binary|lazy] <command>",
+            "  import <file.csv|file.jsonl>     append tasks from a file",
+            "  export <file.csv|file.jsonl>     write all tasks to a file",
+            "  update [--status S] [--priority P] [--due-after DATE] [--due-before DATE]",
+            "         [--set-status S] [--set-priority P]",
+            "                                   change status/priority of matching tasks",
+            "  serve [--port N]                 run the HTTP API until interrupted (default port 8765)",
+            "  sync --peer HOST:PORT | --listen PORT | --drop DIR",
+            "                                   exchange changed tasks with another instance");
+
+    private static final long GROUP_COMMIT_MILLIS = Long.getLong("mininotion.journal.groupCommitMs", 50);
+
+    private Path dataDir = Paths.get("data");
+    private String workspace = WorkspaceManager.DEFAULT;
+    private String storageMode = "journal";
+
+    public static void main(String[] args) {
+        try {
+            System.exit(new MiniNotionCli().run(new ArrayDeque<>(Arrays.asList(args))));
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("I/O error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    int run(Deque<String> args) throws IOException {
+        while (!args.isEmpty() && args.peek().startsWith("--")) {
+            String option = args.pop();
+            switch (option) {
+                case "--data": dataDir = Paths.get(value(args, option)); break;
+                case "--workspace": workspace = value(args, option); break;
+                case "--storage": storageMode = value(args, option); break;
+                default: throw new IllegalArgumentException("Unknown option " + option + "\n" + USAGE);
+            }
+        }
+        if (args.isEmpty()) throw new IllegalArgumentException(USAGE);
+
+        String command = args.pop();
+        try (TaskStorage storage = openStorage()) {
+            switch (command) {
+                case "import": return importTasks(storage, Paths.get(single(args, command)));
+                case "export": return exportTasks(storage, Paths.get(single(args, command)));
+                case "update": return updateTasks(storage, args);
+                case "serve": return serve(storage, args);
+                case "sync": return sync(storage, args);
+                default: throw new IllegalArgumentException("Unknown command " + command + "\n" + USAGE);
+            }
+        }
+    }
+
+    private TaskStorage openStorage() throws IOException {
+        TaskStorage storage = new TaskStorage(StorageFormat.forName(storageMode), WorkspaceManager.directory(dataDir, workspace));
+        if ("journal".equals(storageMode)) storage.enableJournal(GROUP_COMMIT_MILLIS);
+        return storage;
+    }
+
+    private int importTasks(TaskStorage storage, Path file) throws IOException {
+        long start = System.nanoTime();
+        long imported;
+        TaskStorage.ImportResult result;
+        try (TaskImporter importer = new TaskImporter(file)) {
+            result = storage.importTasks(importer);
+            imported = importer.getCount();
+        }
+        report("Imported", imported, start);
+        System.out.println(result);
+        return 0;
+    }
+
+    private int exportTasks(TaskStorage storage, Path file) throws IOException {
+        long start = System.nanoTime();
+        long exported;
+        try (TaskExporter exporter = new TaskExporter(file)) {
+            storage.streamTasks(1000, batch -> batch.forEach(exporter));
+            exported = exporter.getCount();
+        }
+        report("Exported", exported, start);
+        return 0;
+    }
+
+    private int updateTasks(TaskStorage storage, Deque<String> args) throws IOException {
+        Task.Status setStatus = null;
+        Task.Priority setPriority = null;
+        long start = System.nanoTime();
+        TaskEngine engine = new TaskEngine(storage);
+        TaskIndex.Query query = engine.getTaskIndex().query();
+        while (!args.isEmpty()) {
+            String option = args.pop();
+            switch (option) {
+                case "--status": query.status(parse(Task.Status.class, value(args, option))); break;
+                case "--priority": query.priority(parse(Task.Priority.class, value(args, option))); break;
+                case "--due-after": query.dueOnOrAfter(date(value(args, option))); break;
+                case "--due-before": query.dueOnOrBefore(date(value(args, option))); break;
+                case "--set-status": setStatus = parse(Task.Status.class, value(args, option)); break;
+                case "--set-priority": setPriority = parse(Task.Priority.class, value(args, option)); break;
+                default: throw new IllegalArgumentException("Unknown update option " + option + "\n" + USAGE);
+            }
+        }
+        if (setStatus == null && setPriority == null) {
+            throw new IllegalArgumentException("update needs --set-status and/or --set-priority");
+        }
+        engine.load();
+        System.out.printf("Loaded %,d tasks in %d ms%n", engine.size(), (System.nanoTime() - start) / 1_000_000);
+
+        start = System.nanoTime();
+        int changed = engine.bulkUpdate(query, setStatus, setPriority);
+        engine.save();
+        report("Updated", changed, start);
+        return 0;
+    }
+
+    private int serve(TaskStorage storage, Deque<String> args) throws IOException {
+        int port = 8765;
+        while (!args.isEmpty()) {
+            String option = args.pop();
+            if (!"--port".equals(option)) throw new IllegalArgumentException("Unknown serve option " + option + "\n" + USAGE);
+            port = Integer.parseInt(value(args, option));
+        }
+        // The engine is single-threaded; every API call is queued onto this thread.
+        ExecutorService engineThread = Executors.newSingleThreadExecutor(r -> new Thread(r, "task-engine"));
+        TaskEngine engine = new TaskEngine(storage);
+        try {
+            engineThread.submit(() -> {
+                engine.load();
+                return null;
+            }).get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IOException("Could not load tasks", e);
+        }
+        System.out.printf("Loaded %,d tasks%n", engine.size());
+
+        MetricsJmx.register(); // load/save timings for JConsole while the server runs
+        TaskApiServer server = new TaskApiServer(engine, engineThread, new InetSocketAddress("localhost", port));
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            engineThread.shutdown();
+            try {
+                engineThread.awaitTermination(5, TimeUnit.SECONDS);
+                engine.save();
+            } catch (IOException | InterruptedException e) {
+                System.err.println("Could not save tasks: " + e.getMessage());
+            }
+            stopped.countDown();
+        }));
+        server.start();
+        try {
+            stopped.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return 0;
+    }
+
+    private int sync(TaskStorage storage, Deque<String> args) throws IOException {
+        if (args.size() != 2) throw new IllegalArgumentException("sync needs one of --peer, --listen or --drop\n" + USAGE);
+        String option = args.pop();
+        String target = args.pop();
+        ExecutorService engineThread = Executors.newSingleThreadExecutor(r -> new Thread(r, "task-engine"));
+        try (TaskEngine engine = new TaskEngine(storage)) {
+            engineThread.submit(() -> {
+                engine.load();
+                return null;
+            }).get();
+            TaskSync sync = new TaskSync(engine, engineThread);
+            switch (option) {
+                case "--peer": {
+                    int colon = target.lastIndexOf(':');
+                    if (colon < 0) throw new IllegalArgumentException("--peer needs HOST:PORT");
+                    System.out.println("Synced: " + sync.sync(target.substring(0, colon), Integer.parseInt(target.substring(colon + 1))));
+                    break;
+                }
+                case "--drop":
+                    System.out.println("Synced: " + sync.syncFolder(Paths.get(target)));
+                    break;
+                case "--listen":
+                    listen(sync, Integer.parseInt(target), engine, engineThread);
+                    return 0;
+                default:
+                    throw new IllegalArgumentException("Unknown sync option " + option + "\n" + USAGE);
+            }
+            engineThread.submit(() -> {
+                engine.save();
+                return null;
+            }).get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IOException("Could not load or save tasks", e);
+        } finally {
+            engineThread.shutdown();
+        }
+        return 0;
+    }
+
+    // Serves sync sessions until interrupted; like serve, saves from the shutdown hook
+    private static void listen(TaskSync sync, int port, TaskEngine engine, ExecutorService engineThread) throws IOException {
+        SyncServer server = new SyncServer(sync, port, result -> System.out.println("Synced: " + result));
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+                engineThread.submit(() -> {
+                    engine.save();
+                    return null;
+                }).get(5, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                System.err.println("Could not save tasks: " + e.getMessage());
+            }
+            stopped.countDown();
+        }));
+        server.start();
+        try {
+            stopped.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void report(String action, long count, long startNanos) {
+        long nanos = Math.max(1, System.nanoTime() - startNanos);
+        System.out.printf("%s %,d tasks in %d ms (%,.0f tasks/sec)%n",
+                action, count, nanos / 1_000_000, count * 1e9 / nanos);
+    }
+
+    private static String value(Deque<String> args, String option) {
+        if (args.isEmpty()) throw new IllegalArgumentException(option + " needs a value");
+        return args.pop();
+    }
+
+    private static String single(Deque<String> args, String command) {
+        if (args.size() != 1) throw new IllegalArgumentException(command + " needs exactly one file\n" + USAGE);
+        return args.pop();
+    }
+
+    private static LocalDate date(String value) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date " + value + ", expected YYYY-MM-DD");
+        }
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String value) {
+        String normalized = value.trim().toUpperCase(Locale.ROOT).replace('-', '_').replace(' ', '_');
+        try {
+            return Enum.valueOf(type, normalized);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown " + type.getSimpleName().toLowerCase(Locale.ROOT) + " " + value
+                    + ", expected one of " + Arrays.stream(type.getEnumConstants()).map(Enum::name).collect(Collectors.joining(", ")));
+        }
+    }
+}
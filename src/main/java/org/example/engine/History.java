@@ -0,0 +1,235 @@
+package org.example.engine;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Undo/redo log of the engine's mutations. Each command is a small JSON diff (changed
+ * fields with their old and new values, a subtask index, or the whole task only for
+ * creations and deletions) appended to {@code history.log} in the data directory, so
+ * history is unbounded and survives restarts. The most recently used commands stay
+ * encoded in a fixed-size ring; older ones are read back from the file when undo
+ * reaches them. Recording after an undo discards the redo tail.
+ *
+ * <pre>
+ * header : int magic 'MNHL', int version, long position (commands currently applied)
+ * record : int length, length bytes of UTF-8 JSON
+ * </pre>
+ *
+ * Records are written through to the OS but not fsynced. If the file cannot be written,
+ * history carries on in memory, limited to the ring.
+ */
+class History implements Closeable {
+
+    static final String FILE_NAME = "history.log";
+
+    private static final int MAGIC = 0x4D4E484C; // "MNHL"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+
+    private final Path file;
+    private final byte[][] ring;
+    private final int[] ringIndex;
+    private FileChannel channel; // opened on first use; null after a write failure
+    private boolean opened;
+    private long[] offsets = new long[64]; // file offset of each record, plus the end
+    private int size;
+    private int position;
+
+    History(Path file, int ringCapacity) {
+        this.file = file;
+        this.ring = new byte[ringCapacity][];
+        this.ringIndex = new int[ringCapacity];
+        Arrays.fill(ringIndex, -1);
+        offsets[0] = HEADER_BYTES;
+    }
+
+    /** Appends a command after the current position, dropping anything that could have been redone. */
+    synchronized void record(JsonObject command) {
+        open();
+        byte[] bytes = command.toString().getBytes(StandardCharsets.UTF_8);
+        size = position;
+        if (size + 1 >= offsets.length) offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        offsets[size + 1] = offsets[size] + 4 + bytes.length;
+        cache(size, bytes);
+        size++;
+        position = size;
+        if (channel == null) return;
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(4 + bytes.length);
+            buffer.putInt(bytes.length).put(bytes).flip();
+            channel.truncate(offsets[size - 1]);
+            write(buffer, offsets[size - 1]);
+            writePosition();
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    /** The command to revert, moving the position back; null if there is nothing to undo. */
+    synchronized JsonObject undo() {
+        open();
+        if (position == 0) return null;
+        JsonObject command = read(position - 1);
+        if (command == null) return null;
+        position--;
+        savePosition();
+        return command;
+    }
+
+    /** The command to apply again, moving the position forward; null if there is nothing to redo. */
+    synchronized JsonObject redo() {
+        open();
+        if (position == size) return null;
+        JsonObject command = read(position);
+        if (command == null) return null;
+        position++;
+        savePosition();
+        return command;
+    }
+
+    /** The command {@link #undo} would return, without moving; null if none. */
+    synchronized JsonObject peekUndo() {
+        open();
+        return position == 0 ? null : read(position - 1);
+    }
+
+    /** The command {@link #redo} would return, without moving; null if none. */
+    synchronized JsonObject peekRedo() {
+        open();
+        return position == size ? null : read(position);
+    }
+
+    synchronized int size() {
+        open();
+        return size;
+    }
+
+    synchronized int position() {
+        open();
+        return position;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private JsonObject read(int index) {
+        byte[] bytes = ring[index % ring.length];
+        if (ringIndex[index % ring.length] != index) {
+            if (channel == null) return null; // only the ring survived a write failure
+            try {
+                int length = (int) (offsets[index + 1] - offsets[index] - 4);
+                ByteBuffer buffer = ByteBuffer.allocate(length);
+                readFully(buffer, offsets[index] + 4);
+                bytes = buffer.array();
+                cache(index, bytes);
+            } catch (IOException e) {
+                System.err.println("Could not read history: " + e.getMessage());
+                return null;
+            }
+        }
+        return JsonParser.parseString(new String(bytes, StandardCharsets.UTF_8)).getAsJsonObject();
+    }
+
+    private void cache(int index, byte[] bytes) {
+        ring[index % ring.length] = bytes;
+        ringIndex[index % ring.length] = index;
+    }
+
+    // Reads the record offsets and the position; a torn last record is cut off
+    private void open() {
+        if (opened) return;
+        opened = true;
+        try {
+            Path dir = file.toAbsolutePath().getParent();
+            if (dir != null) Files.createDirectories(dir);
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long length = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            if (length < HEADER_BYTES) {
+                channel.truncate(0);
+                header.putInt(MAGIC).putInt(VERSION).putLong(0).flip();
+                write(header, 0);
+                return;
+            }
+            readFully(header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not a MiniNotion history file: " + file);
+            }
+            long savedPosition = header.getLong();
+            ByteBuffer prefix = ByteBuffer.allocate(4);
+            long offset = HEADER_BYTES;
+            while (offset + 4 <= length) {
+                prefix.clear();
+                readFully(prefix, offset);
+                long next = offset + 4 + prefix.getInt(0);
+                if (next > length) break;
+                if (size + 1 >= offsets.length) offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                offsets[++size] = next;
+                offset = next;
+            }
+            if (offset < length) channel.truncate(offset);
+            position = (int) Math.min(savedPosition, size);
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    private void savePosition() {
+        if (channel == null) return;
+        try {
+            writePosition();
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    private void writePosition() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        buffer.putLong(position).flip();
+        write(buffer, 8);
+    }
+
+    private void failed(IOException e) {
+        System.err.println("History is kept in memory only: " + e.getMessage());
+        try {
+            if (channel != null) channel.close();
+        } catch (IOException ignored) {
+            // already failing
+        }
+        channel = null;
+        // Commands before the ring window are gone with the file
+        int oldest = Math.max(0, size - ring.length);
+        for (int i = 0; i < ring.length; i++) {
+            if (ringIndex[i] < oldest) ringIndex[i] = -1;
+        }
+    }
+
+    private void write(ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) offset += channel.write(buffer, offset);
+    }
+
+    private void readFully(ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, offset);
+            if (n < 0) throw new IOException("Unexpected end of " + file);
+            offset += n;
+        }
+    }
+}
@@ -0,0 +1,563 @@
+package org.example.engine;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.example.index.SearchIndex;
+import org.example.index.TaskIndex;
+import org.example.model.Recurrence;
+import org.example.model.Subtask;
+import org.example.model.Task;
+import org.example.storage.JsonStorageFormat;
+import org.example.storage.TaskStorage;
+import org.example.sync.SyncState;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Headless task model: keeps the tasks in a {@link TaskRepository}, keeps the search and
+ * task indexes in step with them and records every mutation in {@link TaskStorage}. Used
+ * by the JavaFX application and by the command-line tools.
+ *
+ * Safe to call from any thread. Task observers run on the mutating thread, though, so
+ * the GUI routes its own edits (and the API's writes) through the FX thread; other
+ * readers use the repository's copies and change events.
+ *
+ * Every mutation is also recorded as a command in the data directory's {@link History},
+ * so it can be undone and redone, across restarts too. A command holds only what changed
+ * (the edited fields' old and new values, a subtask's index), so undoing costs as much as
+ * the edit did; only creating and deleting a task store the whole task.
+ *
+ * A recurring task is one task with a {@link Recurrence}; its due date is always the
+ * earliest occurrence not yet done or skipped, so sorting, filtering and overdue checks
+ * need nothing special, and marking an occurrence moves the task like any due-date edit.
+ *
+ * Every change is also versioned in a {@link SyncState} for exchanging deltas with other
+ * replicas (see {@link org.example.sync.TaskSync}); changes received that way are applied
+ * with {@link #putSynced} and {@link #removeSynced} and are neither versioned again nor
+ * added to the undo history.
+ */
+public class TaskEngine implements Closeable {
+
+    // Commands kept decoded in memory; older ones are read back from the history file
+    private static final int HISTORY_RING_SIZE = Integer.getInteger("mininotion.history.ring", 1024);
+    private static final Gson GSON = JsonStorageFormat.gsonBuilder().create();
+
+    private final TaskStorage storage;
+    private final TaskRepository repository = new TaskRepository();
+    private final SearchIndex searchIndex = new SearchIndex();
+    private final TaskIndex taskIndex = new TaskIndex();
+    private final History history;
+    private final SyncState syncState;
+    private volatile boolean loaded;
+    private volatile long savedModCount = -1;
+
+    public TaskEngine(TaskStorage storage) {
+        this.storage = storage;
+        this.history = new History(storage.getDataDir().resolve(History.FILE_NAME), HISTORY_RING_SIZE);
+        this.syncState = new SyncState(storage.getDataDir().resolve(SyncState.DIR_NAME));
+        repository.subscribe(Runnable::run, this::versionChanges);
+    }
+
+    public TaskStorage getStorage() { return storage; }
+    public TaskRepository getRepository() { return repository; }
+    public SearchIndex getSearchIndex() { return searchIndex; }
+    public TaskIndex getTaskIndex() { return taskIndex; }
+    public SyncState getSyncState() { return syncState; }
+
+    // --- Loading ---
+
+    /** Loads every stored task into the engine. */
+    public void load() throws IOException {
+        streamLoad(1000, this::addLoaded);
+    }
+
+    /**
+     * Streams stored tasks in batches. Each batch is search-indexed on the calling thread
+     * before it is handed to {@code batchConsumer}, which passes it on to {@link #addLoaded}.
+     */
+    public void streamLoad(int batchSize, Consumer<List<Task>> batchConsumer) throws IOException {
+        storage.streamTasks(batchSize, batch -> {
+            batch.forEach(searchIndex::index);
+            batchConsumer.accept(batch);
+        });
+        List<String> ids = new ArrayList<>(repository.size());
+        for (Task task : repository.liveTasks()) ids.add(task.getId());
+        syncState.reconcile(ids); // versions edits made without the sync state, e.g. by an older version
+        savedModCount = repository.modCount();
+        loaded = true;
+    }
+
+    /** Whether a load has completed; the engine starts out empty. */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /** Whether anything changed since the load or the last {@link #save}. */
+    public boolean isModified() {
+        return repository.modCount() != savedModCount;
+    }
+
+    /** Adds stored tasks; subscribers see them as {@link TaskRepository.Change.Type#LOADED}. */
+    public void addLoaded(List<Task> batch) {
+        taskIndex.addAll(repository.load(batch));
+    }
+
+    // --- Access ---
+
+    /** The live task; mutate it only through the engine. */
+    public Task getTask(String id) {
+        return repository.get(id);
+    }
+
+    public int size() {
+        return repository.size();
+    }
+
+    // --- Mutations ---
+
+    public Task createTask(String title, String description, Task.Priority priority, LocalDate dueDate, Task.Status status) {
+        return createTask(title, description, priority, dueDate, status, null);
+    }
+
+    /** With a non-null {@code recurrence}, the due date is its first occurrence instead of {@code dueDate}. */
+    public Task createTask(String title, String description, Task.Priority priority, LocalDate dueDate, Task.Status status,
+                           Recurrence recurrence) {
+        Task task = new Task(title, description, priority, occurrenceDue(recurrence, dueDate));
+        if (status != null) task.setStatus(status);
+        task.setRecurrence(recurrence);
+        insert(task, false);
+        history.record(taskCommand("create", task));
+        return task;
+    }
+
+    /** Keeps the task's recurrence, if any; a recurring task's due date then stays on its occurrence. */
+    public void updateTask(Task task, String title, String description, Task.Priority priority,
+                           LocalDate dueDate, Task.Status status) {
+        updateTask(task, title, description, priority, dueDate, status, task.getRecurrence());
+    }
+
+    /** Also replaces the recurrence (null for none); {@code dueDate} only counts for a task that does not repeat. */
+    public void updateTask(Task task, String title, String description, Task.Priority priority,
+                           LocalDate dueDate, Task.Status status, Recurrence recurrence) {
+        LocalDate due = occurrenceDue(recurrence, dueDate);
+        JsonObject[] command = new JsonObject[1];
+        repository.update(task.getId(), t -> {
+            JsonObject changes = new JsonObject();
+            diff(changes, "title", t.getTitle(), title);
+            diff(changes, "description", t.getDescription(), description);
+            diff(changes, "priority", t.getPriority(), priority);
+            diff(changes, "recurrence", t.getRecurrence(), recurrence);
+            diff(changes, "dueDate", t.getDueDate(), due);
+            diff(changes, "status", t.getStatus(), status);
+            t.setTitle(title);
+            t.setDescription(description);
+            t.setPriority(priority);
+            t.setRecurrence(recurrence);
+            t.setDueDate(due);
+            t.setStatus(status);
+            storage.taskSaved(t);
+            if (changes.size() > 0) command[0] = updateCommand(t, changes);
+        });
+        if (command[0] != null) history.record(command[0]);
+    }
+
+    /** Sets or clears (null) the time to be reminded of the task at. */
+    public void setReminder(Task task, LocalDateTime reminder) {
+        JsonObject[] command = new JsonObject[1];
+        repository.update(task.getId(), t -> {
+            JsonObject changes = new JsonObject();
+            LocalDateTime old = t.getReminder();
+            t.setReminder(reminder);
+            diff(changes, "reminder", old, t.getReminder());
+            if (changes.size() == 0) return;
+            storage.taskSaved(t);
+            command[0] = updateCommand(t, changes);
+        });
+        if (command[0] != null) history.record(command[0]);
+    }
+
+    public boolean deleteTask(Task task) {
+        Task removed = remove(task.getId(), false);
+        if (removed == null) return false;
+        history.record(taskCommand("delete", removed));
+        return true;
+    }
+
+    public Subtask addSubtask(Task task, String text) {
+        Subtask subtask = new Subtask(text);
+        Task updated = repository.update(task.getId(), t -> {
+            t.addSubtask(subtask);
+            storage.subtaskAdded(t, subtask);
+        });
+        if (updated != null) {
+            JsonObject command = command("addSubtask", updated);
+            command.addProperty("index", updated.getSubtaskCount() - 1);
+            command.addProperty("text", text);
+            history.record(command);
+        }
+        return subtask;
+    }
+
+    public void setSubtaskCompleted(Task task, Subtask subtask, boolean completed) {
+        setSubtaskCompleted(task, task.getSubtasks().indexOf(subtask), completed);
+    }
+
+    public void setSubtaskCompleted(Task task, int index, boolean completed) {
+        boolean[] changed = {false};
+        Task updated = repository.update(task.getId(), t -> {
+            t.loadDetails(); // subtasks still in a lazy store are shared read-only copies
+            Subtask subtask = t.getSubtasks().get(index);
+            changed[0] = subtask.isCompleted() != completed;
+            subtask.setCompleted(completed);
+            storage.subtaskCompleted(t, subtask);
+        });
+        if (changed[0]) {
+            JsonObject command = command("toggleSubtask", updated);
+            command.addProperty("index", index);
+            command.addProperty("completed", completed);
+            history.record(command);
+        }
+    }
+
+    /**
+     * Marks the current occurrence of a recurring task done and moves the due date to the
+     * next pending one; after the last occurrence the task is set to done.
+     *
+     * @return the next occurrence, or null if there is none (or the task does not repeat)
+     */
+    public LocalDate completeOccurrence(Task task) {
+        return markOccurrence(task, false);
+    }
+
+    /** Like {@link #completeOccurrence} but records the occurrence as skipped. */
+    public LocalDate skipOccurrence(Task task) {
+        return markOccurrence(task, true);
+    }
+
+    private LocalDate markOccurrence(Task task, boolean skip) {
+        JsonObject[] command = new JsonObject[1];
+        LocalDate[] next = new LocalDate[1];
+        repository.update(task.getId(), t -> {
+            Recurrence recurrence = t.getRecurrence();
+            LocalDate date = t.getDueDate();
+            if (recurrence == null || date == null || recurrence.isDone(date) || recurrence.isSkipped(date)) return;
+            Recurrence marked = skip ? recurrence.markSkipped(date) : recurrence.markDone(date);
+            next[0] = marked.nextPending(date.plusDays(1));
+            JsonObject changes = new JsonObject();
+            if (next[0] != null) {
+                diff(changes, "dueDate", date, next[0]);
+            } else {
+                diff(changes, "status", t.getStatus(), Task.Status.DONE);
+            }
+            t.setRecurrence(marked);
+            if (next[0] != null) t.setDueDate(next[0]);
+            else t.setStatus(Task.Status.DONE);
+            storage.taskSaved(t);
+            command[0] = command("occurrence", t);
+            command[0].add("date", GSON.toJsonTree(date));
+            command[0].addProperty("skip", skip);
+            command[0].add("changes", changes);
+        });
+        if (command[0] != null) history.record(command[0]);
+        return next[0];
+    }
+
+    // A recurring task is due on its earliest pending occurrence, or its start once none is left
+    private static LocalDate occurrenceDue(Recurrence recurrence, LocalDate dueDate) {
+        if (recurrence == null) return dueDate;
+        LocalDate next = recurrence.nextPending(recurrence.getStart());
+        return next != null ? next : recurrence.getStart();
+    }
+
+    /** Keeps the description and subtasks of a lazily stored task in memory, e.g. while it is shown. */
+    public void openDetails(Task task) {
+        repository.update(task.getId(), Task::loadDetails);
+    }
+
+    /** Lets an open task's details go back to storage once they are saved. */
+    public void closeDetails(Task task) {
+        repository.update(task.getId(), storage::releaseDetails);
+    }
+
+    /**
+     * Sets the status and/or priority (null leaves it unchanged) of every task matching
+     * {@code query}, answered from the task index.
+     *
+     * @return number of tasks that actually changed
+     */
+    public int bulkUpdate(TaskIndex.Query query, Task.Status status, Task.Priority priority) {
+        JsonArray updates = new JsonArray();
+        for (Task task : query.list()) {
+            repository.update(task.getId(), t -> {
+                JsonObject changes = new JsonObject();
+                if (status != null) diff(changes, "status", t.getStatus(), status);
+                if (priority != null) diff(changes, "priority", t.getPriority(), priority);
+                if (changes.size() == 0) return;
+                if (status != null) t.setStatus(status);
+                if (priority != null) t.setPriority(priority);
+                storage.taskSaved(t);
+                updates.add(updateCommand(t, changes));
+            });
+        }
+        if (updates.size() > 0) {
+            JsonObject command = new JsonObject();
+            command.addProperty("type", "batch");
+            command.addProperty("title", updates.size() + " tasks");
+            command.add("commands", updates);
+            history.record(command);
+        }
+        return updates.size();
+    }
+
+    /** Persists the current state; in journal mode this only flushes the journal. */
+    public void save() throws IOException {
+        TaskRepository.Snapshot snapshot = repository.snapshot();
+        storage.saveTasks(snapshot.getTasks());
+        syncState.save();
+        savedModCount = snapshot.getModCount();
+    }
+
+    /** Closes the history, the sync state and the storage. */
+    @Override
+    public void close() throws IOException {
+        try {
+            history.close();
+            syncState.close();
+        } finally {
+            storage.close();
+        }
+    }
+
+    // --- Sync ---
+
+    /**
+     * Stores a task received from another replica: added if it is new here, otherwise its
+     * fields and subtasks are replaced in place, so views keep showing the same object.
+     */
+    public void putSynced(Task received) {
+        Task updated = repository.update(received.getId(), t -> {
+            t.setTitle(received.getTitle());
+            t.setDescription(received.getDescription());
+            t.setPriority(received.getPriority());
+            t.setStatus(received.getStatus());
+            t.setRecurrence(received.getRecurrence());
+            t.setDueDate(received.getDueDate());
+            t.setReminder(received.getReminder());
+            if (!sameSubtasks(t.getSubtasks(), received.getSubtasks())) t.setSubtasks(received.getSubtasks());
+            storage.taskSaved(t);
+        }, true);
+        if (updated == null) insert(received, true);
+    }
+
+    /** Deletes a task that another replica deleted; false if it is not here. */
+    public boolean removeSynced(String id) {
+        return remove(id, true) != null;
+    }
+
+    // Received changes are marked on the event itself, whichever thread drains the batch
+    private void versionChanges(List<TaskRepository.Change> batch) {
+        for (TaskRepository.Change change : batch) {
+            if (change.getType() == TaskRepository.Change.Type.LOADED || change.isFromSync()) continue;
+            syncState.localChange(change.getTask().getId(), change.getType() == TaskRepository.Change.Type.REMOVED);
+        }
+    }
+
+    private static boolean sameSubtasks(List<Subtask> a, List<Subtask> b) {
+        if (a.size() != b.size()) return false;
+        for (int i = 0; i < a.size(); i++) {
+            if (!Objects.equals(a.get(i).getText(), b.get(i).getText()) || a.get(i).isCompleted() != b.get(i).isCompleted()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // --- Undo ---
+
+    /** Reverts the most recent command that is still applied; returns false if there is none. */
+    public boolean undo() {
+        JsonObject command = history.undo();
+        if (command == null) return false;
+        apply(command, false);
+        return true;
+    }
+
+    /** Applies the most recently undone command again; returns false if there is none. */
+    public boolean redo() {
+        JsonObject command = history.redo();
+        if (command == null) return false;
+        apply(command, true);
+        return true;
+    }
+
+    /** What {@link #undo} would revert, e.g. "Edit 'Report'"; null if nothing. */
+    public String undoDescription() {
+        return describe(history.peekUndo());
+    }
+
+    /** What {@link #redo} would apply again; null if nothing. */
+    public String redoDescription() {
+        return describe(history.peekRedo());
+    }
+
+    private void insert(Task task, boolean fromSync) {
+        searchIndex.index(task); // later edits are picked up by the index's observer
+        taskIndex.add(task);
+        storage.taskSaved(task);
+        repository.add(task, fromSync);
+    }
+
+    private Task remove(String id, boolean fromSync) {
+        Task removed = repository.remove(id, fromSync);
+        if (removed == null) return null;
+        taskIndex.remove(removed);
+        searchIndex.remove(removed);
+        storage.taskDeleted(removed);
+        return removed;
+    }
+
+    // Commands whose task has gone since (e.g. deleted by an edit that was not recorded) are skipped
+    private void apply(JsonObject command, boolean forward) {
+        String type = command.get("type").getAsString();
+        if ("batch".equals(type)) {
+            JsonArray commands = command.getAsJsonArray("commands");
+            for (int i = 0; i < commands.size(); i++) {
+                apply(commands.get(forward ? i : commands.size() - 1 - i).getAsJsonObject(), forward);
+            }
+            return;
+        }
+        String id = command.get("id").getAsString();
+        switch (type) {
+            case "create":
+            case "delete":
+                if (forward == "create".equals(type)) {
+                    Task task = GSON.fromJson(command.get("task"), Task.class);
+                    if (repository.get(id) == null) insert(task, false);
+                } else {
+                    remove(id, false);
+                }
+                break;
+            case "occurrence": {
+                LocalDate date = GSON.fromJson(command.get("date"), LocalDate.class);
+                boolean skip = command.get("skip").getAsBoolean();
+                repository.update(id, t -> {
+                    Recurrence recurrence = t.getRecurrence();
+                    if (recurrence == null) return;
+                    if (!forward) t.setRecurrence(recurrence.unmark(date));
+                    else t.setRecurrence(skip ? recurrence.markSkipped(date) : recurrence.markDone(date));
+                    for (Map.Entry<String, JsonElement> change : command.getAsJsonObject("changes").entrySet()) {
+                        set(t, change.getKey(), change.getValue().getAsJsonArray().get(forward ? 1 : 0));
+                    }
+                    storage.taskSaved(t);
+                });
+                break;
+            }
+            case "update":
+                repository.update(id, t -> {
+                    for (Map.Entry<String, JsonElement> change : command.getAsJsonObject("changes").entrySet()) {
+                        set(t, change.getKey(), change.getValue().getAsJsonArray().get(forward ? 1 : 0));
+                    }
+                    storage.taskSaved(t);
+                });
+                break;
+            case "addSubtask": {
+                int index = command.get("index").getAsInt();
+                repository.update(id, t -> {
+                    if (forward) {
+                        Subtask subtask = new Subtask(command.get("text").getAsString());
+                        t.addSubtask(subtask);
+                        storage.subtaskAdded(t, subtask);
+                    } else if (index < t.getSubtaskCount()) {
+                        t.loadDetails();
+                        t.removeSubtask(t.getSubtasks().get(index));
+                        storage.taskSaved(t);
+                    }
+                });
+                break;
+            }
+            case "toggleSubtask": {
+                int index = command.get("index").getAsInt();
+                boolean completed = command.get("completed").getAsBoolean() == forward;
+                repository.update(id, t -> {
+                    if (index >= t.getSubtaskCount()) return;
+                    t.loadDetails();
+                    Subtask subtask = t.getSubtasks().get(index);
+                    subtask.setCompleted(completed);
+                    storage.subtaskCompleted(t, subtask);
+                });
+                break;
+            }
+            default:
+                throw new IllegalStateException("Unknown history command " + type);
+        }
+    }
+
+    private static void set(Task task, String field, JsonElement value) {
+        switch (field) {
+            case "title": task.setTitle(GSON.fromJson(value, String.class)); break;
+            case "description": task.setDescription(GSON.fromJson(value, String.class)); break;
+            case "priority": task.setPriority(GSON.fromJson(value, Task.Priority.class)); break;
+            case "dueDate": task.setDueDate(GSON.fromJson(value, LocalDate.class)); break;
+            case "status": task.setStatus(GSON.fromJson(value, Task.Status.class)); break;
+            case "recurrence": task.setRecurrence(GSON.fromJson(value, Recurrence.class)); break;
+            case "reminder": task.setReminder(GSON.fromJson(value, LocalDateTime.class)); break;
+            default: throw new IllegalStateException("Unknown task field " + field);
+        }
+    }
+
+    private static void diff(JsonObject changes, String field, Object before, Object after) {
+        if (Objects.equals(before, after)) return;
+        JsonArray values = new JsonArray(2);
+        values.add(GSON.toJsonTree(before));
+        values.add(GSON.toJsonTree(after));
+        changes.add(field, values);
+    }
+
+    private static JsonObject command(String type, Task task) {
+        JsonObject command = new JsonObject();
+        command.addProperty("type", type);
+        command.addProperty("id", task.getId());
+        command.addProperty("title", task.getTitle());
+        return command;
+    }
+
+    private static JsonObject taskCommand(String type, Task task) {
+        JsonObject command = command(type, task);
+        command.add("task", GSON.toJsonTree(task, Task.class));
+        return command;
+    }
+
+    private static JsonObject updateCommand(Task task, JsonObject changes) {
+        JsonObject command = command("update", task);
+        command.add("changes", changes);
+        return command;
+    }
+
+    private static String describe(JsonObject command) {
+        if (command == null) return null;
+        JsonElement element = command.get("title");
+        String title = element == null || element.isJsonNull() ? "" : element.getAsString();
+        switch (command.get("type").getAsString()) {
+            case "create": return "Create '" + title + "'";
+            case "delete": return "Delete '" + title + "'";
+            case "update": return "Edit '" + title + "'";
+            case "addSubtask": return "Add subtask to '" + title + "'";
+            case "toggleSubtask": return "Toggle subtask of '" + title + "'";
+            case "occurrence":
+                return (command.get("skip").getAsBoolean() ? "Skip " : "Complete ") + command.get("date").getAsString()
+                        + " of '" + title + "'";
+            case "batch": return "Bulk update of " + title;
+            default: return title;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.engine;
+
+import com.google.gson.Gson;
+import org.example.model.Subtask;
+import org.example.model.Task;
+import org.example.storage.JsonStorageFormat;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Writes tasks to a CSV or JSON-lines file as they are passed in, in the layout
+ * {@link TaskImporter} reads back.
+ */
+public class TaskExporter implements Consumer<Task>, Closeable {
+
+    private static final String CSV_HEADER = "id,title,description,priority,status,due_date,subtasks";
+
+    private final BufferedWriter writer;
+    private final boolean csv;
+    private final Gson gson = JsonStorageFormat.gsonBuilder().create();
+    private long count;
+
+    public TaskExporter(Path file) throws IOException {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (!name.endsWith(".csv") && !name.endsWith(".jsonl") && !name.endsWith(".ndjson")) {
+            throw new IOException("Unsupported export file (expected .csv or .jsonl): " + file);
+        }
+        this.csv = name.endsWith(".csv");
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        if (csv) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+    }
+
+    @Override
+    public void accept(Task task) {
+        try {
+            if (csv) {
+                writeCsv(task);
+            } else {
+                gson.toJson(task, Task.class, writer);
+                writer.write('\n');
+            }
+            count++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    private void writeCsv(Task task) throws IOException {
+        StringBuilder subtasks = new StringBuilder();
+        for (Subtask subtask : task.getSubtasks()) {
+            if (subtasks.length() > 0) subtasks.append('\n');
+            subtasks.append(subtask.isCompleted() ? "[x] " : "[ ] ").append(subtask.getText());
+        }
+        writeField(task.getId());
+        writer.write(',');
+        writeField(task.getTitle());
+        writer.write(',');
+        writeField(task.getDescription());
+        writer.write(',');
+        writeField(task.getPriority() == null ? null : task.getPriority().name());
+        writer.write(',');
+        writeField(task.getStatus() == null ? null : task.getStatus().name());
+        writer.write(',');
+        writeField(task.getDueDate() == null ? null : task.getDueDate().toString());
+        writer.write(',');
+        writeField(subtasks.toString());
+        writer.write('\n');
+    }
+
+    private void writeField(String value) throws IOException {
+        if (value == null || value.isEmpty()) return;
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,256 @@
+package org.example.engine;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import org.example.model.Subtask;
+import org.example.model.Task;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+/**
+ * Streams tasks from a CSV or JSON-lines file, one row at a time.
+ *
+ * CSV needs a header row; columns are matched by name (case-insensitive) and only
+ * {@code title} is required: {@code id, title, description, priority, status, due_date,
+ * subtasks}. Subtasks are one per line inside the quoted field, optionally prefixed
+ * with {@code [x] } or {@code [ ] }. JSON-lines files hold one task object per line with
+ * the field names of {@code task.json}. Rows without an ID get a new one; priority and
+ * status accept enum names or display names in any case ("in progress", "To-Do").
+ *
+ * Malformed rows fail with an {@link IllegalArgumentException} naming the line.
+ */
+public class TaskImporter implements Iterator<Task>, Closeable {
+
+    private final BufferedReader reader;
+    private final boolean csv;
+    private final Gson gson = new Gson();
+    private Map<String, Integer> columns;
+    private long line;
+    private long count;
+    private Task next;
+
+    public TaskImporter(Path file) throws IOException {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (!name.endsWith(".csv") && !name.endsWith(".jsonl") && !name.endsWith(".ndjson")) {
+            throw new IOException("Unsupported import file (expected .csv or .jsonl): " + file);
+        }
+        this.csv = name.endsWith(".csv");
+        this.reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        if (csv) readHeader();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = csv ? readCsvTask() : readJsonTask();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public Task next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        Task task = next;
+        next = null;
+        count++;
+        return task;
+    }
+
+    /** Number of tasks returned so far. */
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // --- CSV ---
+
+    private void readHeader() throws IOException {
+        List<String> header = readRecord();
+        if (header == null) throw new IOException("Empty CSV file");
+        columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("title")) throw new IOException("CSV header has no 'title' column");
+    }
+
+    private Task readCsvTask() throws IOException {
+        List<String> record;
+        do {
+            record = readRecord();
+            if (record == null) return null;
+        } while (record.size() == 1 && record.get(0).isBlank());
+
+        Task task = newTask(column(record, "id"), column(record, "title"), column(record, "description"),
+                column(record, "priority"), column(record, "status"), column(record, "due_date"));
+        String subtasks = column(record, "subtasks");
+        if (subtasks != null) {
+            for (String text : subtasks.split("\\R")) {
+                if (text.isBlank()) continue;
+                boolean completed = text.startsWith("[x] ") || text.startsWith("[X] ");
+                if (completed || text.startsWith("[ ] ")) text = text.substring(4);
+                addSubtask(task, text, completed);
+            }
+        }
+        return task;
+    }
+
+    private String column(List<String> record, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size()) return null;
+        String value = record.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    // RFC 4180: quoted fields may contain commas, doubled quotes and line breaks
+    private List<String> readRecord() throws IOException {
+        int c = reader.read();
+        if (c < 0) return null;
+        line++;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (; c >= 0; c = reader.read()) {
+            char ch = (char) c;
+            if (quoted) {
+                if (ch == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    if (ch == '\n') line++;
+                    field.append(ch);
+                }
+            } else if (ch == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (ch == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (ch == '\n') {
+                break;
+            } else if (ch != '\r') {
+                field.append(ch);
+            }
+        }
+        if (quoted) throw new IllegalArgumentException("Line " + line + ": unterminated quoted field");
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // --- JSON lines ---
+
+    private Task readJsonTask() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            if (text == null) return null;
+            line++;
+        } while (text.isBlank());
+
+        JsonObject object;
+        try {
+            object = gson.fromJson(text, JsonObject.class);
+        } catch (JsonParseException e) {
+            throw new IllegalArgumentException("Line " + line + ": " + e.getMessage(), e);
+        }
+        Task task = newTask(string(object, "id"), string(object, "title"), string(object, "description"),
+                string(object, "priority"), string(object, "status"), string(object, "dueDate"));
+        JsonElement subtasks = object.get("subtasks");
+        if (subtasks instanceof JsonArray) {
+            for (JsonElement element : subtasks.getAsJsonArray()) {
+                if (element.isJsonObject()) {
+                    JsonObject subtask = element.getAsJsonObject();
+                    addSubtask(task, string(subtask, "text"),
+                            subtask.has("completed") && subtask.get("completed").getAsBoolean());
+                } else {
+                    addSubtask(task, element.getAsString(), false);
+                }
+            }
+        }
+        return task;
+    }
+
+    private static String string(JsonObject object, String name) {
+        JsonElement element = object.get(name);
+        return element == null || element.isJsonNull() ? null : element.getAsString();
+    }
+
+    // --- Fields ---
+
+    private Task newTask(String id, String title, String description, String priority, String status, String dueDate) {
+        if (title == null || title.isBlank()) {
+            throw new IllegalArgumentException("Line " + line + ": missing title");
+        }
+        return new Task(id == null ? UUID.randomUUID().toString() : id.trim(), title, description,
+                priority == null ? Task.Priority.MEDIUM : parseEnum(Task.Priority.class, priority),
+                status == null ? Task.Status.TO_DO : parseEnum(Task.Status.class, status),
+                parseDate(dueDate));
+    }
+
+    private static void addSubtask(Task task, String text, boolean completed) {
+        Subtask subtask = new Subtask(text);
+        subtask.setCompleted(completed);
+        task.addSubtask(subtask);
+    }
+
+    private <E extends Enum<E>> E parseEnum(Class<E> type, String value) {
+        String key = enumKey(value);
+        for (E constant : type.getEnumConstants()) {
+            if (enumKey(constant.name()).equals(key) || enumKey(constant.toString()).equals(key)) {
+                return constant;
+            }
+        }
+        throw new IllegalArgumentException("Line " + line + ": unknown " + type.getSimpleName().toLowerCase(Locale.ROOT)
+                + " '" + value + "'");
+    }
+
+    // "In Progress", "in_progress" and "IN-PROGRESS" all become "INPROGRESS"
+    private static String enumKey(String value) {
+        StringBuilder key = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (Character.isLetterOrDigit(ch)) key.append(Character.toUpperCase(ch));
+        }
+        return key.toString();
+    }
+
+    private LocalDate parseDate(String value) {
+        if (value == null || value.isBlank()) return null;
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Line " + line + ": invalid due date '" + value + "'");
+        }
+    }
+}
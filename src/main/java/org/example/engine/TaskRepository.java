@@ -0,0 +1,287 @@
+package org.example.engine;
+
+import org.example.model.Task;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Thread-safe owner of the live {@link Task} objects.
+ *
+ * Tasks are kept in a {@link ConcurrentHashMap} by ID. Every mutation runs under one of
+ * a fixed set of striped locks, chosen by ID, so edits to different tasks proceed in
+ * parallel while edits to the same task are serialized. After each change a detached
+ * copy of the task is published; readers get these copies ({@link #getCopy},
+ * {@link #snapshot()}) without taking any lock and never see a half-applied edit.
+ *
+ * Changes are reported to subscribers in batches on the executor they chose, e.g.
+ * {@code Platform::runLater}: events that arrive while a batch is still queued are
+ * appended to it instead of scheduling another one.
+ */
+public class TaskRepository {
+
+    /** One added, loaded, updated or removed task. */
+    public static final class Change {
+        public enum Type { ADDED, LOADED, UPDATED, REMOVED }
+
+        private final Type type;
+        private final Task task;
+        private final boolean fromSync;
+
+        Change(Type type, Task task, boolean fromSync) {
+            this.type = type;
+            this.task = task;
+            this.fromSync = fromSync;
+        }
+
+        public Type getType() { return type; }
+        /** The live task (the removed instance for {@link Type#REMOVED}). */
+        public Task getTask() { return task; }
+        /** Whether the change applied one received from another replica rather than a local edit. */
+        public boolean isFromSync() { return fromSync; }
+    }
+
+    public interface ChangeListener {
+        void changed(List<Change> batch);
+    }
+
+    /** Immutable point-in-time view: published copies in insertion order. */
+    public static final class Snapshot {
+        private final long modCount;
+        private final List<Task> tasks;
+        private Map<String, Task> byId; // built on first lookup
+
+        Snapshot(long modCount, List<Task> tasks) {
+            this.modCount = modCount;
+            this.tasks = Collections.unmodifiableList(tasks);
+        }
+
+        public long getModCount() { return modCount; }
+        public List<Task> getTasks() { return tasks; }
+        public int size() { return tasks.size(); }
+
+        public synchronized Task get(String id) {
+            if (byId == null) {
+                byId = new HashMap<>(tasks.size() * 2);
+                for (Task task : tasks) byId.put(task.getId(), task);
+            }
+            return byId.get(id);
+        }
+    }
+
+    private static final class Slot {
+        final long sequence;
+        final Task task;
+
+        Slot(long sequence, Task task) {
+            this.sequence = sequence;
+            this.task = task;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Slot> tasks = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, Task> published = new ConcurrentSkipListMap<>();
+    private final Object[] stripes;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong modCount = new AtomicLong();
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private volatile Snapshot snapshot;
+
+    public TaskRepository() {
+        this(64);
+    }
+
+    /** @param stripeCount number of mutation locks; rounded up to a power of two */
+    public TaskRepository(int stripeCount) {
+        int size = 1;
+        while (size < stripeCount) size <<= 1;
+        stripes = new Object[size];
+        for (int i = 0; i < stripes.length; i++) stripes[i] = new Object();
+    }
+
+    // --- Reads (lock-free) ---
+
+    /** The live task; only mutate it through {@link #update}. */
+    public Task get(String id) {
+        Slot slot = tasks.get(id);
+        return slot == null ? null : slot.task;
+    }
+
+    /** Latest published copy of the task. Read-only: do not mutate or observe it. */
+    public Task getCopy(String id) {
+        Slot slot = tasks.get(id);
+        return slot == null ? null : published.get(slot.sequence);
+    }
+
+    public int size() {
+        return tasks.size();
+    }
+
+    public long modCount() {
+        return modCount.get();
+    }
+
+    /** Live tasks in no particular order; a weakly consistent view. */
+    public Collection<Task> liveTasks() {
+        List<Task> live = new ArrayList<>(tasks.size());
+        for (Slot slot : tasks.values()) live.add(slot.task);
+        return live;
+    }
+
+    /**
+     * A consistent-per-task copy of the whole repository. Cached until the next change,
+     * so repeated calls between edits are free.
+     */
+    public Snapshot snapshot() {
+        Snapshot current = snapshot;
+        long count = modCount.get();
+        if (current != null && current.modCount == count) return current;
+        // modCount is bumped after publishing, so this holds everything up to `count`
+        Snapshot fresh = new Snapshot(count, new ArrayList<>(published.values()));
+        snapshot = fresh;
+        return fresh;
+    }
+
+    // --- Mutations ---
+
+    /** Adds the task unless one with the same ID exists; returns whether it was added. */
+    public boolean add(Task task) {
+        return add(task, false);
+    }
+
+    /** @param fromSync marks the change as received from another replica, see {@link Change#isFromSync()} */
+    public boolean add(Task task, boolean fromSync) {
+        return insert(task, Change.Type.ADDED, fromSync);
+    }
+
+    /** Adds tasks read from storage; reported as {@link Change.Type#LOADED}. Returns those added. */
+    public List<Task> load(Collection<Task> batch) {
+        List<Task> added = new ArrayList<>(batch.size());
+        for (Task task : batch) {
+            if (insert(task, Change.Type.LOADED, false)) added.add(task);
+        }
+        return added;
+    }
+
+    private boolean insert(Task task, Change.Type type, boolean fromSync) {
+        String id = task.getId();
+        synchronized (stripe(id)) {
+            if (tasks.containsKey(id)) return false;
+            Slot slot = new Slot(sequence.incrementAndGet(), task);
+            published.put(slot.sequence, task.copy());
+            tasks.put(id, slot);
+            modCount.incrementAndGet();
+            emit(new Change(type, task, fromSync));
+            return true;
+        }
+    }
+
+    /**
+     * Applies {@code mutation} to the task under its stripe lock and publishes a new copy
+     * if the task's version changed.
+     *
+     * @return the live task, or null if there is no task with this ID
+     */
+    public Task update(String id, Consumer<Task> mutation) {
+        return update(id, mutation, false);
+    }
+
+    /** @param fromSync marks the change as received from another replica, see {@link Change#isFromSync()} */
+    public Task update(String id, Consumer<Task> mutation, boolean fromSync) {
+        synchronized (stripe(id)) {
+            Slot slot = tasks.get(id);
+            if (slot == null) return null;
+            long version = slot.task.getVersion();
+            try {
+                mutation.accept(slot.task);
+            } finally {
+                // Publish even if the mutation failed halfway, so copies never lag the live task
+                if (slot.task.getVersion() != version) {
+                    published.put(slot.sequence, slot.task.copy());
+                    modCount.incrementAndGet();
+                    emit(new Change(Change.Type.UPDATED, slot.task, fromSync));
+                }
+            }
+            return slot.task;
+        }
+    }
+
+    /** @return the removed live task, or null if there was none */
+    public Task remove(String id) {
+        return remove(id, false);
+    }
+
+    /** @param fromSync marks the change as received from another replica, see {@link Change#isFromSync()} */
+    public Task remove(String id, boolean fromSync) {
+        synchronized (stripe(id)) {
+            Slot slot = tasks.remove(id);
+            if (slot == null) return null;
+            published.remove(slot.sequence);
+            modCount.incrementAndGet();
+            emit(new Change(Change.Type.REMOVED, slot.task, fromSync));
+            return slot.task;
+        }
+    }
+
+    private Object stripe(String id) {
+        int h = id.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+    }
+
+    // --- Change events ---
+
+    /** Delivers changes to {@code listener} in batches, always via {@code executor}. */
+    public void subscribe(Executor executor, ChangeListener listener) {
+        subscriptions.add(new Subscription(executor, listener));
+    }
+
+    public void unsubscribe(ChangeListener listener) {
+        subscriptions.removeIf(s -> s.listener == listener);
+    }
+
+    // Called under the task's stripe lock, so events for one task stay in order
+    private void emit(Change change) {
+        for (Subscription subscription : subscriptions) subscription.add(change);
+    }
+
+    private static final class Subscription {
+        final Executor executor;
+        final ChangeListener listener;
+        private List<Change> pending = new ArrayList<>();
+        private boolean scheduled;
+
+        Subscription(Executor executor, ChangeListener listener) {
+            this.executor = executor;
+            this.listener = listener;
+        }
+
+        void add(Change change) {
+            synchronized (this) {
+                pending.add(change);
+                if (scheduled) return;
+                scheduled = true;
+            }
+            executor.execute(this::drain);
+        }
+
+        private void drain() {
+            List<Change> batch;
+            synchronized (this) {
+                batch = pending;
+                pending = new ArrayList<>();
+                scheduled = false;
+            }
+            listener.changed(Collections.unmodifiableList(batch));
+        }
+    }
+}
@@ -0,0 +1,395 @@
+package org.example.engine;
+
+import org.example.index.SearchIndex;
+import org.example.model.Task;
+import org.example.storage.TaskStorage;
+import org.example.sync.SyncState;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Named workspaces, each a data directory with its own storage file, journal and indexes:
+ * the {@value #DEFAULT} workspace is the data directory itself, the others live under
+ * {@code <data>/workspaces/<name>}.
+ *
+ * A workspace's {@link TaskEngine} is created when it is first activated and loaded by
+ * the caller. Workspaces that are no longer active stay resident until the estimated
+ * memory of everything resident exceeds the budget; then the least recently used ones
+ * are saved and dropped. Each workspace's search terms and titles are kept in
+ * {@code search.idx}, written when its engine is evicted or closed, so {@link #search}
+ * answers from resident engines and from those files instead of loading every board.
+ * An index file older than the workspace's data is rebuilt by streaming the tasks once.
+ */
+public class WorkspaceManager implements Closeable {
+
+    public static final String DEFAULT = "Default";
+
+    private static final String WORKSPACES_DIR = "workspaces";
+    private static final String SEARCH_INDEX_FILE = "search.idx";
+    private static final int SEARCH_INDEX_MAGIC = 0x4D4E5349; // "MNSI"
+    private static final short SEARCH_INDEX_VERSION = 1;
+    private static final Pattern VALID_NAME = Pattern.compile("[\\p{L}\\p{N}][\\p{L}\\p{N} _.-]{0,63}");
+
+    // Retained heap per loaded task including indexes, as measured by HeapReport; an estimate
+    private static final long ENGINE_BYTES_PER_TASK = 3000;
+    // Decoded search index per byte of its file
+    private static final long INDEX_BYTES_PER_FILE_BYTE = 4;
+
+    /** Opens the storage of a workspace directory. */
+    public interface StorageOpener {
+        TaskStorage open(Path dir) throws IOException;
+    }
+
+    /** A task matching a cross-workspace search. */
+    public static final class Hit {
+        private final String workspace;
+        private final String taskId;
+        private final String title;
+
+        Hit(String workspace, String taskId, String title) {
+            this.workspace = workspace;
+            this.taskId = taskId;
+            this.title = title;
+        }
+
+        public String getWorkspace() { return workspace; }
+        public String getTaskId() { return taskId; }
+        public String getTitle() { return title; }
+
+        @Override
+        public String toString() {
+            return title + "  [" + workspace + "]";
+        }
+    }
+
+    private static final class Workspace {
+        final String name;
+        final Path dir;
+        TaskEngine engine;
+        SearchIndex searchIndex; // only while the engine is not resident
+        Map<String, String> titles;
+        long indexBytes;
+
+        Workspace(String name, Path dir) {
+            this.name = name;
+            this.dir = dir;
+        }
+
+        long estimatedBytes() {
+            if (engine != null) return engine.size() * ENGINE_BYTES_PER_TASK;
+            return searchIndex == null ? 0 : indexBytes * INDEX_BYTES_PER_FILE_BYTE;
+        }
+    }
+
+    private final Path dataDir;
+    private final StorageOpener opener;
+    private final long memoryBudget;
+    // Access order, so iteration starts with the least recently used workspace
+    private final Map<String, Workspace> resident = new LinkedHashMap<>(16, 0.75f, true);
+    private String active;
+    // Workspaces whose search index is being read or rebuilt outside the lock
+    private final Set<String> indexing = new HashSet<>();
+
+    /** @param memoryBudget estimated bytes that resident workspaces, other than the active one, may keep */
+    public WorkspaceManager(Path dataDir, StorageOpener opener, long memoryBudget) {
+        this.dataDir = dataDir;
+        this.opener = opener;
+        this.memoryBudget = memoryBudget;
+    }
+
+    /** Directory of a workspace under {@code dataDir}. */
+    public static Path directory(Path dataDir, String name) {
+        if (DEFAULT.equals(name)) return dataDir;
+        if (!VALID_NAME.matcher(name).matches() || DEFAULT.equalsIgnoreCase(name)) {
+            throw new IllegalArgumentException("Invalid workspace name: " + name);
+        }
+        return dataDir.resolve(WORKSPACES_DIR).resolve(name);
+    }
+
+    /** The default workspace followed by the others in name order. */
+    public synchronized List<String> names() throws IOException {
+        Set<String> names = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        Path root = dataDir.resolve(WORKSPACES_DIR);
+        if (Files.isDirectory(root)) {
+            try (DirectoryStream<Path> dirs = Files.newDirectoryStream(root, Files::isDirectory)) {
+                for (Path dir : dirs) {
+                    String name = dir.getFileName().toString();
+                    if (VALID_NAME.matcher(name).matches()) names.add(name);
+                }
+            }
+        }
+        names.remove(DEFAULT);
+        List<String> list = new ArrayList<>(names.size() + 1);
+        list.add(DEFAULT);
+        list.addAll(names);
+        return list;
+    }
+
+    public synchronized String getActive() {
+        return active;
+    }
+
+    /**
+     * Makes {@code name} the active workspace, creating its directory if needed, and
+     * returns its engine. An engine that is not {@link TaskEngine#isLoaded loaded} yet is
+     * for the caller to load, e.g. with {@link TaskEngine#streamLoad}. May save and evict
+     * other workspaces, so call it off the UI thread.
+     */
+    public synchronized TaskEngine activate(String name) throws IOException {
+        while (indexing.contains(name)) awaitIndexing(); // so its storage is never open twice
+        Workspace workspace = workspace(name);
+        if (workspace.engine == null) {
+            Files.createDirectories(workspace.dir);
+            workspace.engine = new TaskEngine(opener.open(workspace.dir));
+            workspace.searchIndex = null; // the engine keeps its own
+            workspace.titles = null;
+        }
+        active = name;
+        evict();
+        return workspace.engine;
+    }
+
+    /**
+     * Tasks of every workspace matching all words of {@code query}, at most {@code limit}.
+     * Workspaces without a resident engine are answered from their saved search index.
+     * Lookups, and reading or rebuilding an index, happen outside the lock, so they hold
+     * up {@link #activate} only of a workspace whose index is being built.
+     */
+    public List<Hit> search(String query, int limit) throws IOException {
+        List<Hit> hits = new ArrayList<>();
+        if (query == null || query.isBlank()) return hits;
+        for (Workspace workspace : workspaces()) {
+            TaskEngine engine;
+            synchronized (this) {
+                engine = workspace.engine;
+            }
+            if (engine != null) {
+                if (!engine.isLoaded()) continue;
+                for (String id : engine.getSearchIndex().lookup(query)) {
+                    Task task = engine.getTask(id);
+                    if (task != null) hits.add(new Hit(workspace.name, id, task.getTitle()));
+                    if (hits.size() >= limit) return hits;
+                }
+                continue;
+            }
+            Workspace saved = savedIndex(workspace);
+            if (saved == null) continue; // activated meanwhile
+            for (String id : saved.searchIndex.lookup(query)) {
+                hits.add(new Hit(workspace.name, id, saved.titles.get(id)));
+                if (hits.size() >= limit) return hits;
+            }
+        }
+        synchronized (this) {
+            evict();
+        }
+        return hits;
+    }
+
+    private synchronized List<Workspace> workspaces() throws IOException {
+        List<Workspace> workspaces = new ArrayList<>();
+        for (String name : names()) workspaces.add(workspace(name));
+        return workspaces;
+    }
+
+    /**
+     * The saved search index and titles of a workspace without an engine, read or rebuilt
+     * outside the lock if it has none in memory yet; null if the workspace has an engine.
+     */
+    private Workspace savedIndex(Workspace workspace) throws IOException {
+        Workspace saved = new Workspace(workspace.name, workspace.dir);
+        synchronized (this) {
+            while (indexing.contains(workspace.name)) awaitIndexing();
+            Workspace current = workspace(workspace.name);
+            if (current.engine != null) return null;
+            if (current.searchIndex != null) {
+                saved.searchIndex = current.searchIndex;
+                saved.titles = current.titles;
+                return saved;
+            }
+            indexing.add(workspace.name);
+        }
+        try {
+            loadSearchIndex(saved);
+        } finally {
+            synchronized (this) {
+                indexing.remove(workspace.name);
+                notifyAll();
+            }
+        }
+        synchronized (this) {
+            Workspace current = workspace(workspace.name);
+            if (current.engine == null && current.searchIndex == null) {
+                current.searchIndex = saved.searchIndex;
+                current.titles = saved.titles;
+                current.indexBytes = saved.indexBytes;
+            }
+        }
+        return saved;
+    }
+
+    // Called with the lock held, which waiting releases; index builds notify when they end
+    private void awaitIndexing() throws InterruptedIOException {
+        try {
+            wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while a search index was being built");
+        }
+    }
+
+    /** Saves every resident workspace and writes its search index. */
+    @Override
+    public synchronized void close() throws IOException {
+        IOException failure = null;
+        for (Workspace workspace : resident.values()) {
+            try {
+                release(workspace);
+            } catch (IOException e) {
+                if (failure == null) failure = e;
+                else failure.addSuppressed(e);
+            }
+        }
+        resident.clear();
+        active = null;
+        if (failure != null) throw failure;
+    }
+
+    private Workspace workspace(String name) {
+        Workspace workspace = resident.get(name);
+        if (workspace == null) {
+            workspace = new Workspace(name, directory(dataDir, name));
+            resident.put(name, workspace);
+        }
+        return workspace;
+    }
+
+    private void evict() throws IOException {
+        long total = 0;
+        for (Workspace workspace : resident.values()) {
+            if (!workspace.name.equals(active)) total += workspace.estimatedBytes();
+        }
+        Iterator<Workspace> lru = resident.values().iterator();
+        while (total > memoryBudget && lru.hasNext()) {
+            Workspace workspace = lru.next();
+            if (workspace.name.equals(active)) continue;
+            total -= workspace.estimatedBytes();
+            release(workspace);
+            lru.remove();
+        }
+    }
+
+    // Saves and closes the engine, keeping its search index on disk
+    private void release(Workspace workspace) throws IOException {
+        TaskEngine engine = workspace.engine;
+        if (engine == null || !engine.isLoaded()) {
+            if (engine != null) engine.close();
+            return;
+        }
+        if (engine.isModified()) engine.save();
+        engine.close();
+        Map<String, String> titles = new HashMap<>();
+        for (Task task : engine.getRepository().liveTasks()) titles.put(task.getId(), task.getTitle());
+        writeSearchIndex(workspace.dir, engine.getSearchIndex(), titles);
+        workspace.engine = null;
+    }
+
+    private void loadSearchIndex(Workspace workspace) throws IOException {
+        Path file = workspace.dir.resolve(SEARCH_INDEX_FILE);
+        if (Files.exists(file)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+                if (in.readInt() == SEARCH_INDEX_MAGIC && in.readShort() == SEARCH_INDEX_VERSION
+                        && in.readLong() == dataStamp(workspace.dir)) {
+                    int count = in.readInt();
+                    Map<String, String> titles = new HashMap<>(count * 2);
+                    for (int i = 0; i < count; i++) titles.put(in.readUTF(), in.readUTF());
+                    workspace.searchIndex = SearchIndex.read(in);
+                    workspace.titles = titles;
+                    workspace.indexBytes = Files.size(file);
+                    return;
+                }
+            }
+        }
+
+        // Missing or stale (e.g. the CLI changed the data since): index the stored tasks once
+        SearchIndex index = new SearchIndex();
+        Map<String, String> titles = new HashMap<>();
+        try (TaskStorage storage = opener.open(workspace.dir)) {
+            storage.streamTasks(1000, batch -> {
+                for (Task task : batch) {
+                    index.index(task);
+                    titles.put(task.getId(), task.getTitle());
+                }
+            });
+        }
+        workspace.searchIndex = index;
+        workspace.titles = titles;
+        workspace.indexBytes = writeSearchIndex(workspace.dir, index, titles);
+    }
+
+    private long writeSearchIndex(Path dir, SearchIndex index, Map<String, String> titles) throws IOException {
+        Path file = dir.resolve(SEARCH_INDEX_FILE);
+        Path tmp = dir.resolve(SEARCH_INDEX_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(SEARCH_INDEX_MAGIC);
+            out.writeShort(SEARCH_INDEX_VERSION);
+            out.writeLong(dataStamp(dir));
+            out.writeInt(titles.size());
+            for (Map.Entry<String, String> entry : titles.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeUTF(truncate(entry.getValue()));
+            }
+            index.write(out);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return Files.size(file);
+    }
+
+    // Name, size and modification time of every data file of the workspace (not history or sync bookkeeping)
+    private long dataStamp(Path dir) throws IOException {
+        Path nested = dir.resolve(WORKSPACES_DIR);
+        Path sync = dir.resolve(SyncState.DIR_NAME);
+        long stamp = 17;
+        try (Stream<Path> files = Files.walk(dir)) {
+            Iterator<Path> it = files.filter(path -> !path.startsWith(nested) && !path.startsWith(sync)).sorted().iterator();
+            while (it.hasNext()) {
+                Path path = it.next();
+                String name = path.getFileName().toString();
+                if (name.startsWith(SEARCH_INDEX_FILE) || name.equals(History.FILE_NAME)) continue;
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                if (!attributes.isRegularFile()) continue;
+                stamp = stamp * 31 + dir.relativize(path).toString().hashCode();
+                stamp = stamp * 31 + attributes.size();
+                stamp = stamp * 31 + attributes.lastModifiedTime().toMillis();
+            }
+        }
+        return stamp;
+    }
+
+    // writeUTF takes at most 64 KB; titles in hits never need that much
+    private static String truncate(String title) {
+        if (title == null) return "";
+        return title.length() > 1000 ? title.substring(0, 1000) : title;
+    }
+}
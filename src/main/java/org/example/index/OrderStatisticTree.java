@@ -0,0 +1,191 @@
+package org.example.index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sorted set with positional access. A treap whose nodes carry their subtree size, so
+ * {@link #add}, {@link #remove}, {@link #indexOf} and {@link #get} are O(log n) expected,
+ * and {@link #setAll} builds a balanced tree from sorted input in O(n). Not thread-safe.
+ */
+public class OrderStatisticTree<E> {
+
+    private static final class Node<E> {
+        final E element;
+        final int priority;
+        int size = 1;
+        Node<E> left;
+        Node<E> right;
+
+        Node(E element, int priority) {
+            this.element = element;
+            this.priority = priority;
+        }
+    }
+
+    // Random priorities stay below those of bulk-built nodes, which are ordered by depth
+    private static final int BUILT_PRIORITY = Integer.MAX_VALUE;
+    private static final int MAX_RANDOM_PRIORITY = Integer.MAX_VALUE - 64;
+
+    private final Comparator<? super E> comparator;
+    private Node<E> root;
+
+    public OrderStatisticTree(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public E get(int index) {
+        Objects.checkIndex(index, size());
+        Node<E> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node.element;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /** Position of the element, or -1 if it is not in the tree. */
+    public int indexOf(E element) {
+        int index = 0;
+        Node<E> node = root;
+        while (node != null) {
+            int c = comparator.compare(element, node.element);
+            if (c < 0) {
+                node = node.left;
+            } else if (c > 0) {
+                index += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return index + size(node.left);
+            }
+        }
+        return -1;
+    }
+
+    /** Adds the element and returns its position, or -1 if an equal one is already present. */
+    public int add(E element) {
+        if (indexOf(element) >= 0) return -1;
+        root = insert(root, new Node<>(element, ThreadLocalRandom.current().nextInt(MAX_RANDOM_PRIORITY)));
+        return indexOf(element);
+    }
+
+    /** Removes the element and returns the position it had, or -1 if it was not present. */
+    public int remove(E element) {
+        int index = indexOf(element);
+        if (index >= 0) root = delete(root, element);
+        return index;
+    }
+
+    public void clear() {
+        root = null;
+    }
+
+    /** Replaces the contents with {@code sorted}, which must be in order and free of duplicates. */
+    public void setAll(List<? extends E> sorted) {
+        root = build(sorted, 0, sorted.size(), 0);
+    }
+
+    /** The elements in order. */
+    public List<E> toList() {
+        List<E> list = new ArrayList<>(size());
+        collect(root, list);
+        return list;
+    }
+
+    private Node<E> insert(Node<E> node, Node<E> fresh) {
+        if (node == null) return fresh;
+        if (comparator.compare(fresh.element, node.element) < 0) {
+            node.left = insert(node.left, fresh);
+            update(node);
+            if (node.left.priority > node.priority) node = rotateRight(node);
+        } else {
+            node.right = insert(node.right, fresh);
+            update(node);
+            if (node.right.priority > node.priority) node = rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node<E> delete(Node<E> node, E element) {
+        int c = comparator.compare(element, node.element);
+        if (c == 0) return merge(node.left, node.right);
+        if (c < 0) {
+            node.left = delete(node.left, element);
+        } else {
+            node.right = delete(node.right, element);
+        }
+        update(node);
+        return node;
+    }
+
+    // Every element of a sorts before every element of b
+    private Node<E> merge(Node<E> a, Node<E> b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        }
+        b.left = merge(a, b.left);
+        update(b);
+        return b;
+    }
+
+    private Node<E> rotateRight(Node<E> node) {
+        Node<E> left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private Node<E> rotateLeft(Node<E> node) {
+        Node<E> right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private Node<E> build(List<? extends E> sorted, int from, int to, int depth) {
+        if (from >= to) return null;
+        int mid = (from + to) >>> 1;
+        Node<E> node = new Node<>(sorted.get(mid), BUILT_PRIORITY - depth);
+        node.left = build(sorted, from, mid, depth + 1);
+        node.right = build(sorted, mid + 1, to, depth + 1);
+        update(node);
+        return node;
+    }
+
+    private void collect(Node<E> node, List<E> out) {
+        while (node != null) {
+            collect(node.left, out);
+            out.add(node.element);
+            node = node.right;
+        }
+    }
+
+    private static void update(Node<?> node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+}
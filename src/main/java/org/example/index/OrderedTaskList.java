@@ -0,0 +1,189 @@
+package org.example.index;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.ObservableListBase;
+import org.example.metrics.Metrics;
+import org.example.metrics.Timer;
+import org.example.model.Task;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Sorted view of a task list that follows edits incrementally. Every ordering in use keeps
+ * an {@link OrderStatisticTree} keyed by (sort key, task ID); the key a task was filed
+ * under is remembered, so an update event from the source moves just that task, in
+ * O(log n) per ordering, and fires a single remove/add (or an update if it stayed put)
+ * instead of re-sorting. An ordering is built with one sort the first time it is selected
+ * and maintained from then on, so switching back to it is free.
+ *
+ * The source must report task edits as update events (e.g. through a revision extractor).
+ * Like the rest of the FX collections, it is confined to the FX thread.
+ */
+public class OrderedTaskList extends ObservableListBase<Task> {
+
+    private static final class Entry {
+        final Comparable<?> key;
+        final Task task;
+
+        Entry(Comparable<?> key, Task task) {
+            this.key = key;
+            this.task = task;
+        }
+    }
+
+    private static final Comparator<Entry> ENTRY_ORDER = (a, b) -> {
+        int c = TaskOrdering.KEY_ORDER.compare(a.key, b.key);
+        return c != 0 ? c : a.task.compareId(b.task);
+    };
+
+    private static final class View {
+        final TaskOrdering ordering;
+        final OrderStatisticTree<Entry> tree = new OrderStatisticTree<>(ENTRY_ORDER);
+        final Map<Task, Entry> entries = new HashMap<>();
+
+        View(TaskOrdering ordering) {
+            this.ordering = ordering;
+        }
+    }
+
+    private static final Timer SWITCH_TIMER = Metrics.timer("sort.switch");
+    private static final Timer UPDATE_TIMER = Metrics.timer("sort.update");
+
+    private final ObservableList<Task> source;
+    private final Map<TaskOrdering, View> views = new EnumMap<>(TaskOrdering.class);
+    private View active;
+
+    public OrderedTaskList(ObservableList<Task> source, TaskOrdering ordering) {
+        this.source = source;
+        active = build(ordering);
+        source.addListener((ListChangeListener<Task>) this::sourceChanged);
+    }
+
+    public TaskOrdering getOrdering() {
+        return active.ordering;
+    }
+
+    /**
+     * Switches to another ordering; the whole list is reported as replaced. Like edits
+     * ({@code sort.update}), timed ({@code sort.switch}) without the listeners downstream.
+     */
+    public void setOrdering(TaskOrdering ordering) {
+        Objects.requireNonNull(ordering);
+        if (ordering == active.ordering) return;
+        long start = SWITCH_TIMER.start();
+        View next = views.get(ordering);
+        if (next == null) next = build(ordering);
+        List<Task> previous = tasks(active);
+        beginChange();
+        active = next;
+        nextReplace(0, size(), previous);
+        SWITCH_TIMER.stop(start);
+        endChange();
+    }
+
+    @Override
+    public Task get(int index) {
+        return active.tree.get(index).task;
+    }
+
+    @Override
+    public int size() {
+        return active.tree.size();
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof Task)) return -1;
+        Entry entry = active.entries.get(o);
+        return entry == null ? -1 : active.tree.indexOf(entry);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Task && active.entries.containsKey(o);
+    }
+
+    private View build(TaskOrdering ordering) {
+        View view = new View(ordering);
+        List<Entry> sorted = new ArrayList<>(source.size());
+        for (Task task : source) {
+            Entry entry = new Entry(ordering.key(task), task);
+            view.entries.put(task, entry);
+            sorted.add(entry);
+        }
+        sorted.sort(ENTRY_ORDER);
+        view.tree.setAll(sorted);
+        views.put(ordering, view);
+        return view;
+    }
+
+    private void sourceChanged(ListChangeListener.Change<? extends Task> c) {
+        long start = UPDATE_TIMER.start();
+        beginChange();
+        while (c.next()) {
+            if (c.wasPermutated()) continue; // the source order does not matter here
+            if (c.wasUpdated()) {
+                for (int i = c.getFrom(); i < c.getTo(); i++) reposition(source.get(i));
+                continue;
+            }
+            for (Task task : c.getRemoved()) remove(task);
+            for (Task task : c.getAddedSubList()) insert(task);
+        }
+        UPDATE_TIMER.stop(start);
+        endChange();
+    }
+
+    private void insert(Task task) {
+        for (View view : views.values()) {
+            Entry entry = new Entry(view.ordering.key(task), task);
+            if (view.entries.putIfAbsent(task, entry) != null) continue;
+            int index = view.tree.add(entry);
+            if (view == active) nextAdd(index, index + 1);
+        }
+    }
+
+    private void remove(Task task) {
+        for (View view : views.values()) {
+            Entry entry = view.entries.remove(task);
+            if (entry == null) continue;
+            int index = view.tree.remove(entry);
+            if (view == active) nextRemove(index, task);
+        }
+    }
+
+    private void reposition(Task task) {
+        for (View view : views.values()) {
+            Entry entry = view.entries.get(task);
+            if (entry == null) continue;
+            Comparable<?> key = view.ordering.key(task);
+            if (Objects.equals(key, entry.key)) {
+                if (view == active) nextUpdate(view.tree.indexOf(entry));
+                continue;
+            }
+            int from = view.tree.remove(entry);
+            Entry moved = new Entry(key, task);
+            view.entries.put(task, moved);
+            int to = view.tree.add(moved);
+            if (view != active) continue;
+            if (from == to) {
+                nextUpdate(to);
+            } else {
+                nextRemove(from, task);
+                nextAdd(to, to + 1);
+            }
+        }
+    }
+
+    private static List<Task> tasks(View view) {
+        List<Task> tasks = new ArrayList<>(view.tree.size());
+        for (Entry entry : view.tree.toList()) tasks.add(entry.task);
+        return tasks;
+    }
+}
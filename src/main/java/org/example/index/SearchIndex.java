@@ -0,0 +1,286 @@
+package org.example.index;
+
+import org.example.model.Subtask;
+import org.example.model.Task;
+import org.example.model.TaskDetails;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Incremental inverted index over task titles, descriptions and subtask texts.
+ *
+ * Text is split into lowercase word tokens. A query token matches a task when it is a
+ * substring of one of the task's tokens: tokens shorter than three characters are
+ * resolved by prefix lookup in a sorted term map, longer ones through a trigram index
+ * over the distinct terms. Multi-word queries intersect the per-word matches.
+ * Indexed tasks are observed and re-indexed when their text changes. Details a task
+ * keeps in storage are read once for indexing, without loading them into the task or
+ * its store's cache, so streaming a lazy board in leaves every task detached.
+ */
+public class SearchIndex implements Task.Observer {
+
+    private static final int GRAM = 3;
+
+    private final NavigableMap<String, Set<String>> postings = new TreeMap<>();
+    private final Map<String, Set<String>> termsByGram = new HashMap<>();
+    private final Map<String, Set<String>> termsByTask = new HashMap<>();
+
+    private String cachedQuery;
+    private Set<String> cachedResult;
+    private long version; // bumped on every change
+
+    /** Adds the task, or re-indexes it if it was indexed before. */
+    public synchronized void index(Task task) {
+        String id = task.getId();
+        if (!termsByTask.containsKey(id)) task.addObserver(this);
+        removeTerms(id);
+        Set<String> terms = new HashSet<>();
+        tokenize(task.getTitle(), terms);
+        if (task.isDetailsLoaded()) {
+            tokenize(task.getDescription(), terms);
+            tokenizeSubtasks(task.getSubtasks(), terms);
+        } else {
+            TaskDetails details = task.getDetailSource().read(task.getDetailSlot());
+            tokenize(details.getDescription(), terms);
+            tokenizeSubtasks(details.getSubtasks(), terms);
+        }
+        addTerms(id, terms);
+        invalidate();
+    }
+
+    private void addTerms(String taskId, Set<String> terms) {
+        for (String term : terms) {
+            Set<String> ids = postings.get(term);
+            if (ids == null) {
+                ids = new HashSet<>();
+                postings.put(term, ids);
+                for (String gram : grams(term)) {
+                    termsByGram.computeIfAbsent(gram, g -> new HashSet<>()).add(term);
+                }
+            }
+            ids.add(taskId);
+        }
+        termsByTask.put(taskId, terms);
+    }
+
+    public synchronized void remove(Task task) {
+        String id = task.getId();
+        if (termsByTask.containsKey(id)) task.removeObserver(this);
+        removeTerms(id);
+        invalidate();
+    }
+
+    @Override
+    public synchronized void taskChanged(Task task, Task.Field field, Object oldValue, Object newValue) {
+        if (field == Task.Field.TITLE || field == Task.Field.DESCRIPTION || field == Task.Field.SUBTASKS) {
+            index(task);
+        }
+    }
+
+    /** Forgets all entries. Tasks indexed before are not unobserved; use {@link #remove} for that. */
+    public synchronized void clear() {
+        postings.clear();
+        termsByGram.clear();
+        termsByTask.clear();
+        invalidate();
+    }
+
+    /**
+     * Returns the IDs of all tasks matching every word of {@code query}, or {@code null}
+     * if the query is blank and should not filter at all. The last result is cached until
+     * the next index change, so repeated calls with the same query are a map lookup.
+     */
+    public synchronized Set<String> search(String query) {
+        if (query == null || query.isBlank()) return null;
+        if (query.equals(cachedQuery)) return cachedResult;
+        cachedResult = Collections.unmodifiableSet(lookup(query));
+        cachedQuery = query;
+        return cachedResult;
+    }
+
+    /** Uncached lookup of the IDs matching every word of a non-blank query. */
+    public synchronized Set<String> lookup(String query) {
+        Set<String> words = new HashSet<>();
+        tokenize(query, words);
+        Set<String> result = null;
+        for (String word : words) {
+            Set<String> matches = matchWord(word);
+            if (result == null) {
+                result = matches;
+            } else {
+                result.retainAll(matches);
+            }
+            if (result.isEmpty()) break;
+        }
+        return result == null ? new HashSet<>() : result;
+    }
+
+    /**
+     * Those of {@code candidates} that match every word of a non-blank query, checked
+     * against each candidate's own terms instead of the whole index: for a query that
+     * {@link #narrows} the previous one, filtering its result is enough.
+     */
+    public synchronized Set<String> lookupWithin(String query, Set<String> candidates) {
+        Set<String> words = new HashSet<>();
+        tokenize(query, words);
+        Set<String> result = new HashSet<>();
+        for (String id : candidates) {
+            Set<String> terms = termsByTask.get(id);
+            if (terms != null && matchesAll(terms, words)) result.add(id);
+        }
+        return result;
+    }
+
+    // Same rule as matchWord: short words match a term's prefix, longer ones any part of it
+    private static boolean matchesAll(Set<String> terms, Set<String> words) {
+        for (String word : words) {
+            boolean found = false;
+            for (String term : terms) {
+                if (word.length() < GRAM ? term.startsWith(word) : term.contains(word)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Whether every task matching {@code query} also matches {@code previous}, i.e. the
+     * query only adds words or extends the last word. Short words match term prefixes and
+     * longer ones any part of a term, so a short word grown past that length may match more.
+     */
+    public static boolean narrows(String previous, String query) {
+        if (previous == null || previous.isBlank() || !query.startsWith(previous)) return false;
+        int end = previous.length();
+        if (end == query.length() || !Character.isLetterOrDigit(query.charAt(end))) return true;
+        int start = end;
+        while (start > 0 && Character.isLetterOrDigit(previous.charAt(start - 1))) start--;
+        return start == end || end - start >= GRAM;
+    }
+
+    /** Changes whenever the index does, so a result can be told apart from a stale one. */
+    public synchronized long version() {
+        return version;
+    }
+
+    private Set<String> matchWord(String word) {
+        Set<String> ids = new HashSet<>();
+        if (word.length() < GRAM) {
+            for (Set<String> postingIds : postings.subMap(word, true, word + Character.MAX_VALUE, false).values()) {
+                ids.addAll(postingIds);
+            }
+            return ids;
+        }
+        Set<String> candidates = null;
+        for (String gram : grams(word)) {
+            Set<String> terms = termsByGram.get(gram);
+            if (terms == null) return ids;
+            if (candidates == null || terms.size() < candidates.size()) {
+                candidates = terms;
+            }
+        }
+        for (String term : candidates) {
+            if (term.contains(word)) {
+                ids.addAll(postings.get(term));
+            }
+        }
+        return ids;
+    }
+
+    private void removeTerms(String taskId) {
+        Set<String> terms = termsByTask.remove(taskId);
+        if (terms == null) return;
+        for (String term : terms) {
+            Set<String> ids = postings.get(term);
+            ids.remove(taskId);
+            if (ids.isEmpty()) {
+                postings.remove(term);
+                for (String gram : grams(term)) {
+                    Set<String> gramTerms = termsByGram.get(gram);
+                    gramTerms.remove(term);
+                    if (gramTerms.isEmpty()) termsByGram.remove(gram);
+                }
+            }
+        }
+    }
+
+    private void invalidate() {
+        version++;
+        cachedQuery = null;
+        cachedResult = null;
+    }
+
+    private static void tokenize(String text, Set<String> out) {
+        if (text == null) return;
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                out.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+    }
+
+    private static void tokenizeSubtasks(List<Subtask> subtasks, Set<String> out) {
+        for (Subtask subtask : subtasks) {
+            tokenize(subtask.getText(), out);
+        }
+    }
+
+    private static Set<String> grams(String term) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= term.length(); i++) {
+            grams.add(term.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    public synchronized int termCount() {
+        return postings.size();
+    }
+
+    public synchronized int taskCount() {
+        return termsByTask.size();
+    }
+
+    /** Writes the terms of every indexed task, to be restored by {@link #read}. */
+    public synchronized void write(DataOutput out) throws IOException {
+        out.writeInt(termsByTask.size());
+        for (Map.Entry<String, Set<String>> entry : termsByTask.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue().size());
+            for (String term : entry.getValue()) out.writeUTF(term);
+        }
+    }
+
+    /** Restores an index saved by {@link #write}. It answers queries but observes no tasks. */
+    public static SearchIndex read(DataInput in) throws IOException {
+        SearchIndex index = new SearchIndex();
+        int taskCount = in.readInt();
+        for (int i = 0; i < taskCount; i++) {
+            String taskId = in.readUTF();
+            int termCount = in.readInt();
+            Set<String> terms = new HashSet<>(termCount * 2);
+            for (int j = 0; j < termCount; j++) terms.add(in.readUTF());
+            index.addTerms(taskId, terms);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,285 @@
+package org.example.index;
+
+import org.example.model.Task;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * Secondary indexes on status, priority and due date.
+ *
+ * Tasks are registered as observers so the buckets follow every setter call. Queries
+ * start from the smallest matching bucket (or due-date range) and only test the
+ * remaining conditions against those candidates.
+ *
+ * <pre>
+ * index.query().status(Task.Status.IN_PROGRESS)
+ *              .dueOnOrBefore(LocalDate.now().plusDays(7))
+ *              .orderBy(TaskIndex.Order.PRIORITY)
+ *              .list();
+ * </pre>
+ */
+public class TaskIndex implements Task.Observer {
+
+    public enum Order { NONE, DUE_DATE, PRIORITY }
+
+    private final Set<Task> tasks = new HashSet<>(); // by ID, see Task#equals
+    private final EnumMap<Task.Status, Set<Task>> byStatus = new EnumMap<>(Task.Status.class);
+    private final EnumMap<Task.Priority, Set<Task>> byPriority = new EnumMap<>(Task.Priority.class);
+    private final NavigableMap<LocalDate, Set<Task>> byDueDate = new TreeMap<>();
+    private final Set<Task> withoutDueDate = new HashSet<>();
+    private long modCount;
+
+    public TaskIndex() {
+        for (Task.Status status : Task.Status.values()) byStatus.put(status, new HashSet<>());
+        for (Task.Priority priority : Task.Priority.values()) byPriority.put(priority, new HashSet<>());
+    }
+
+    public synchronized void add(Task task) {
+        if (!tasks.add(task)) return;
+        bucket(byStatus, task.getStatus()).add(task);
+        bucket(byPriority, task.getPriority()).add(task);
+        dueBucket(task.getDueDate()).add(task);
+        task.addObserver(this);
+        modCount++;
+    }
+
+    public synchronized void addAll(Collection<Task> batch) {
+        for (Task task : batch) add(task);
+    }
+
+    public synchronized void remove(Task task) {
+        if (!tasks.remove(task)) return;
+        bucket(byStatus, task.getStatus()).remove(task);
+        bucket(byPriority, task.getPriority()).remove(task);
+        removeDue(task, task.getDueDate());
+        task.removeObserver(this);
+        modCount++;
+    }
+
+    public synchronized void clear() {
+        for (Task task : tasks) task.removeObserver(this);
+        tasks.clear();
+        byStatus.values().forEach(Set::clear);
+        byPriority.values().forEach(Set::clear);
+        byDueDate.clear();
+        withoutDueDate.clear();
+        modCount++;
+    }
+
+    public synchronized int size() {
+        return tasks.size();
+    }
+
+    /** Incremented on every change that can affect a query result. */
+    public synchronized long modCount() {
+        return modCount;
+    }
+
+    @Override
+    public synchronized void taskChanged(Task task, Task.Field field, Object oldValue, Object newValue) {
+        switch (field) {
+            case STATUS:
+                bucket(byStatus, (Task.Status) oldValue).remove(task);
+                bucket(byStatus, (Task.Status) newValue).add(task);
+                break;
+            case PRIORITY:
+                bucket(byPriority, (Task.Priority) oldValue).remove(task);
+                bucket(byPriority, (Task.Priority) newValue).add(task);
+                break;
+            case DUE_DATE:
+                removeDue(task, (LocalDate) oldValue);
+                dueBucket((LocalDate) newValue).add(task);
+                break;
+            default:
+                return;
+        }
+        modCount++;
+    }
+
+    public Query query() {
+        return new Query();
+    }
+
+    // --- Buckets ---
+
+    private static <E extends Enum<E>> Set<Task> bucket(EnumMap<E, Set<Task>> map, E key) {
+        // Tasks loaded from older files may carry a null priority or status.
+        return key == null ? new HashSet<>() : map.get(key);
+    }
+
+    private Set<Task> dueBucket(LocalDate date) {
+        return date == null ? withoutDueDate : byDueDate.computeIfAbsent(date, d -> new HashSet<>());
+    }
+
+    private void removeDue(Task task, LocalDate date) {
+        if (date == null) {
+            withoutDueDate.remove(task);
+            return;
+        }
+        Set<Task> bucket = byDueDate.get(date);
+        if (bucket != null) {
+            bucket.remove(task);
+            if (bucket.isEmpty()) byDueDate.remove(date);
+        }
+    }
+
+    // --- Queries ---
+
+    /** A conjunction of conditions plus an ordering, answered from the indexes. */
+    public class Query {
+        private EnumSet<Task.Status> statuses;
+        private EnumSet<Task.Priority> priorities;
+        private LocalDate dueFrom;
+        private LocalDate dueTo;
+        private Order order = Order.NONE;
+
+        public Query status(Task.Status status) {
+            return status == null ? this : statuses(EnumSet.of(status));
+        }
+
+        public Query statuses(EnumSet<Task.Status> statuses) {
+            this.statuses = statuses;
+            return this;
+        }
+
+        public Query priority(Task.Priority priority) {
+            return priority == null ? this : priorities(EnumSet.of(priority));
+        }
+
+        public Query priorities(EnumSet<Task.Priority> priorities) {
+            this.priorities = priorities;
+            return this;
+        }
+
+        public Query dueOnOrAfter(LocalDate date) {
+            this.dueFrom = date;
+            return this;
+        }
+
+        public Query dueOnOrBefore(LocalDate date) {
+            this.dueTo = date;
+            return this;
+        }
+
+        public Query orderBy(Order order) {
+            this.order = order;
+            return this;
+        }
+
+        private boolean hasDueRange() {
+            return dueFrom != null || dueTo != null;
+        }
+
+        private boolean matches(Task task) {
+            if (statuses != null && !statuses.contains(task.getStatus())) return false;
+            if (priorities != null && !priorities.contains(task.getPriority())) return false;
+            if (hasDueRange()) {
+                LocalDate due = task.getDueDate();
+                if (due == null) return false;
+                if (dueFrom != null && due.isBefore(dueFrom)) return false;
+                if (dueTo != null && due.isAfter(dueTo)) return false;
+            }
+            return true;
+        }
+
+        public List<Task> list() {
+            synchronized (TaskIndex.this) {
+                List<Task> result = new ArrayList<>();
+                boolean dueOrdered = false;
+                if (hasDueRange() || (order == Order.DUE_DATE && statuses == null && priorities == null)) {
+                    // Walk the date tree: results come out already in due-date order.
+                    collectByDueDate(hasDueRange() ? dueRange() : byDueDate, result);
+                    if (!hasDueRange()) collect(withoutDueDate, result);
+                    dueOrdered = true;
+                } else if (order == Order.PRIORITY && statuses == null) {
+                    for (Task.Priority priority : Task.Priority.values()) {
+                        if (priorities == null || priorities.contains(priority)) {
+                            collect(byPriority.get(priority), result);
+                        }
+                    }
+                    return result;
+                } else {
+                    collect(smallestBucket(), result);
+                }
+                if (order == Order.DUE_DATE && !dueOrdered) result.sort(Task.BY_DUE_DATE);
+                if (order == Order.PRIORITY) result.sort(Task.BY_PRIORITY);
+                return result;
+            }
+        }
+
+        public Set<String> ids() {
+            Set<String> ids = new HashSet<>();
+            for (Task task : list()) ids.add(task.getId());
+            return ids;
+        }
+
+        /**
+         * A predicate backed by this query's result. The ID set is rebuilt lazily whenever
+         * the index has changed since it was last materialized.
+         */
+        public Predicate<Task> toPredicate() {
+            if (statuses == null && priorities == null && !hasDueRange()) {
+                return task -> true;
+            }
+            return new Predicate<>() {
+                private long seen = -1;
+                private Set<Task> matches;
+
+                @Override
+                public boolean test(Task task) {
+                    long current = modCount();
+                    if (current != seen) {
+                        matches = new HashSet<>(list()); // tasks are equal by ID, so copies match too
+                        seen = current;
+                    }
+                    return matches.contains(task);
+                }
+            };
+        }
+
+        private NavigableMap<LocalDate, Set<Task>> dueRange() {
+            if (dueFrom != null && dueTo != null) {
+                return dueFrom.isAfter(dueTo) ? new TreeMap<>() : byDueDate.subMap(dueFrom, true, dueTo, true);
+            }
+            return dueFrom != null ? byDueDate.tailMap(dueFrom, true) : byDueDate.headMap(dueTo, true);
+        }
+
+        private Collection<Task> smallestBucket() {
+            Collection<Task> best = tasks;
+            if (statuses != null) best = smaller(best, union(byStatus, statuses));
+            if (priorities != null) best = smaller(best, union(byPriority, priorities));
+            return best;
+        }
+
+        private <E extends Enum<E>> Collection<Task> union(EnumMap<E, Set<Task>> map, EnumSet<E> keys) {
+            if (keys.size() == 1) return map.get(keys.iterator().next());
+            List<Task> all = new ArrayList<>();
+            for (E key : keys) all.addAll(map.get(key));
+            return all;
+        }
+
+        private Collection<Task> smaller(Collection<Task> a, Collection<Task> b) {
+            return b.size() < a.size() ? b : a;
+        }
+
+        private void collectByDueDate(NavigableMap<LocalDate, Set<Task>> range, List<Task> out) {
+            for (Set<Task> bucket : range.values()) collect(bucket, out);
+        }
+
+        private void collect(Collection<Task> candidates, List<Task> out) {
+            for (Task task : candidates) {
+                if (matches(task)) out.add(task);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.index;
+
+import org.example.model.Task;
+
+import java.util.Comparator;
+import java.util.Locale;
+
+/** Orderings of the task list. Each sorts by its key (missing values last), then by task ID. */
+public enum TaskOrdering {
+    DUE_DATE("Due Date"),
+    PRIORITY("Priority"),
+    TITLE("Title"),
+    PROGRESS("Completion"),
+    STATUS("Status");
+
+    private final String label;
+
+    TaskOrdering(String label) {
+        this.label = label;
+    }
+
+    /** The value this ordering sorts by; may be null. */
+    public Comparable<?> key(Task task) {
+        switch (this) {
+            case DUE_DATE: return task.getDueDate();
+            case PRIORITY: return task.getPriority();
+            case TITLE: return task.getTitle() == null ? null : task.getTitle().toLowerCase(Locale.ROOT);
+            case PROGRESS: return task.getCompletionPercentage();
+            default: return task.getStatus();
+        }
+    }
+
+    /** Compares keys returned by {@link #key}, missing values last. */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static final Comparator<Comparable<?>> KEY_ORDER =
+            Comparator.nullsLast((a, b) -> ((Comparable) a).compareTo(b));
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** A monotonically increasing count; increments from many threads do not contend. */
+public final class Counter {
+
+    private final LongAdder count = new LongAdder();
+
+    Counter() {
+    }
+
+    public void increment() {
+        if (Metrics.ENABLED) count.increment();
+    }
+
+    public void add(long n) {
+        if (Metrics.ENABLED) count.add(n);
+    }
+
+    public long get() {
+        return count.sum();
+    }
+}
@@ -0,0 +1,102 @@
+package org.example.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Process-wide registry of named counters, timers and histograms. Call sites look their
+ * metric up once and keep it in a static field; recording is then a few lock-free
+ * increments (plus two {@code System.nanoTime()} calls for timers), cheap enough to stay
+ * on in production. Run with {@code -Dmininotion.metrics=false} to turn recording off.
+ *
+ * Values are cumulative since start-up; {@link #summaries()} reads them for the
+ * diagnostics panel, {@link MetricsJmx} and {@link MetricsDumper}.
+ */
+public final class Metrics {
+
+    public static final boolean ENABLED = !"false".equals(System.getProperty("mininotion.metrics"));
+
+    private static final Map<String, Object> METRICS = new ConcurrentSkipListMap<>();
+
+    private Metrics() {
+    }
+
+    public static Counter counter(String name) {
+        return register(name, Counter.class, new Counter());
+    }
+
+    /** Durations, reported in milliseconds. */
+    public static Timer timer(String name) {
+        return register(name, Timer.class, new Timer());
+    }
+
+    /** Plain values, e.g. batch sizes. */
+    public static Histogram histogram(String name) {
+        return register(name, Histogram.class, new Histogram());
+    }
+
+    private static <T> T register(String name, Class<T> type, T fresh) {
+        Object metric = METRICS.putIfAbsent(name, fresh);
+        if (metric == null) return fresh;
+        if (!type.isInstance(metric)) {
+            throw new IllegalArgumentException(name + " is already registered as a " + metric.getClass().getSimpleName());
+        }
+        return type.cast(metric);
+    }
+
+    /** Current values of every metric, in name order. */
+    public static List<Summary> summaries() {
+        List<Summary> summaries = new ArrayList<>(METRICS.size());
+        for (Map.Entry<String, Object> entry : METRICS.entrySet()) {
+            Object metric = entry.getValue();
+            if (metric instanceof Counter) {
+                summaries.add(new Summary(entry.getKey(), "counter", ((Counter) metric).get(), 0, 0, 0, 0, 0));
+            } else if (metric instanceof Timer) {
+                summaries.add(Summary.of(entry.getKey(), "timer", ((Timer) metric).histogram(), 1e-6));
+            } else {
+                summaries.add(Summary.of(entry.getKey(), "histogram", (Histogram) metric, 1));
+            }
+        }
+        return summaries;
+    }
+
+    /** One metric's values; timers in milliseconds. Counters only have a count. */
+    public static final class Summary {
+        private final String name;
+        private final String type;
+        private final long count;
+        private final double mean;
+        private final double p50;
+        private final double p90;
+        private final double p99;
+        private final double max;
+
+        Summary(String name, String type, long count, double mean, double p50, double p90, double p99, double max) {
+            this.name = name;
+            this.type = type;
+            this.count = count;
+            this.mean = mean;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+            this.max = max;
+        }
+
+        static Summary of(String name, String type, Histogram histogram, double scale) {
+            return new Summary(name, type, histogram.count(), histogram.mean() * scale,
+                    histogram.percentile(0.50) * scale, histogram.percentile(0.90) * scale,
+                    histogram.percentile(0.99) * scale, histogram.max() * scale);
+        }
+
+        public String getName() { return name; }
+        public String getType() { return type; }
+        public long getCount() { return count; }
+        public double getMean() { return mean; }
+        public double getP50() { return p50; }
+        public double getP90() { return p90; }
+        public double getP99() { return p99; }
+        public double getMax() { return max; }
+    }
+}
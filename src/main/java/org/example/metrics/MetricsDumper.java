@@ -0,0 +1,83 @@
+package org.example.metrics;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends a snapshot of every metric to a file as one JSON object per line, every
+ * period and once more on close:
+ * <pre>
+ * {"time":1718000000000,"metrics":[{"name":"storage.save","type":"timer","count":12,"mean":3.1,...},...]}
+ * </pre>
+ */
+public final class MetricsDumper implements Closeable {
+
+    private final Path file;
+    private final Gson gson = new Gson();
+    private final ScheduledExecutorService executor;
+
+    public MetricsDumper(Path file, long periodMillis) {
+        this.file = file;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-dump");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleAtFixedRate(this::dumpQuietly, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /** Appends one line with the current values. */
+    public synchronized void dump() throws IOException {
+        JsonArray metrics = new JsonArray();
+        for (Metrics.Summary summary : Metrics.summaries()) {
+            JsonObject metric = new JsonObject();
+            metric.addProperty("name", summary.getName());
+            metric.addProperty("type", summary.getType());
+            metric.addProperty("count", summary.getCount());
+            if (!"counter".equals(summary.getType())) {
+                metric.addProperty("mean", summary.getMean());
+                metric.addProperty("p50", summary.getP50());
+                metric.addProperty("p90", summary.getP90());
+                metric.addProperty("p99", summary.getP99());
+                metric.addProperty("max", summary.getMax());
+            }
+            metrics.add(metric);
+        }
+        JsonObject line = new JsonObject();
+        line.addProperty("time", System.currentTimeMillis());
+        line.add("metrics", metrics);
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            out.write(gson.toJson(line));
+            out.newLine();
+        }
+    }
+
+    private void dumpQuietly() {
+        try {
+            dump();
+        } catch (IOException e) {
+            System.err.println("Could not write metrics to " + file + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        dumpQuietly();
+    }
+}
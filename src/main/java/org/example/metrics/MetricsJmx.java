@@ -0,0 +1,112 @@
+package org.example.metrics;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Publishes every metric as read-only attributes of the MBean {@value #OBJECT_NAME}, e.g.
+ * {@code storage.load.p99} or {@code cell.update.count}, for JConsole, VisualVM or a JMX
+ * exporter. The attribute list is taken when a client asks for the MBean info, so metrics
+ * first used later show up on the next refresh.
+ */
+public final class MetricsJmx implements DynamicMBean {
+
+    public static final String OBJECT_NAME = "org.example.mininotion:type=Metrics";
+
+    private static final String[] STATS = { "count", "mean", "p50", "p90", "p99", "max" };
+
+    private MetricsJmx() {
+    }
+
+    /** Registers the MBean with the platform MBean server; does nothing if it already is. */
+    public static void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) server.registerMBean(new MetricsJmx(), name);
+        } catch (JMException e) {
+            System.err.println("Could not register metrics MBean: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        int dot = attribute.lastIndexOf('.');
+        if (dot > 0) {
+            String metric = attribute.substring(0, dot);
+            for (Metrics.Summary summary : Metrics.summaries()) {
+                if (summary.getName().equals(metric)) return value(summary, attribute.substring(dot + 1));
+            }
+        }
+        throw new AttributeNotFoundException(attribute);
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        AttributeList list = new AttributeList();
+        for (String attribute : attributes) {
+            try {
+                list.add(new Attribute(attribute, getAttribute(attribute)));
+            } catch (AttributeNotFoundException e) {
+                // left out, as the contract allows
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Metrics are read-only");
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        throw new ReflectionException(new NoSuchMethodException(actionName)); // there are no operations
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        for (Metrics.Summary summary : Metrics.summaries()) {
+            boolean counter = "counter".equals(summary.getType());
+            for (String stat : STATS) {
+                if (counter && !"count".equals(stat)) continue;
+                boolean count = "count".equals(stat);
+                attributes.add(new MBeanAttributeInfo(summary.getName() + "." + stat,
+                        count ? "long" : "double",
+                        summary.getName() + " " + stat + ("timer".equals(summary.getType()) && !count ? " (ms)" : ""),
+                        true, false, false));
+            }
+        }
+        return new MBeanInfo(getClass().getName(), "MiniNotion metrics",
+                attributes.toArray(new MBeanAttributeInfo[0]), null, null, null);
+    }
+
+    private static Object value(Metrics.Summary summary, String stat) throws AttributeNotFoundException {
+        switch (stat) {
+            case "count": return summary.getCount();
+            case "mean": return summary.getMean();
+            case "p50": return summary.getP50();
+            case "p90": return summary.getP90();
+            case "p99": return summary.getP99();
+            case "max": return summary.getMax();
+            default: throw new AttributeNotFoundException(summary.getName() + "." + stat);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.metrics;
+
+/**
+ * Durations of an operation, in nanoseconds:
+ * <pre>
+ * long start = timer.start();
+ * try { ... } finally { timer.stop(start); }
+ * </pre>
+ */
+public final class Timer {
+
+    private final Histogram histogram = new Histogram();
+
+    Timer() {
+    }
+
+    public long start() {
+        return Metrics.ENABLED ? System.nanoTime() : 0;
+    }
+
+    public void stop(long start) {
+        if (Metrics.ENABLED) histogram.record(System.nanoTime() - start);
+    }
+
+    public void record(long nanos) {
+        histogram.record(nanos);
+    }
+
+    public Histogram histogram() {
+        return histogram;
+    }
+}
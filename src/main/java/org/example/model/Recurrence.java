@@ -0,0 +1,241 @@
+package org.example.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.TextStyle;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Repeat rule of a recurring task: every {@code interval} days, weeks (on chosen weekdays)
+ * or months from {@code start}, optionally until an inclusive end date. Occurrences are
+ * computed when asked for, in constant time per occurrence; only the ones marked done or
+ * skipped are stored, so a rule that runs for years is still a single record.
+ *
+ * Immutable: marking an occurrence returns a new rule, which the task swaps in. A monthly
+ * rule starting on the 31st falls on the last day of shorter months.
+ */
+public final class Recurrence {
+
+    public enum Frequency { DAILY, WEEKLY, MONTHLY }
+
+    private final Frequency frequency;
+    private final int interval;
+    private final int weekdays; // WEEKLY: bit n-1 set for DayOfWeek n
+    private final LocalDate start;
+    private final LocalDate until; // null = no end
+    private final LocalDate[] done; // sorted; null = none
+    private final LocalDate[] skipped; // sorted; null = none
+
+    /** @param weekdays days of a weekly rule; empty means the weekday of {@code start}. Ignored otherwise. */
+    public Recurrence(Frequency frequency, int interval, Set<DayOfWeek> weekdays, LocalDate start, LocalDate until) {
+        this(frequency, interval, mask(frequency, weekdays, start), start, until, null, null);
+    }
+
+    private Recurrence(Frequency frequency, int interval, int weekdays, LocalDate start, LocalDate until,
+                       LocalDate[] done, LocalDate[] skipped) {
+        if (interval < 1) throw new IllegalArgumentException("Interval must be at least 1: " + interval);
+        this.frequency = Objects.requireNonNull(frequency);
+        this.interval = interval;
+        this.weekdays = weekdays;
+        this.start = Objects.requireNonNull(start);
+        this.until = until;
+        this.done = done;
+        this.skipped = skipped;
+    }
+
+    private static int mask(Frequency frequency, Set<DayOfWeek> weekdays, LocalDate start) {
+        if (frequency != Frequency.WEEKLY) return 0;
+        int mask = 0;
+        for (DayOfWeek day : weekdays) mask |= 1 << (day.getValue() - 1);
+        return mask != 0 ? mask : 1 << (start.getDayOfWeek().getValue() - 1);
+    }
+
+    public Frequency getFrequency() { return frequency; }
+    public int getInterval() { return interval; }
+    public LocalDate getStart() { return start; }
+    public LocalDate getUntil() { return until; }
+
+    /** Days of a weekly rule; empty for the other frequencies. */
+    public Set<DayOfWeek> getWeekdays() {
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if ((weekdays & 1 << (day.getValue() - 1)) != 0) days.add(day);
+        }
+        return days;
+    }
+
+    /** Occurrences marked done, in date order. */
+    public List<LocalDate> getDone() {
+        return done == null ? Collections.emptyList() : Collections.unmodifiableList(Arrays.asList(done));
+    }
+
+    /** Occurrences skipped, in date order. */
+    public List<LocalDate> getSkipped() {
+        return skipped == null ? Collections.emptyList() : Collections.unmodifiableList(Arrays.asList(skipped));
+    }
+
+    /** Same rule and marks, e.g. when restoring a stored rule. */
+    public Recurrence withMarks(List<LocalDate> done, List<LocalDate> skipped) {
+        return new Recurrence(frequency, interval, weekdays, start, until, sorted(done), sorted(skipped));
+    }
+
+    /** Whether {@code other} has the same schedule, whatever its marks. */
+    public boolean sameRule(Recurrence other) {
+        return other != null && frequency == other.frequency && interval == other.interval
+                && weekdays == other.weekdays && start.equals(other.start) && Objects.equals(until, other.until);
+    }
+
+    // --- Occurrences ---
+
+    /** First occurrence on or after {@code from}, or null once the rule has ended. */
+    public LocalDate next(LocalDate from) {
+        LocalDate day = from.isBefore(start) ? start : from;
+        LocalDate next;
+        switch (frequency) {
+            case DAILY: {
+                long steps = (ChronoUnit.DAYS.between(start, day) + interval - 1) / interval;
+                next = start.plusDays(steps * interval);
+                break;
+            }
+            case WEEKLY:
+                next = nextWeekly(day);
+                break;
+            default: {
+                long months = ChronoUnit.MONTHS.between(YearMonth.from(start), YearMonth.from(day));
+                long steps = months / interval;
+                next = start.plusMonths(steps * interval);
+                while (next.isBefore(day)) next = start.plusMonths(++steps * interval);
+                break;
+            }
+        }
+        return until != null && next.isAfter(until) ? null : next;
+    }
+
+    // Weeks count from the Monday of the start's week; at most two active weeks are scanned
+    private LocalDate nextWeekly(LocalDate day) {
+        LocalDate anchor = start.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        long week = ChronoUnit.WEEKS.between(anchor, day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)));
+        if (week % interval != 0) {
+            day = anchor.plusWeeks(week - week % interval + interval);
+        }
+        while (true) {
+            for (LocalDate d = day; ; d = d.plusDays(1)) {
+                if ((weekdays & 1 << (d.getDayOfWeek().getValue() - 1)) != 0) return d;
+                if (d.getDayOfWeek() == DayOfWeek.SUNDAY) break;
+            }
+            day = day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).plusWeeks(interval);
+        }
+    }
+
+    /** First occurrence on or after {@code from} that is neither done nor skipped; null if none is left. */
+    public LocalDate nextPending(LocalDate from) {
+        LocalDate next = next(from);
+        while (next != null && (isDone(next) || isSkipped(next))) next = next(next.plusDays(1));
+        return next;
+    }
+
+    /** Occurrences from {@code from} to {@code to}, both inclusive, e.g. for the dates on screen. */
+    public List<LocalDate> occurrences(LocalDate from, LocalDate to) {
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate next = next(from); next != null && !next.isAfter(to); next = next(next.plusDays(1))) {
+            dates.add(next);
+        }
+        return dates;
+    }
+
+    public boolean isDone(LocalDate date) {
+        return done != null && Arrays.binarySearch(done, date) >= 0;
+    }
+
+    public boolean isSkipped(LocalDate date) {
+        return skipped != null && Arrays.binarySearch(skipped, date) >= 0;
+    }
+
+    // --- Marks ---
+
+    public Recurrence markDone(LocalDate date) {
+        Recurrence unmarked = unmark(date);
+        return new Recurrence(frequency, interval, weekdays, start, until, insert(unmarked.done, date), unmarked.skipped);
+    }
+
+    public Recurrence markSkipped(LocalDate date) {
+        Recurrence unmarked = unmark(date);
+        return new Recurrence(frequency, interval, weekdays, start, until, unmarked.done, insert(unmarked.skipped, date));
+    }
+
+    /** Makes the occurrence on {@code date} pending again. */
+    public Recurrence unmark(LocalDate date) {
+        if (!isDone(date) && !isSkipped(date)) return this;
+        return new Recurrence(frequency, interval, weekdays, start, until, delete(done, date), delete(skipped, date));
+    }
+
+    private static LocalDate[] insert(LocalDate[] dates, LocalDate date) {
+        if (dates == null) return new LocalDate[] { date };
+        int index = -Arrays.binarySearch(dates, date) - 1;
+        LocalDate[] copy = new LocalDate[dates.length + 1];
+        System.arraycopy(dates, 0, copy, 0, index);
+        copy[index] = date;
+        System.arraycopy(dates, index, copy, index + 1, dates.length - index);
+        return copy;
+    }
+
+    private static LocalDate[] delete(LocalDate[] dates, LocalDate date) {
+        int index = dates == null ? -1 : Arrays.binarySearch(dates, date);
+        if (index < 0) return dates;
+        if (dates.length == 1) return null;
+        LocalDate[] copy = new LocalDate[dates.length - 1];
+        System.arraycopy(dates, 0, copy, 0, index);
+        System.arraycopy(dates, index + 1, copy, index, copy.length - index);
+        return copy;
+    }
+
+    private static LocalDate[] sorted(List<LocalDate> dates) {
+        if (dates == null || dates.isEmpty()) return null;
+        LocalDate[] array = dates.toArray(new LocalDate[0]);
+        Arrays.sort(array);
+        return array;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Recurrence)) return false;
+        Recurrence other = (Recurrence) o;
+        return sameRule(other) && Arrays.equals(done, other.done) && Arrays.equals(skipped, other.skipped);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(frequency, interval, weekdays, start, until) * 31 + Arrays.hashCode(done);
+    }
+
+    /** E.g. "Every 2 weeks on Mon, Thu until 2026-12-31". */
+    @Override
+    public String toString() {
+        String unit = frequency == Frequency.DAILY ? "day" : frequency == Frequency.WEEKLY ? "week" : "month";
+        StringBuilder text = new StringBuilder("Every ");
+        text.append(interval == 1 ? unit : interval + " " + unit + "s");
+        if (frequency == Frequency.WEEKLY) {
+            text.append(" on ");
+            String separator = "";
+            for (DayOfWeek day : getWeekdays()) {
+                text.append(separator).append(day.getDisplayName(TextStyle.SHORT, Locale.getDefault()));
+                separator = ", ";
+            }
+        } else if (frequency == Frequency.MONTHLY) {
+            text.append(" on day ").append(start.getDayOfMonth());
+        }
+        if (until != null) text.append(" until ").append(until);
+        return text.toString();
+    }
+}
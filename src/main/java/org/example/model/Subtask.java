@@ -1,29 +1,72 @@
 package org.example.model;
 
+/**
+ * A checklist item. On its own it holds its text and state; once added to a task it is a
+ * view of a position in the task's subtask columns, as are the elements of
+ * {@link Task#getSubtasks()}, and two views of the same position are equal.
+ */
 public class Subtask {
-    private String text;
+    private String text; // while not in a task
     private boolean completed;
+    private transient Task parent; // Owning task, which holds the text and state
+    private transient int index;
 
     public Subtask(String text) {
         this.text = text;
         this.completed = false;
     }
 
+    Subtask(Task parent, int index) {
+        this.parent = parent;
+        this.index = index;
+    }
+
     // Getters
     public String getText() {
-        return text;
+        return parent != null ? parent.subtaskText(index) : text;
     }
 
     public boolean isCompleted() {
-        return completed;
+        return parent != null ? parent.isSubtaskCompleted(index) : completed;
     }
 
     // Setters
     public void setText(String text) {
-        this.text = text;
+        if (parent != null) parent.setSubtaskText(index, text);
+        else this.text = text;
     }
 
     public void setCompleted(boolean completed) {
-        this.completed = completed;
+        if (parent != null) parent.setSubtaskCompleted(index, completed);
+        else this.completed = completed;
+    }
+
+    void attach(Task parent, int index) {
+        this.parent = parent;
+        this.index = index;
+    }
+
+    // Takes its text and state out of the task before it is removed there
+    void detach() {
+        text = getText();
+        completed = isCompleted();
+        parent = null;
+    }
+
+    int indexIn(Task task) {
+        return parent == task ? index : -1;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Subtask) || parent == null) return false;
+        Subtask other = (Subtask) o;
+        return parent == other.parent && index == other.index;
+    }
+
+    @Override
+    public int hashCode() {
+        return parent == null ? System.identityHashCode(this) : System.identityHashCode(parent) * 31 + index;
     }
-}
\ No newline at end of file
+}
@@ -1,11 +1,31 @@
 package org.example.model;
 
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import javafx.beans.property.ReadOnlyLongProperty;
+import javafx.beans.property.ReadOnlyLongWrapper;
+
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.RandomAccess;
 import java.util.UUID;
 
+/**
+ * A task with its subtasks, laid out for boards of a million tasks: a UUID ID is held as
+ * two longs, the due date as an epoch day and the reminder in epoch minutes, priority and
+ * status share a byte, and the subtasks are columns (texts, interned, plus a bit set of
+ * the completed ones) instead of one object each, with a single shared array for tasks
+ * that have none. The getters build the usual values on demand; {@link #getSubtasks()}
+ * hands out {@link Subtask} views of the columns.
+ */
 public class Task {
 
 
@@ -17,66 +37,514 @@ public class Task {
         @Override public String toString() { return displayName; }
     }
 
-    private final String id;
+    /** Fields whose changes are reported to observers. */
+    public enum Field { TITLE, DESCRIPTION, PRIORITY, STATUS, DUE_DATE, SUBTASKS, PROGRESS, RECURRENCE, REMINDER }
+
+    /** Notified after a field of the task has changed. */
+    public interface Observer {
+        void taskChanged(Task task, Field field, Object oldValue, Object newValue);
+    }
+
+    private static final int NO_DUE_DATE = Integer.MIN_VALUE;
+    private static final int NO_REMINDER = Integer.MIN_VALUE;
+    private static final int CODE_MASK = 3; // ordinal + 1, 0 for null
+    private static final int STATUS_SHIFT = 2;
+
+    // Tasks without a due date or priority sort last; epoch days never get near Integer.MAX_VALUE
+    public static final Comparator<Task> BY_DUE_DATE =
+            Comparator.comparingInt(task -> task.dueDay == NO_DUE_DATE ? Integer.MAX_VALUE : task.dueDay);
+    public static final Comparator<Task> BY_PRIORITY =
+            Comparator.comparingInt(task -> (task.codes & CODE_MASK) == 0 ? Integer.MAX_VALUE : task.codes & CODE_MASK);
+    private static final Priority[] PRIORITIES = Priority.values();
+    private static final Status[] STATUSES = Status.values();
+    private static final String[] NO_SUBTASKS = new String[0];
+
+    private final long idHigh; // bits of a canonical UUID ID
+    private final long idLow;
+    private final String idText; // any other ID; null for UUIDs
+    private String formattedId; // a UUID ID as text, set on first use and shared by copies
     private String title;
     private String description;
-    private Priority priority;
-    private Status status;
-    private LocalDate dueDate;
-    private final List<Subtask> subtasks; // New field for subtasks
+    private byte codes; // priority in bits 0-1, status in bits 2-3
+    private int dueDay = NO_DUE_DATE; // for a recurring task, its earliest pending occurrence
+    private Recurrence recurrence; // null unless the task repeats
+    private int reminderMinute = NO_REMINDER; // local date and time, in minutes since 1970-01-01T00:00
+    private String[] subtaskTexts = NO_SUBTASKS; // replaced, never written to, once shared with a copy
+    private BitSet subtaskDone; // null while no subtask is completed
+    private int completedSubtasks;
+    private List<Observer> observers; // Not persisted
+
+    private ReadOnlyDoubleWrapper progress;
+    private long version; // In-memory change counter; loading bumps it too, so it only orders edits within a run
+    private ReadOnlyLongWrapper revision;
+
+    // Set for tasks read from a lazy store. While detached, the description and subtasks
+    // are only in the store and are read through it; they are loaded into the task before
+    // an edit and can be dropped again while unmodified.
+    private TaskDetails.Source detailSource;
+    private int detailSlot;
+    private boolean detached;
+    private boolean detailsModified;
+    private int storedSubtaskCount;
 
     public Task(String title, String description, Priority priority, LocalDate dueDate) {
-        this.id = UUID.randomUUID().toString();
+        this(UUID.randomUUID().toString(), title, description, priority, Status.TO_DO, dueDate);
+    }
+
+    // Restores a stored task with its original ID
+    public Task(String id, String title, String description, Priority priority, Status status, LocalDate dueDate) {
+        if (isCanonicalUuid(id)) {
+            this.idHigh = hex(id, 0, 8) << 32 | hex(id, 9, 13) << 16 | hex(id, 14, 18);
+            this.idLow = hex(id, 19, 23) << 48 | hex(id, 24, 36);
+            this.idText = null;
+        } else {
+            this.idHigh = 0;
+            this.idLow = 0;
+            this.idText = Objects.requireNonNull(id);
+        }
         this.title = title;
         this.description = description;
-        this.priority = priority;
-        this.dueDate = dueDate;
-        this.status = Status.TO_DO;
-        this.subtasks = new ArrayList<>(); // Initialize the list
+        this.codes = (byte) (code(priority) | code(status) << STATUS_SHIFT);
+        this.dueDay = dueDate == null ? NO_DUE_DATE : (int) dueDate.toEpochDay();
+    }
+
+    // Lowercase 8-4-4-4-12 hex, i.e. exactly what UUID.toString() gives back
+    private static boolean isCanonicalUuid(String id) {
+        if (id == null || id.length() != 36) return false;
+        for (int i = 0; i < 36; i++) {
+            char c = id.charAt(i);
+            boolean dash = i == 8 || i == 13 || i == 18 || i == 23;
+            if (dash ? c != '-' : !(c >= '0' && c <= '9' || c >= 'a' && c <= 'f')) return false;
+        }
+        return true;
+    }
+
+    private static long hex(String s, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) value = value << 4 | Character.digit(s.charAt(i), 16);
+        return value;
+    }
+
+    private static int code(Enum<?> value) {
+        return value == null ? 0 : value.ordinal() + 1;
     }
 
 
-    public String getId() { return id; }
+    /** Restores a task whose description and subtasks stay in {@code source} until they are needed. */
+    public static Task stored(String id, String title, Priority priority, Status status, LocalDate dueDate,
+                              int subtaskCount, int completedSubtasks, TaskDetails.Source source, int slot) {
+        Task task = new Task(id, title, null, priority, status, dueDate);
+        task.detailSource = source;
+        task.detailSlot = slot;
+        task.detached = true;
+        task.storedSubtaskCount = subtaskCount;
+        task.completedSubtasks = completedSubtasks;
+        return task;
+    }
+
+    /** The ID; a UUID ID is formatted once, and every caller shares that string. */
+    public String getId() {
+        if (idText != null) return idText;
+        // Racing threads may each format it; any of the equal strings will do
+        String id = formattedId;
+        if (id == null) formattedId = id = new UUID(idHigh, idLow).toString();
+        return id;
+    }
     public String getTitle() { return title; }
-    public String getDescription() { return description; }
-    public Priority getPriority() { return priority; }
-    public Status getStatus() { return status; }
-    public LocalDate getDueDate() { return dueDate; }
-    public void setTitle(String title) { this.title = title; }
-    public void setDescription(String description) { this.description = description; }
-    public void setPriority(Priority priority) { this.priority = priority; }
-    public void setStatus(Status status) { this.status = status; }
-    public void setDueDate(LocalDate dueDate) { this.dueDate = dueDate; }
+    public String getDescription() { return detached ? detailSource.load(detailSlot).getDescription() : description; }
+    public Priority getPriority() { return (codes & CODE_MASK) == 0 ? null : PRIORITIES[(codes & CODE_MASK) - 1]; }
+    public Status getStatus() { return (codes >> STATUS_SHIFT & CODE_MASK) == 0 ? null : STATUSES[(codes >> STATUS_SHIFT & CODE_MASK) - 1]; }
+    public LocalDate getDueDate() { return dueDay == NO_DUE_DATE ? null : LocalDate.ofEpochDay(dueDay); }
+    public Recurrence getRecurrence() { return recurrence; }
+    public boolean isRecurring() { return recurrence != null; }
+    /** Local date and time to be reminded of the task at, to the minute; null for none. */
+    public LocalDateTime getReminder() {
+        return reminderMinute == NO_REMINDER ? null : LocalDateTime.ofEpochSecond(reminderMinute * 60L, 0, ZoneOffset.UTC);
+    }
+
+    public void setTitle(String title) {
+        String old = this.title;
+        this.title = title;
+        fireChange(Field.TITLE, old, title);
+    }
+
+    public void setDescription(String description) {
+        loadDetails();
+        String old = this.description;
+        this.description = description;
+        if (!Objects.equals(old, description)) detailsModified = true;
+        fireChange(Field.DESCRIPTION, old, description);
+    }
+
+    public void setPriority(Priority priority) {
+        Priority old = getPriority();
+        codes = (byte) (codes & ~CODE_MASK | code(priority));
+        fireChange(Field.PRIORITY, old, priority);
+    }
+
+    public void setStatus(Status status) {
+        double oldProgress = getCompletionPercentage();
+        Status old = getStatus();
+        codes = (byte) (codes & CODE_MASK | code(status) << STATUS_SHIFT);
+        fireChange(Field.STATUS, old, status);
+        progressChanged(oldProgress);
+    }
+
+    public void setDueDate(LocalDate dueDate) {
+        LocalDate old = getDueDate();
+        dueDay = dueDate == null ? NO_DUE_DATE : (int) dueDate.toEpochDay();
+        fireChange(Field.DUE_DATE, old, dueDate);
+    }
+
+    /** Sets the repeat rule; the engine keeps the due date on its earliest pending occurrence. */
+    public void setRecurrence(Recurrence recurrence) {
+        Recurrence old = this.recurrence;
+        this.recurrence = recurrence;
+        fireChange(Field.RECURRENCE, old, recurrence);
+    }
+
+    /** Sets the reminder time; seconds are dropped. */
+    public void setReminder(LocalDateTime reminder) {
+        LocalDateTime old = getReminder();
+        reminderMinute = reminder == null ? NO_REMINDER : (int) (reminder.toEpochSecond(ZoneOffset.UTC) / 60);
+        fireChange(Field.REMINDER, old, getReminder());
+    }
+
+    public void addObserver(Observer observer) {
+        if (observers == null) observers = new ArrayList<>(2);
+        observers.add(observer);
+    }
+
+    public void removeObserver(Observer observer) {
+        if (observers != null) observers.remove(observer);
+    }
+
+    /**
+     * Incremented after every change, once observers have run. Used as the extractor
+     * of the task list so only the rows of changed tasks are updated.
+     */
+    public ReadOnlyLongProperty revisionProperty() {
+        if (revision == null) revision = new ReadOnlyLongWrapper(this, "revision", version);
+        return revision.getReadOnlyProperty();
+    }
+
+    private void fireChange(Field field, Object oldValue, Object newValue) {
+        if (Objects.equals(oldValue, newValue)) return;
+        if (observers != null) {
+            for (Observer observer : List.copyOf(observers)) {
+                observer.taskChanged(this, field, oldValue, newValue);
+            }
+        }
+        version++;
+        if (revision != null) revision.set(version);
+    }
+
+    /** Changes made to this object, counting the setters that filled it in on load; not persisted. */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Detached deep copy with the same ID; observers are not copied. Details that are
+     * still only in storage stay there, the copy shares them.
+     */
+    public Task copy() {
+        if (detached) {
+            Task copy = new Task(this, null);
+            copy.detailSource = detailSource;
+            copy.detailSlot = detailSlot;
+            copy.detached = true;
+            copy.storedSubtaskCount = storedSubtaskCount;
+            copy.completedSubtasks = completedSubtasks;
+            return copy;
+        }
+        Task copy = withDetailsCopied();
+        copy.detailSource = detailSource;
+        copy.detailSlot = detailSlot;
+        copy.detailsModified = detailsModified;
+        return copy;
+    }
+
+    /** This task if its details are loaded, otherwise a read-only copy that holds them. */
+    public Task withDetails() {
+        return detached ? withDetailsCopied() : this;
+    }
+
+    private Task withDetailsCopied() {
+        Task copy = new Task(this, getDescription());
+        if (detached) {
+            copy.setSubtaskColumns(detailSource.load(detailSlot).getSubtasks());
+        } else {
+            copy.subtaskTexts = subtaskTexts; // never written in place once shared
+            copy.subtaskDone = subtaskDone == null ? null : (BitSet) subtaskDone.clone();
+            copy.completedSubtasks = completedSubtasks;
+        }
+        return copy;
+    }
+
+    // Same ID, fields, rule and version; no subtasks or observers
+    private Task(Task source, String description) {
+        this.idHigh = source.idHigh;
+        this.idLow = source.idLow;
+        this.idText = source.idText;
+        this.formattedId = source.formattedId;
+        this.title = source.title;
+        this.description = description;
+        this.codes = source.codes;
+        this.dueDay = source.dueDay;
+        this.recurrence = source.recurrence; // immutable, so shared
+        this.reminderMinute = source.reminderMinute;
+        this.version = source.version;
+    }
+
+    // Built aside and swapped in, so subtasks may be views of this task's own columns
+    private void setSubtaskColumns(List<Subtask> subtasks) {
+        String[] texts = subtasks.isEmpty() ? NO_SUBTASKS : new String[subtasks.size()];
+        BitSet done = null;
+        int completed = 0;
+        for (int i = 0; i < subtasks.size(); i++) {
+            Subtask subtask = subtasks.get(i);
+            texts[i] = intern(subtask.getText());
+            if (subtask.isCompleted()) {
+                if (done == null) done = new BitSet(subtasks.size());
+                done.set(i);
+                completed++;
+            }
+        }
+        subtaskTexts = texts;
+        subtaskDone = done;
+        completedSubtasks = completed;
+    }
+
+    // Subtask texts repeat a lot across a board ("Write tests", "Review PR", ...)
+    private static String intern(String text) {
+        return text == null ? null : text.intern();
+    }
+
+    // --- Details kept in a lazy store ---
+
+    /** False while the description and subtasks are only in storage. */
+    public boolean isDetailsLoaded() {
+        return !detached;
+    }
+
+    /**
+     * Copies the stored description and subtasks into the task, e.g. while it is open in
+     * the UI. Edits do this implicitly. Does not count as a change.
+     */
+    public void loadDetails() {
+        if (!detached) return;
+        TaskDetails details = detailSource.load(detailSlot);
+        description = details.getDescription();
+        setSubtaskColumns(details.getSubtasks());
+        detached = false;
+    }
+
+    /**
+     * Drops the description and subtasks from memory if they are unchanged since they
+     * were stored. Returns whether they are now only in storage.
+     */
+    public boolean unloadDetails() {
+        if (detached) return true;
+        if (detailSource == null || detailsModified) return false;
+        storedSubtaskCount = subtaskTexts.length;
+        subtaskTexts = NO_SUBTASKS;
+        subtaskDone = null;
+        description = null;
+        detached = true;
+        return true;
+    }
+
+    /** Store the details were read from, or null for tasks that were never in a lazy store. */
+    public TaskDetails.Source getDetailSource() { return detailSource; }
+    public int getDetailSlot() { return detailSlot; }
+
+    /** Whether the loaded description or subtasks differ from those in {@link #getDetailSource()}. */
+    public boolean isDetailsModified() { return detailsModified; }
+
+    /** Called by a store once the task's current details have been written to {@code slot}. */
+    public void detailsStored(TaskDetails.Source source, int slot) {
+        detailSource = source;
+        detailSlot = slot;
+        detailsModified = false;
+    }
 
 
+    /**
+     * Read-only view; use addSubtask/removeSubtask so the progress counters stay correct.
+     * Its elements are views of a position in the task (see {@link Subtask}), so fetch the
+     * list again after removing a subtask. Subtasks of a detached task are shared
+     * read-only copies; change them through the engine.
+     */
     public List<Subtask> getSubtasks() {
-        return subtasks;
+        if (detached) return detailSource.load(detailSlot).getSubtasks();
+        return new SubtaskList();
     }
 
+    public int getSubtaskCount() {
+        return detached ? storedSubtaskCount : subtaskTexts.length;
+    }
+
+    /** Appends the subtask's text and state; {@code subtask} becomes a view of the new position. */
     public void addSubtask(Subtask subtask) {
-        this.subtasks.add(subtask);
+        loadDetails();
+        detailsModified = true;
+        double oldProgress = getCompletionPercentage();
+        boolean completed = subtask.isCompleted();
+        int index = subtaskTexts.length;
+        String[] texts = Arrays.copyOf(subtaskTexts, index + 1);
+        texts[index] = intern(subtask.getText());
+        subtaskTexts = texts;
+        if (completed) {
+            done().set(index);
+            completedSubtasks++;
+        }
+        subtask.attach(this, index);
+        fireChange(Field.SUBTASKS, null, subtask);
+        progressChanged(oldProgress);
     }
 
+    /**
+     * Replaces all subtasks at once with the texts and states of {@code subtasks}, which stay
+     * as they are. Views fetched before no longer refer to this task's subtasks.
+     */
+    public void setSubtasks(List<Subtask> subtasks) {
+        loadDetails();
+        double oldProgress = getCompletionPercentage();
+        List<Subtask> old = new ArrayList<>(subtaskTexts.length);
+        for (int i = 0; i < subtaskTexts.length; i++) {
+            Subtask copy = new Subtask(subtaskTexts[i]);
+            copy.setCompleted(isSubtaskCompleted(i));
+            old.add(copy);
+        }
+        setSubtaskColumns(subtasks);
+        detailsModified = true;
+        fireChange(Field.SUBTASKS, old, getSubtasks());
+        progressChanged(oldProgress);
+    }
+
+    /** Removes the subtask at the position {@code subtask} refers to; it keeps its text and state. */
+    public boolean removeSubtask(Subtask subtask) {
+        loadDetails();
+        int index = subtask.indexIn(this);
+        if (index < 0 || index >= subtaskTexts.length) return false;
+        double oldProgress = getCompletionPercentage();
+        detailsModified = true;
+        subtask.detach();
+        String[] texts = subtaskTexts.length == 1 ? NO_SUBTASKS : new String[subtaskTexts.length - 1];
+        System.arraycopy(subtaskTexts, 0, texts, 0, index);
+        System.arraycopy(subtaskTexts, index + 1, texts, index, texts.length - index);
+        subtaskTexts = texts;
+        if (subtaskDone != null) {
+            if (subtaskDone.get(index)) completedSubtasks--;
+            BitSet shifted = subtaskDone.get(0, index);
+            BitSet tail = subtaskDone.get(index + 1, Math.max(index + 1, subtaskDone.length()));
+            for (int i = tail.nextSetBit(0); i >= 0; i = tail.nextSetBit(i + 1)) shifted.set(index + i);
+            subtaskDone = shifted.isEmpty() ? null : shifted;
+        }
+        fireChange(Field.SUBTASKS, subtask, null);
+        progressChanged(oldProgress);
+        return true;
+    }
+
+    private BitSet done() {
+        if (subtaskDone == null) subtaskDone = new BitSet(subtaskTexts.length);
+        return subtaskDone;
+    }
+
+    // --- Columns behind attached Subtask views ---
+
+    String subtaskText(int index) {
+        return detached ? detailSource.load(detailSlot).getSubtasks().get(index).getText() : subtaskTexts[index];
+    }
+
+    boolean isSubtaskCompleted(int index) {
+        if (detached) return detailSource.load(detailSlot).getSubtasks().get(index).isCompleted();
+        return subtaskDone != null && subtaskDone.get(index);
+    }
+
+    void setSubtaskText(int index, String text) {
+        loadDetails();
+        if (Objects.equals(subtaskTexts[index], text)) return;
+        Subtask old = new Subtask(subtaskTexts[index]);
+        old.setCompleted(isSubtaskCompleted(index));
+        String[] texts = subtaskTexts.clone(); // the array may be shared with copies
+        texts[index] = intern(text);
+        subtaskTexts = texts;
+        detailsModified = true;
+        fireChange(Field.SUBTASKS, old, new Subtask(this, index));
+    }
+
+    void setSubtaskCompleted(int index, boolean completed) {
+        loadDetails();
+        if (isSubtaskCompleted(index) == completed) return;
+        double oldProgress = getCompletionPercentage();
+        done().set(index, completed);
+        completedSubtasks += completed ? 1 : -1;
+        detailsModified = true;
+        progressChanged(oldProgress);
+    }
+
+    private final class SubtaskList extends AbstractList<Subtask> implements RandomAccess {
+        @Override
+        public Subtask get(int index) {
+            Objects.checkIndex(index, size());
+            return new Subtask(Task.this, index);
+        }
+
+        @Override
+        public int size() {
+            return getSubtaskCount();
+        }
+    }
+
+    public int getCompletedSubtaskCount() {
+        return completedSubtasks;
+    }
+
+    // O(1): served from the cached counters
     public double getCompletionPercentage() {
-        if (subtasks.isEmpty()) {
-            return status == Status.DONE ? 1.0 : 0.0;
+        int total = getSubtaskCount();
+        if (total == 0) {
+            return getStatus() == Status.DONE ? 1.0 : 0.0;
         }
-        long completedCount = subtasks.stream().filter(Subtask::isCompleted).count();
-        return (double) completedCount / subtasks.size();
+        return (double) completedSubtasks / total;
     }
 
+    /** Completion percentage as an observable value, e.g. for binding a ProgressBar. */
+    public ReadOnlyDoubleProperty progressProperty() {
+        if (progress == null) {
+            progress = new ReadOnlyDoubleWrapper(this, "progress", getCompletionPercentage());
+        }
+        return progress.getReadOnlyProperty();
+    }
+
+    private void progressChanged(double oldProgress) {
+        double newProgress = getCompletionPercentage();
+        if (progress != null) progress.set(newProgress);
+        fireChange(Field.PROGRESS, oldProgress, newProgress);
+    }
 
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Task task = (Task) o;
-        return Objects.equals(id, task.id);
+        return idHigh == task.idHigh && idLow == task.idLow && Objects.equals(idText, task.idText);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id);
+        return idText != null ? idText.hashCode() : Long.hashCode(idHigh ^ idLow);
+    }
+
+    /** Orders like {@code getId().compareTo(other.getId())} without formatting UUIDs. */
+    public int compareId(Task other) {
+        if (idText == null && other.idText == null) {
+            int c = Long.compareUnsigned(idHigh, other.idHigh);
+            return c != 0 ? c : Long.compareUnsigned(idLow, other.idLow);
+        }
+        return getId().compareTo(other.getId());
     }
 
     @Override
@@ -0,0 +1,42 @@
+package org.example.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Description and subtasks of a task whose details stay in storage until they are needed
+ * (see {@link Task#isDetailsLoaded()}). Instances are shared through caches and must not
+ * be modified; {@link Task#loadDetails()} copies them into the task before an edit.
+ */
+public final class TaskDetails {
+
+    /** Loads the details stored under a slot number; safe to call from any thread. */
+    public interface Source {
+        TaskDetails load(int slot);
+
+        /** Like {@link #load}, but for a one-off pass such as indexing: keeps nothing cached. */
+        default TaskDetails read(int slot) {
+            return load(slot);
+        }
+    }
+
+    private final String description;
+    private final List<Subtask> subtasks;
+
+    public TaskDetails(String description, List<Subtask> subtasks) {
+        this.description = description;
+        this.subtasks = Collections.unmodifiableList(subtasks);
+    }
+
+    public String getDescription() { return description; }
+    public List<Subtask> getSubtasks() { return subtasks; }
+
+    /** Rough heap footprint in bytes, used to bound caches. */
+    public long estimatedBytes() {
+        long bytes = 64 + (description == null ? 0 : 40 + description.length());
+        for (Subtask subtask : subtasks) {
+            bytes += 64 + (subtask.getText() == null ? 0 : subtask.getText().length());
+        }
+        return bytes;
+    }
+}
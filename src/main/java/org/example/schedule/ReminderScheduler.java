@@ -0,0 +1,163 @@
+package org.example.schedule;
+
+import org.example.engine.TaskRepository;
+import org.example.metrics.Counter;
+import org.example.metrics.Metrics;
+import org.example.metrics.Timer;
+import org.example.model.Task;
+
+import java.io.Closeable;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fires the reminders of a repository's tasks, and tells when open tasks become overdue,
+ * in the minute it happens. Two {@link TimerWheel}s over local epoch minutes hold each
+ * task's reminder time and the midnight after its due date; they follow the repository's
+ * change events, so after seeding nothing scans the board. A tick at every minute boundary
+ * advances both and hands what fired to the listener, once per minute at most.
+ *
+ * Per pending entry this keeps a wheel row and a map entry pointing at the repository's
+ * published copy of the task. Events and ticks run on the scheduler's own thread.
+ */
+public class ReminderScheduler implements Closeable {
+
+    private static final Counter FIRED = Metrics.counter("reminders.fired");
+    private static final Timer TICK_TIMER = Metrics.timer("reminders.tick");
+    private static final long MINUTES_PER_DAY = 24 * 60;
+
+    public interface Listener {
+        /**
+         * @param reminders copies of the tasks whose reminder time has come
+         * @param overdue copies of the open tasks whose due date has just passed
+         */
+        void fired(List<Task> reminders, List<Task> overdue);
+    }
+
+    private final TaskRepository repository;
+    private final Executor listenerExecutor;
+    private final Listener listener;
+    private final Clock clock;
+    private final ScheduledExecutorService executor;
+    private final TaskRepository.ChangeListener changes = this::changed;
+    // Scheduler thread only; map keys are the copies scheduled, looked up by ID
+    private final TimerWheel<Task> dueWheel;
+    private final TimerWheel<Task> reminderWheel;
+    private final Map<Task, Integer> dueEntries = new HashMap<>();
+    private final Map<Task, Integer> reminderEntries = new HashMap<>();
+
+    public ReminderScheduler(TaskRepository repository, Executor listenerExecutor, Listener listener) {
+        this(repository, listenerExecutor, listener, Clock.systemDefaultZone());
+    }
+
+    /** @param clock local time to schedule against, e.g. a fixed one to tick by hand */
+    public ReminderScheduler(TaskRepository repository, Executor listenerExecutor, Listener listener, Clock clock) {
+        this.repository = repository;
+        this.listenerExecutor = listenerExecutor;
+        this.listener = listener;
+        this.clock = clock;
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "reminders");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long now = currentMinute();
+        dueWheel = new TimerWheel<>(now);
+        reminderWheel = new TimerWheel<>(now);
+    }
+
+    /** Subscribes to changes, schedules every task and starts ticking; changes made meanwhile are applied after. */
+    public void start() {
+        repository.subscribe(executor, changes);
+        executor.execute(() -> {
+            for (Task task : repository.snapshot().getTasks()) schedule(task, task);
+            scheduleTick();
+        });
+    }
+
+    /** Advances to the current minute now rather than at the next boundary, e.g. after the clock was set. */
+    public void tick() {
+        executor.execute(this::advance);
+    }
+
+    @Override
+    public void close() {
+        repository.unsubscribe(changes);
+        executor.shutdownNow();
+    }
+
+    private void changed(List<TaskRepository.Change> batch) {
+        for (TaskRepository.Change change : batch) {
+            Task task = change.getTask();
+            Task current = change.getType() == TaskRepository.Change.Type.REMOVED ? null : repository.getCopy(task.getId());
+            schedule(task, current);
+        }
+    }
+
+    // Replaces the entries of task by those of its current copy, if any
+    private void schedule(Task task, Task current) {
+        Integer handle = dueEntries.remove(task);
+        if (handle != null) dueWheel.cancel(handle);
+        handle = reminderEntries.remove(task);
+        if (handle != null) reminderWheel.cancel(handle);
+        if (current == null || current.getStatus() == Task.Status.DONE) return;
+        long now = currentMinute();
+        LocalDate due = current.getDueDate();
+        if (due != null) {
+            long overdueAt = (due.toEpochDay() + 1) * MINUTES_PER_DAY;
+            if (overdueAt > now) dueEntries.put(current, dueWheel.schedule(overdueAt, current));
+        }
+        LocalDateTime reminder = current.getReminder();
+        if (reminder != null) {
+            // One set for the minute under way still fires, on the next tick
+            long remindAt = minute(reminder);
+            if (remindAt >= now) reminderEntries.put(current, reminderWheel.schedule(remindAt, current));
+        }
+    }
+
+    private void advance() {
+        long start = TICK_TIMER.start();
+        long now = currentMinute();
+        List<Task> reminders = new ArrayList<>();
+        List<Task> overdue = new ArrayList<>();
+        reminderWheel.advance(now, task -> {
+            reminderEntries.remove(task);
+            reminders.add(task);
+        });
+        dueWheel.advance(now, task -> {
+            dueEntries.remove(task);
+            overdue.add(task);
+        });
+        TICK_TIMER.stop(start);
+        if (reminders.isEmpty() && overdue.isEmpty()) return;
+        FIRED.add(reminders.size() + overdue.size());
+        listenerExecutor.execute(() -> listener.fired(reminders, overdue));
+    }
+
+    // Wakes up on the next minute boundary; a late wake-up, e.g. after sleep, catches up in one advance
+    private void scheduleTick() {
+        long delay = 60_000 - Math.floorMod(clock.millis(), 60_000L);
+        executor.schedule(() -> {
+            advance();
+            scheduleTick();
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private long currentMinute() {
+        return minute(LocalDateTime.now(clock));
+    }
+
+    private static long minute(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+}
@@ -0,0 +1,169 @@
+package org.example.schedule;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel over integer ticks: six levels of 64 slots, level {@code l}
+ * spanning 64^l ticks per slot, so in minutes it reaches past the year 2500. An entry sits
+ * in the coarsest slot that tells it apart from the current tick and is moved to a finer
+ * level when the wheel reaches that slot, then fires in its exact tick. Scheduling and
+ * cancelling are O(1); advancing costs one slot per tick plus the entries it touches.
+ *
+ * Entries are rows of parallel arrays, reused through a free list, linked into their slot
+ * both ways: a fixed 24 bytes or so per entry, with no object per entry beyond the
+ * payload itself. Not thread-safe.
+ */
+public final class TimerWheel<T> {
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 6;
+    private static final int DUE = LEVELS * SLOTS; // list of entries whose tick had already come
+    private static final int NONE = -1;
+    private static final int FREE = -2; // bucket of an unused row
+
+    private final int[] heads = new int[DUE + 1];
+    private long[] deadlines;
+    private Object[] payloads;
+    private int[] next;
+    private int[] prev;
+    private int[] buckets;
+    private int freeHead = NONE;
+    private int rows;
+    private int size;
+    private long now;
+
+    public TimerWheel(long now) {
+        this.now = now;
+        Arrays.fill(heads, NONE);
+        int capacity = 64;
+        deadlines = new long[capacity];
+        payloads = new Object[capacity];
+        next = new int[capacity];
+        prev = new int[capacity];
+        buckets = new int[capacity];
+    }
+
+    /** The last tick advanced to. */
+    public long now() {
+        return now;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds an entry firing at {@code deadline}, or on the next {@link #advance} if that tick
+     * has passed. Returns a handle for {@link #cancel}, valid until the entry fires or is cancelled.
+     */
+    public int schedule(long deadline, T payload) {
+        int entry = allocate();
+        deadlines[entry] = deadline;
+        payloads[entry] = payload;
+        link(entry);
+        size++;
+        return entry;
+    }
+
+    /** Removes a pending entry; returns false if the handle is not pending. */
+    public boolean cancel(int handle) {
+        if (handle < 0 || handle >= rows || buckets[handle] == FREE) return false;
+        unlink(handle);
+        release(handle);
+        size--;
+        return true;
+    }
+
+    /** Moves to tick {@code to}, handing every entry due by then to {@code fired}, in tick order. */
+    public void advance(long to, Consumer<? super T> fired) {
+        fire(DUE, fired);
+        if (size == 0) {
+            now = Math.max(now, to);
+            return;
+        }
+        while (now < to) {
+            now++;
+            int level = 1;
+            while (level < LEVELS && (now & (1L << BITS * level) - 1) == 0) level++;
+            // Coarser slots first, their entries may land in finer slots that cascade next
+            for (int l = level - 1; l >= 1; l--) cascade(l * SLOTS + (int) (now >>> BITS * l & MASK));
+            fire((int) (now & MASK), fired);
+            fire(DUE, fired);
+            if (size == 0) now = to;
+        }
+    }
+
+    private void cascade(int bucket) {
+        int entry = heads[bucket];
+        heads[bucket] = NONE;
+        while (entry != NONE) {
+            int following = next[entry];
+            link(entry);
+            entry = following;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void fire(int bucket, Consumer<? super T> fired) {
+        int entry = heads[bucket];
+        heads[bucket] = NONE;
+        while (entry != NONE) {
+            int following = next[entry];
+            T payload = (T) payloads[entry];
+            release(entry);
+            size--;
+            fired.accept(payload); // may schedule, which can reuse the released row
+            entry = following;
+        }
+    }
+
+    // The slot is chosen by the highest 6-bit group in which deadline and now differ
+    private void link(int entry) {
+        long deadline = deadlines[entry];
+        int bucket;
+        if (deadline <= now) {
+            bucket = DUE;
+        } else {
+            int level = Math.min((63 - Long.numberOfLeadingZeros(deadline ^ now)) / BITS, LEVELS - 1);
+            bucket = level * SLOTS + (int) (deadline >>> BITS * level & MASK);
+        }
+        buckets[entry] = bucket;
+        prev[entry] = NONE;
+        next[entry] = heads[bucket];
+        if (heads[bucket] != NONE) prev[heads[bucket]] = entry;
+        heads[bucket] = entry;
+    }
+
+    private void unlink(int entry) {
+        if (prev[entry] != NONE) next[prev[entry]] = next[entry];
+        else heads[buckets[entry]] = next[entry];
+        if (next[entry] != NONE) prev[next[entry]] = prev[entry];
+    }
+
+    private int allocate() {
+        if (freeHead != NONE) {
+            int entry = freeHead;
+            freeHead = next[entry];
+            return entry;
+        }
+        if (rows == deadlines.length) {
+            int capacity = rows * 2;
+            deadlines = Arrays.copyOf(deadlines, capacity);
+            payloads = Arrays.copyOf(payloads, capacity);
+            next = Arrays.copyOf(next, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+            buckets = Arrays.copyOf(buckets, capacity);
+        }
+        return rows++;
+    }
+
+    private void release(int entry) {
+        payloads[entry] = null;
+        buckets[entry] = FREE;
+        next[entry] = freeHead;
+        freeHead = entry;
+    }
+}
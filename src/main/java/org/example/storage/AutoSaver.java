@@ -0,0 +1,146 @@
+package org.example.storage;
+
+import org.example.metrics.Counter;
+import org.example.metrics.Histogram;
+import org.example.metrics.Metrics;
+import org.example.metrics.Timer;
+import org.example.model.Task;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Debounced background saves for file-based storage.
+ *
+ * {@link #requestSave()} may be called on every edit, from any thread; requests arriving
+ * within the debounce window are coalesced into one write. {@code snapshots} must return
+ * tasks that are not modified afterwards (e.g. a repository snapshot), so both taking it
+ * and writing it happen on a dedicated thread through {@link TaskStorage#saveTasks},
+ * which replaces the file atomically. Each write is recorded in the {@code autosave.*}
+ * metrics: its duration, the edits it coalesced and those queued meanwhile.
+ */
+public class AutoSaver {
+
+    private static final Timer WRITE_TIMER = Metrics.timer("autosave.write");
+    private static final Histogram COALESCED = Metrics.histogram("autosave.coalesced");
+    private static final Histogram QUEUED = Metrics.histogram("autosave.queued");
+    private static final Counter FAILED = Metrics.counter("autosave.failed");
+
+    private final TaskStorage storage;
+    private final Supplier<List<Task>> snapshots;
+    private final long debounceMillis;
+    private final ScheduledExecutorService executor;
+
+    private final Object lock = new Object();
+    private int pendingRequests;
+    private boolean scheduled;
+    private boolean closed;
+
+    private volatile long lastSaveMillis = -1;
+    private volatile long saveCount;
+    private volatile boolean lastSaveFailed;
+
+    public AutoSaver(TaskStorage storage, Supplier<List<Task>> snapshots, long debounceMillis) {
+        this.storage = storage;
+        this.snapshots = snapshots;
+        this.debounceMillis = debounceMillis;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "autosave");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Marks the board dirty; a save follows once the debounce window has passed. */
+    public void requestSave() {
+        synchronized (lock) {
+            if (closed) return;
+            pendingRequests++;
+            if (scheduled) return;
+            scheduled = true;
+        }
+        executor.schedule(this::snapshotAndWrite, debounceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void snapshotAndWrite() {
+        int coalesced;
+        synchronized (lock) {
+            if (closed) return;
+            scheduled = false;
+            coalesced = pendingRequests;
+            pendingRequests = 0;
+        }
+        write(snapshots.get(), coalesced);
+    }
+
+    private void write(List<Task> snapshot, int coalesced) {
+        long start = System.nanoTime();
+        try {
+            storage.saveTasks(snapshot);
+            long nanos = System.nanoTime() - start;
+            WRITE_TIMER.record(nanos);
+            COALESCED.record(coalesced);
+            QUEUED.record(getQueueDepth());
+            lastSaveMillis = nanos / 1_000_000;
+            saveCount++;
+            lastSaveFailed = false;
+        } catch (IOException e) {
+            System.err.println("Autosave failed: " + e.getMessage());
+            FAILED.increment();
+            lastSaveFailed = true;
+            synchronized (lock) {
+                pendingRequests += coalesced;
+            }
+            requestSave();
+        }
+    }
+
+    /**
+     * Writes any unsaved changes and stops the saver. Waits at most {@code timeout} for
+     * the write and returns false if it did not finish or failed.
+     */
+    public boolean close(long timeout, TimeUnit unit) {
+        boolean dirty;
+        int coalesced;
+        synchronized (lock) {
+            if (closed) return true;
+            closed = true;
+            dirty = pendingRequests > 0 || scheduled;
+            coalesced = pendingRequests;
+            pendingRequests = 0;
+        }
+        CountDownLatch done = new CountDownLatch(1);
+        if (dirty) {
+            executor.execute(() -> write(snapshots.get(), coalesced));
+        }
+        executor.execute(done::countDown); // queued behind any write already in flight
+        executor.shutdown();
+        try {
+            return done.await(timeout, unit) && !lastSaveFailed;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /** Edits received since the last snapshot was taken. */
+    public int getQueueDepth() {
+        synchronized (lock) {
+            return pendingRequests;
+        }
+    }
+
+    /** Duration of the most recent write in milliseconds, or -1 before the first save. */
+    public long getLastSaveMillis() {
+        return lastSaveMillis;
+    }
+
+    public long getSaveCount() {
+        return saveCount;
+    }
+}
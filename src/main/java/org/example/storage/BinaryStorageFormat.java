@@ -0,0 +1,251 @@
+package org.example.storage;
+
+import org.example.model.Recurrence;
+import org.example.model.Subtask;
+import org.example.model.Task;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Versioned binary task format, read through a memory-mapped {@link FileChannel}.
+ *
+ * <pre>
+ * header   : int magic 'MNTB', short version
+ * strings  : int count, then count x string      (deduplicated subtask texts)
+ * tasks    : int count, then count x task
+ * task     : byte idKind (0 = UUID as two longs, 1 = string), id,
+ *            string title, string description,
+ *            byte priority ordinal, byte status ordinal (-1 = null),
+ *            int due date as epoch day (Integer.MIN_VALUE = none),
+ *            int subtask count, then count x (int string index, byte completed),
+ *            recurrence                           (version 2)
+ *            int reminder as local epoch minute   (version 3; Integer.MIN_VALUE = none)
+ * recurrence : byte frequency ordinal (-1 = none), then int interval, byte weekday bits,
+ *              int start, int until (dates as above), int done count, count x date,
+ *              int skipped count, count x date
+ * string   : int UTF-8 byte length (-1 = null), bytes
+ * </pre>
+ *
+ * Version 1 and 2 files, without recurrence or reminders, are still read.
+ */
+public class BinaryStorageFormat implements StorageFormat {
+
+    static final int MAGIC = 0x4D4E5442; // "MNTB"
+    static final short VERSION = 3;
+
+    private static final byte ID_UUID = 0;
+    private static final byte ID_STRING = 1;
+    static final int NO_DATE = Integer.MIN_VALUE;
+
+    @Override
+    public String fileName() {
+        return "task.bin";
+    }
+
+    @Override
+    public void write(List<Task> tasks, Path file) throws IOException {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        for (Task task : tasks) {
+            for (Subtask subtask : task.getSubtasks()) {
+                strings.putIfAbsent(subtask.getText(), strings.size());
+            }
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+
+            out.writeInt(strings.size());
+            for (String text : strings.keySet()) {
+                writeString(out, text);
+            }
+
+            out.writeInt(tasks.size());
+            for (Task task : tasks) {
+                writeId(out, task.getId());
+                writeString(out, task.getTitle());
+                writeString(out, task.getDescription());
+                out.writeByte(task.getPriority() == null ? -1 : task.getPriority().ordinal());
+                out.writeByte(task.getStatus() == null ? -1 : task.getStatus().ordinal());
+                out.writeInt(task.getDueDate() == null ? NO_DATE : (int) task.getDueDate().toEpochDay());
+                out.writeInt(task.getSubtasks().size());
+                for (Subtask subtask : task.getSubtasks()) {
+                    out.writeInt(strings.get(subtask.getText()));
+                    out.writeBoolean(subtask.isCompleted());
+                }
+                writeRecurrence(out, task.getRecurrence());
+                writeReminder(out, task.getReminder());
+            }
+        }
+    }
+
+    @Override
+    public void read(Path file, Consumer<Task> sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Binary task file larger than 2 GB: " + file);
+            }
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.getInt() != MAGIC) {
+                throw new IOException("Not a MiniNotion binary task file: " + file);
+            }
+            short version = in.getShort();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported binary task file version " + version);
+            }
+
+            String[] strings = new String[in.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = readString(in);
+            }
+
+            Task.Priority[] priorities = Task.Priority.values();
+            Task.Status[] statuses = Task.Status.values();
+            int count = in.getInt();
+            for (int i = 0; i < count; i++) {
+                String id = readId(in);
+                String title = readString(in);
+                String description = readString(in);
+                byte priority = in.get();
+                byte status = in.get();
+                int epochDay = in.getInt();
+                Task task = new Task(id, title, description,
+                        priority < 0 ? null : priorities[priority],
+                        status < 0 ? null : statuses[status],
+                        epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay));
+                int subtaskCount = in.getInt();
+                for (int j = 0; j < subtaskCount; j++) {
+                    Subtask subtask = new Subtask(strings[in.getInt()]);
+                    subtask.setCompleted(in.get() != 0);
+                    task.addSubtask(subtask);
+                }
+                if (version >= 2) task.setRecurrence(readRecurrence(in));
+                if (version >= 3) task.setReminder(readReminder(in));
+                sink.accept(task);
+            }
+        }
+    }
+
+    static void writeId(DataOutputStream out, String id) throws IOException {
+        UUID uuid = parseUuid(id);
+        if (uuid != null) {
+            out.writeByte(ID_UUID);
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        } else {
+            out.writeByte(ID_STRING);
+            writeString(out, id);
+        }
+    }
+
+    static String readId(ByteBuffer in) {
+        if (in.get() == ID_UUID) {
+            return new UUID(in.getLong(), in.getLong()).toString();
+        }
+        return readString(in);
+    }
+
+    private static UUID parseUuid(String id) {
+        try {
+            UUID uuid = UUID.fromString(id);
+            // Only use the compact form if it round-trips to the exact same text.
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    static void writeReminder(DataOutputStream out, LocalDateTime reminder) throws IOException {
+        out.writeInt(reminder == null ? NO_DATE : (int) (reminder.toEpochSecond(ZoneOffset.UTC) / 60));
+    }
+
+    static LocalDateTime readReminder(ByteBuffer in) {
+        int minute = in.getInt();
+        return minute == NO_DATE ? null : LocalDateTime.ofEpochSecond(minute * 60L, 0, ZoneOffset.UTC);
+    }
+
+    static void writeRecurrence(DataOutputStream out, Recurrence recurrence) throws IOException {
+        if (recurrence == null) {
+            out.writeByte(-1);
+            return;
+        }
+        out.writeByte(recurrence.getFrequency().ordinal());
+        out.writeInt(recurrence.getInterval());
+        int weekdays = 0;
+        for (DayOfWeek day : recurrence.getWeekdays()) weekdays |= 1 << (day.getValue() - 1);
+        out.writeByte(weekdays);
+        out.writeInt((int) recurrence.getStart().toEpochDay());
+        out.writeInt(recurrence.getUntil() == null ? NO_DATE : (int) recurrence.getUntil().toEpochDay());
+        writeDates(out, recurrence.getDone());
+        writeDates(out, recurrence.getSkipped());
+    }
+
+    static Recurrence readRecurrence(ByteBuffer in) {
+        byte frequency = in.get();
+        if (frequency < 0) return null;
+        int interval = in.getInt();
+        byte weekdays = in.get();
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if ((weekdays & 1 << (day.getValue() - 1)) != 0) days.add(day);
+        }
+        LocalDate start = LocalDate.ofEpochDay(in.getInt());
+        int until = in.getInt();
+        Recurrence recurrence = new Recurrence(Recurrence.Frequency.values()[frequency], interval, days, start,
+                until == NO_DATE ? null : LocalDate.ofEpochDay(until));
+        List<LocalDate> done = readDates(in);
+        List<LocalDate> skipped = readDates(in);
+        return done.isEmpty() && skipped.isEmpty() ? recurrence : recurrence.withMarks(done, skipped);
+    }
+
+    private static void writeDates(DataOutputStream out, List<LocalDate> dates) throws IOException {
+        out.writeInt(dates.size());
+        for (LocalDate date : dates) out.writeInt((int) date.toEpochDay());
+    }
+
+    private static List<LocalDate> readDates(ByteBuffer in) {
+        int count = in.getInt();
+        List<LocalDate> dates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) dates.add(LocalDate.ofEpochDay(in.getInt()));
+        return dates;
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.storage;
+
+import org.example.model.Task;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Converts a task file between the JSON and binary formats, chosen by extension.
+ * Usage: {@code FormatConverter data/task.json data/task.bin}
+ */
+public class FormatConverter {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: FormatConverter <input.json|input.bin> <output.json|output.bin>");
+            System.exit(2);
+        }
+        Path input = Paths.get(args[0]);
+        Path output = Paths.get(args[1]);
+        long start = System.nanoTime();
+        int count = convert(input, output);
+        System.out.printf("Converted %d tasks in %d ms (%,d -> %,d bytes)%n",
+                count, (System.nanoTime() - start) / 1_000_000, Files.size(input), Files.size(output));
+    }
+
+    public static int convert(Path input, Path output) throws IOException {
+        List<Task> tasks = StorageFormat.forPath(input).readAll(input);
+        if (output.getParent() != null) Files.createDirectories(output.getParent());
+        StorageFormat.forPath(output).write(tasks, output);
+        return tasks.size();
+    }
+}
@@ -0,0 +1,209 @@
+package org.example.storage;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.example.model.Recurrence;
+import org.example.model.Subtask;
+import org.example.model.Task;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/** Pretty-printed Gson array; the original {@code task.json} layout. */
+public class JsonStorageFormat implements StorageFormat {
+
+    private final Gson gson = gsonBuilder().setPrettyPrinting().create();
+
+    /** Gson set up for task fields (due dates and reminders as ISO text); shared with the journal and exports. */
+    public static GsonBuilder gsonBuilder() {
+        return new GsonBuilder()
+                .registerTypeAdapter(LocalDate.class, new LocalDateAdapter().nullSafe())
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter().nullSafe())
+                .registerTypeAdapterFactory(new TaskAdapterFactory());
+    }
+
+    @Override
+    public String fileName() {
+        return "task.json";
+    }
+
+    @Override
+    public void write(List<Task> tasks, Path file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            gson.toJson(tasks, writer);
+        }
+    }
+
+    @Override
+    public void read(Path file, Consumer<Task> sink) throws IOException {
+        if (Files.size(file) == 0) return;
+        try (JsonReader reader = new JsonReader(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+            if (reader.peek() == JsonToken.NULL) return;
+            reader.beginArray();
+            while (reader.hasNext()) {
+                sink.accept(gson.fromJson(reader, Task.class));
+            }
+            reader.endArray();
+        }
+    }
+
+    // Task fields are packed (see Task), so they are written and read through the getters
+    // and constructor, in the layout the reflective adapter used to produce. Tasks whose
+    // details are still in a lazy store are written with their description and subtasks.
+    private static class TaskAdapterFactory implements TypeAdapterFactory {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            if (type.getRawType() != Task.class) return null;
+            TypeAdapter<LocalDate> dates = gson.getAdapter(LocalDate.class);
+            TypeAdapter<Recurrence> recurrences = gson.getAdapter(Recurrence.class);
+            TypeAdapter<LocalDateTime> reminders = gson.getAdapter(LocalDateTime.class);
+            return (TypeAdapter<T>) new TypeAdapter<Task>() {
+                @Override
+                public void write(JsonWriter out, Task task) throws IOException {
+                    if (task == null) {
+                        out.nullValue();
+                        return;
+                    }
+                    out.beginObject();
+                    out.name("id").value(task.getId());
+                    out.name("title").value(task.getTitle());
+                    out.name("description").value(task.getDescription());
+                    out.name("priority").value(task.getPriority() == null ? null : task.getPriority().name());
+                    out.name("status").value(task.getStatus() == null ? null : task.getStatus().name());
+                    out.name("dueDate");
+                    dates.write(out, task.getDueDate());
+                    out.name("recurrence");
+                    recurrences.write(out, task.getRecurrence());
+                    out.name("reminder");
+                    reminders.write(out, task.getReminder());
+                    out.name("subtasks").beginArray();
+                    for (Subtask subtask : task.getSubtasks()) {
+                        out.beginObject();
+                        out.name("text").value(subtask.getText());
+                        out.name("completed").value(subtask.isCompleted());
+                        out.endObject();
+                    }
+                    out.endArray();
+                    out.endObject();
+                }
+
+                @Override
+                public Task read(JsonReader in) throws IOException {
+                    if (in.peek() == JsonToken.NULL) {
+                        in.nextNull();
+                        return null;
+                    }
+                    String id = null;
+                    String title = null;
+                    String description = null;
+                    Task.Priority priority = null;
+                    Task.Status status = null;
+                    LocalDate dueDate = null;
+                    Recurrence recurrence = null;
+                    LocalDateTime reminder = null;
+                    List<Subtask> subtasks = new ArrayList<>();
+                    in.beginObject();
+                    while (in.hasNext()) {
+                        String name = in.nextName();
+                        if (in.peek() == JsonToken.NULL && !"dueDate".equals(name) && !"recurrence".equals(name)) {
+                            in.nextNull();
+                            continue;
+                        }
+                        switch (name) {
+                            case "id": id = in.nextString(); break;
+                            case "title": title = in.nextString(); break;
+                            case "description": description = in.nextString(); break;
+                            case "priority": priority = constant(Task.Priority.class, in.nextString()); break;
+                            case "status": status = constant(Task.Status.class, in.nextString()); break;
+                            case "dueDate": dueDate = dates.read(in); break;
+                            case "recurrence": recurrence = recurrences.read(in); break;
+                            case "reminder": reminder = reminders.read(in); break;
+                            case "subtasks":
+                                in.beginArray();
+                                while (in.hasNext()) subtasks.add(readSubtask(in));
+                                in.endArray();
+                                break;
+                            default: in.skipValue();
+                        }
+                    }
+                    in.endObject();
+                    Task task = new Task(id, title, description, priority, status, dueDate);
+                    if (recurrence != null) task.setRecurrence(recurrence);
+                    if (reminder != null) task.setReminder(reminder);
+                    for (Subtask subtask : subtasks) task.addSubtask(subtask);
+                    return task;
+                }
+            };
+        }
+
+        // Unknown names read as null, as with Gson's enum adapter
+        private static <E extends Enum<E>> E constant(Class<E> type, String name) {
+            try {
+                return Enum.valueOf(type, name);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        private static Subtask readSubtask(JsonReader in) throws IOException {
+            String text = null;
+            boolean completed = false;
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                } else if ("text".equals(name)) {
+                    text = in.nextString();
+                } else if ("completed".equals(name)) {
+                    completed = in.nextBoolean();
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            Subtask subtask = new Subtask(text);
+            subtask.setCompleted(completed);
+            return subtask;
+        }
+    }
+
+    private static class LocalDateAdapter extends TypeAdapter<LocalDate> {
+        @Override
+        public void write(JsonWriter out, LocalDate value) throws IOException {
+            out.value(value.toString());
+        }
+
+        @Override
+        public LocalDate read(JsonReader in) throws IOException {
+            return LocalDate.parse(in.nextString());
+        }
+    }
+
+    private static class LocalDateTimeAdapter extends TypeAdapter<LocalDateTime> {
+        @Override
+        public void write(JsonWriter out, LocalDateTime value) throws IOException {
+            out.value(value.toString());
+        }
+
+        @Override
+        public LocalDateTime read(JsonReader in) throws IOException {
+            return LocalDateTime.parse(in.nextString());
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package org.example.storage;
+
+import org.example.model.Task;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Keeps only what the task list shows in memory. The index file holds the row fields of
+ * every task; descriptions and subtasks go to an append-only side file
+ * ({@code task.details.<n>}, see {@link TaskDetailStore}) and are read on demand, through
+ * an LRU cache, when a task is opened, searched or exported. Saving appends only the
+ * details that changed and rewrites the small index; once more than half of the side
+ * file is dead records it is compacted into the next generation.
+ *
+ * <pre>
+ * header : int magic 'MNTL', short version, string side file name
+ * tasks  : int count, then count x row
+ * row    : id (as in {@link BinaryStorageFormat}), string title,
+ *          byte priority ordinal, byte status ordinal (-1 = null),
+ *          int due date as epoch day (Integer.MIN_VALUE = none),
+ *          int subtask count, int completed subtasks, long details offset, int details length,
+ *          recurrence (as in {@link BinaryStorageFormat}; version 2),
+ *          int reminder (as in {@link BinaryStorageFormat}; version 3)
+ * </pre>
+ */
+public class LazyStorageFormat implements StorageFormat {
+
+    static final int MAGIC = 0x4D4E544C; // "MNTL"
+    static final short VERSION = 3;
+
+    private static final String DETAILS_PREFIX = "task.details.";
+    private static final long COMPACT_MIN_GARBAGE_BYTES = 1L << 20;
+
+    private final long cacheBytes;
+    private volatile TaskDetailStore store; // opened by the first read or write; set under this
+    private Path staleDetails; // previous side file, deleted once the index no longer refers to it
+
+    public LazyStorageFormat() {
+        this(Long.getLong("mininotion.details.cacheBytes", 16L << 20));
+    }
+
+    /** @param cacheBytes bound on the decoded details kept in memory */
+    public LazyStorageFormat(long cacheBytes) {
+        this.cacheBytes = cacheBytes;
+    }
+
+    @Override
+    public String fileName() {
+        return "task.idx";
+    }
+
+    @Override
+    public synchronized void write(List<Task> tasks, Path file) throws IOException {
+        if (staleDetails != null) {
+            Files.deleteIfExists(staleDetails);
+            staleDetails = null;
+        }
+        Path dir = file.toAbsolutePath().getParent();
+        if (store == null) {
+            store = TaskDetailStore.open(dir.resolve(DETAILS_PREFIX + (lastGeneration(dir) + 1)), cacheBytes);
+        }
+
+        // Unchanged details keep their record; everything else is appended
+        int[] slots = new int[tasks.size()];
+        BitSet live = new BitSet();
+        long liveBytes = 0;
+        for (int i = 0; i < slots.length; i++) {
+            Task task = tasks.get(i);
+            int slot = -1;
+            if (task.getDetailSource() == store && !task.isDetailsModified()) {
+                slot = task.getDetailSlot();
+            }
+            if (slot < 0 || store.offset(slot) < 0) slot = store.writtenSlot(task);
+            if (slot < 0) slot = store.append(task);
+            slots[i] = slot;
+            live.set(slot);
+            liveBytes += store.length(slot);
+        }
+        store.force();
+
+        long garbage = store.size() - TaskDetailStore.HEADER_BYTES - liveBytes;
+        if (garbage > liveBytes && garbage > COMPACT_MIN_GARBAGE_BYTES) {
+            Path previous = store.getFile();
+            store.compactInto(dir.resolve(DETAILS_PREFIX + (generation(previous) + 1)), live);
+            staleDetails = previous;
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            BinaryStorageFormat.writeString(out, store.getFile().getFileName().toString());
+            out.writeInt(tasks.size());
+            for (int i = 0; i < slots.length; i++) {
+                Task task = tasks.get(i);
+                BinaryStorageFormat.writeId(out, task.getId());
+                BinaryStorageFormat.writeString(out, task.getTitle());
+                out.writeByte(task.getPriority() == null ? -1 : task.getPriority().ordinal());
+                out.writeByte(task.getStatus() == null ? -1 : task.getStatus().ordinal());
+                out.writeInt(task.getDueDate() == null ? BinaryStorageFormat.NO_DATE : (int) task.getDueDate().toEpochDay());
+                out.writeInt(task.getSubtaskCount());
+                out.writeInt(task.getCompletedSubtaskCount());
+                out.writeLong(store.offset(slots[i]));
+                out.writeInt(store.length(slots[i]));
+                BinaryStorageFormat.writeRecurrence(out, task.getRecurrence());
+                BinaryStorageFormat.writeReminder(out, task.getReminder());
+            }
+        }
+    }
+
+    @Override
+    public void read(Path file, Consumer<Task> sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Task index larger than 2 GB: " + file);
+            }
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.getInt() != MAGIC) {
+                throw new IOException("Not a MiniNotion task index: " + file);
+            }
+            short version = in.getShort();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported task index version " + version);
+            }
+            TaskDetailStore details = openStore(file.toAbsolutePath().resolveSibling(BinaryStorageFormat.readString(in)));
+
+            Task.Priority[] priorities = Task.Priority.values();
+            Task.Status[] statuses = Task.Status.values();
+            int count = in.getInt();
+            for (int i = 0; i < count; i++) {
+                String id = BinaryStorageFormat.readId(in);
+                String title = BinaryStorageFormat.readString(in);
+                byte priority = in.get();
+                byte status = in.get();
+                int epochDay = in.getInt();
+                int subtaskCount = in.getInt();
+                int completed = in.getInt();
+                int slot = details.register(in.getLong(), in.getInt());
+                Task task = Task.stored(id, title,
+                        priority < 0 ? null : priorities[priority],
+                        status < 0 ? null : statuses[status],
+                        epochDay == BinaryStorageFormat.NO_DATE ? null : LocalDate.ofEpochDay(epochDay),
+                        subtaskCount, completed, details, slot);
+                if (version >= 2) task.setRecurrence(BinaryStorageFormat.readRecurrence(in));
+                if (version >= 3) task.setReminder(BinaryStorageFormat.readReminder(in));
+                sink.accept(task);
+            }
+        }
+    }
+
+    /**
+     * Lets an unmodified, or already saved, task drop its details from memory. Called from
+     * the UI inside a repository update, so it never waits for a save: while the side file
+     * is being appended to or compacted, a modified task just keeps its details for now.
+     */
+    @Override
+    public boolean releaseDetails(Task task) {
+        TaskDetailStore current = store;
+        if (current != null && task.isDetailsLoaded() && task.isDetailsModified()) {
+            int slot = current.tryWrittenSlot(task);
+            if (slot >= 0) task.detailsStored(current, slot);
+        }
+        return task.unloadDetails();
+    }
+
+    /** Decoded-details cache hits, misses and size in bytes; zeros before the first read or write. */
+    public synchronized long[] cacheStats() {
+        if (store == null) return new long[3];
+        return new long[] { store.cacheHits(), store.cacheMisses(), store.cachedBytes() };
+    }
+
+    private synchronized TaskDetailStore openStore(Path detailsFile) throws IOException {
+        if (store != null && store.getFile().equals(detailsFile)) return store;
+        if (store != null) store.close();
+        store = TaskDetailStore.open(detailsFile, cacheBytes);
+        // Side files of older generations are left behind by compaction
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(detailsFile.getParent(), DETAILS_PREFIX + "*")) {
+            for (Path other : files) {
+                if (!other.equals(detailsFile) && generation(other) >= 0) Files.deleteIfExists(other);
+            }
+        }
+        return store;
+    }
+
+    private static int lastGeneration(Path dir) throws IOException {
+        int last = 0;
+        if (!Files.isDirectory(dir)) return last;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, DETAILS_PREFIX + "*")) {
+            for (Path file : files) last = Math.max(last, generation(file));
+        }
+        return last;
+    }
+
+    private static int generation(Path file) {
+        try {
+            return Integer.parseInt(file.getFileName().toString().substring(DETAILS_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.storage;
+
+import org.example.model.Task;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/** On-disk encoding of a full task list. */
+public interface StorageFormat {
+
+    /** Default file name for this format inside the data directory. */
+    String fileName();
+
+    void write(List<Task> tasks, Path file) throws IOException;
+
+    /** Reads tasks one at a time, in file order. */
+    void read(Path file, Consumer<Task> sink) throws IOException;
+
+    default List<Task> readAll(Path file) throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        read(file, tasks::add);
+        return tasks;
+    }
+
+    /**
+     * Lets the task drop details that this format can load again on demand; see
+     * {@link LazyStorageFormat}. Returns whether they were dropped.
+     */
+    default boolean releaseDetails(Task task) {
+        return false;
+    }
+
+    /** Format for a storage mode name: {@code binary}, {@code lazy}, or JSON for anything else. */
+    static StorageFormat forName(String name) {
+        if ("binary".equals(name)) return new BinaryStorageFormat();
+        if ("lazy".equals(name)) return new LazyStorageFormat();
+        return new JsonStorageFormat();
+    }
+
+    /** Picks a format from the file extension ({@code .bin} binary, {@code .idx} lazy, JSON otherwise). */
+    static StorageFormat forPath(Path file) {
+        String name = file.getFileName().toString();
+        if (name.endsWith(".bin")) return new BinaryStorageFormat();
+        if (name.endsWith(".idx")) return new LazyStorageFormat();
+        return new JsonStorageFormat();
+    }
+}
@@ -0,0 +1,363 @@
+package org.example.storage;
+
+import org.example.model.Subtask;
+import org.example.model.Task;
+import org.example.model.TaskDetails;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Append-only side file holding the descriptions and subtasks of a {@link LazyStorageFormat}
+ * store. Records are addressed by slot number, which maps to an offset and length in the
+ * file, so compaction can move records without touching the tasks that refer to them.
+ * Decoded details are kept in an LRU cache bounded by their estimated size.
+ *
+ * <pre>
+ * header : int magic 'MNTD', short version
+ * record : string description, int subtask count, then count x (string text, byte completed)
+ * </pre>
+ */
+final class TaskDetailStore implements TaskDetails.Source, Closeable {
+
+    static final int MAGIC = 0x4D4E5444; // "MNTD"
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = 6;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock(); // write lock: append and compaction
+    private Path file;
+    private FileChannel channel;
+    private long size;
+    private long[] offsets = new long[1024]; // -1 once a record is no longer stored
+    private int[] lengths = new int[1024];
+    private int slotCount;
+
+    // Details appended since the store was opened, by task ID: {task version, slot}
+    private final Map<String, long[]> written = new HashMap<>();
+
+    private final long cacheLimitBytes;
+    private final LinkedHashMap<Integer, TaskDetails> cache = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<Integer, Long> cacheSizes = new HashMap<>();
+    private long cachedBytes;
+    private long hits;
+    private long misses;
+
+    private TaskDetailStore(Path file, FileChannel channel, long cacheLimitBytes) throws IOException {
+        this.file = file;
+        this.channel = channel;
+        this.size = channel.size();
+        this.cacheLimitBytes = cacheLimitBytes;
+    }
+
+    /** Opens the side file, creating it if it does not exist. */
+    static TaskDetailStore open(Path file, long cacheLimitBytes) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+        try {
+            if (channel.size() == 0) {
+                writeHeader(channel);
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                readFully(channel, header, 0);
+                header.flip();
+                if (header.getInt() != MAGIC || header.getShort() != VERSION) {
+                    throw new IOException("Not a MiniNotion task details file: " + file);
+                }
+            }
+            return new TaskDetailStore(file, channel, cacheLimitBytes);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    Path getFile() {
+        lock.readLock().lock();
+        try {
+            return file;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Bytes in the side file, including records no task refers to any more. */
+    long size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Adds a slot for a record already in the file. */
+    int register(long offset, int length) {
+        lock.writeLock().lock();
+        try {
+            if (offset < HEADER_BYTES || offset + length > size) {
+                throw new IllegalArgumentException("Details record outside " + file + ": " + offset + "+" + length);
+            }
+            return addSlot(offset, length);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    long offset(int slot) {
+        lock.readLock().lock();
+        try {
+            return offsets[slot];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int length(int slot) {
+        lock.readLock().lock();
+        try {
+            return lengths[slot];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public TaskDetails load(int slot) {
+        synchronized (cache) {
+            TaskDetails cached = cache.get(slot);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+        }
+        TaskDetails details = read(slot);
+        synchronized (cache) {
+            long bytes = details.estimatedBytes();
+            if (cache.put(slot, details) == null) {
+                cachedBytes += bytes;
+                cacheSizes.put(slot, bytes);
+            }
+            Iterator<Integer> eldest = cache.keySet().iterator();
+            while (cachedBytes > cacheLimitBytes && cache.size() > 1) {
+                Integer evicted = eldest.next();
+                eldest.remove();
+                cachedBytes -= cacheSizes.remove(evicted);
+            }
+        }
+        return details;
+    }
+
+    /** Decodes the record from the file, leaving the cache and its statistics alone. */
+    @Override
+    public TaskDetails read(int slot) {
+        lock.readLock().lock();
+        try {
+            if (slot >= slotCount || offsets[slot] < 0) {
+                throw new IllegalStateException("Task details slot " + slot + " is no longer stored in " + file);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(lengths[slot]);
+            readFully(channel, buffer, offsets[slot]);
+            buffer.flip();
+            return decode(buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read task details from " + file, e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Appends the task's current description and subtasks and returns their new slot. */
+    int append(Task task) throws IOException {
+        byte[] record = encode(task.getDescription(), task.getSubtasks());
+        lock.writeLock().lock();
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(record);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, size + buffer.position());
+            }
+            int slot = addSlot(size, record.length);
+            size += record.length;
+            written.put(task.getId(), new long[] { task.getVersion(), slot });
+            return slot;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Slot the task's details were appended to at its current version, or -1. */
+    int writtenSlot(Task task) {
+        lock.readLock().lock();
+        try {
+            return writtenSlotLocked(task);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Like {@link #writtenSlot}, but -1 instead of waiting for an append or compaction. */
+    int tryWrittenSlot(Task task) {
+        if (!lock.readLock().tryLock()) return -1;
+        try {
+            return writtenSlotLocked(task);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int writtenSlotLocked(Task task) {
+        long[] entry = written.get(task.getId());
+        return entry != null && entry[0] == task.getVersion() && offsets[(int) entry[1]] >= 0 ? (int) entry[1] : -1;
+    }
+
+    void force() throws IOException {
+        lock.readLock().lock();
+        try {
+            channel.force(false);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Copies the records of the {@code live} slots into a new file and switches to it.
+     * Other slots stop being readable. The old file is left for the caller to delete
+     * once nothing on disk refers to it.
+     */
+    void compactInto(Path target, BitSet live) throws IOException {
+        lock.writeLock().lock();
+        try {
+            FileChannel out = FileChannel.open(target, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+            long[] moved = new long[slotCount];
+            try {
+                writeHeader(out);
+                out.position(HEADER_BYTES);
+                for (int slot = 0; slot < slotCount; slot++) {
+                    if (!live.get(slot) || offsets[slot] < 0) {
+                        moved[slot] = -1;
+                        continue;
+                    }
+                    moved[slot] = out.position();
+                    long copied = 0;
+                    while (copied < lengths[slot]) {
+                        copied += channel.transferTo(offsets[slot] + copied, lengths[slot] - copied, out);
+                    }
+                }
+                out.force(false);
+            } catch (IOException e) {
+                out.close();
+                throw e;
+            }
+            channel.close();
+            channel = out;
+            file = target;
+            size = out.position();
+            System.arraycopy(moved, 0, offsets, 0, slotCount);
+            written.values().removeIf(entry -> offsets[(int) entry[1]] < 0);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        synchronized (cache) {
+            List<Integer> dropped = new ArrayList<>();
+            for (Integer slot : cache.keySet()) if (!live.get(slot)) dropped.add(slot);
+            for (Integer slot : dropped) {
+                cache.remove(slot);
+                cachedBytes -= cacheSizes.remove(slot);
+            }
+        }
+    }
+
+    long cacheHits() {
+        synchronized (cache) {
+            return hits;
+        }
+    }
+
+    long cacheMisses() {
+        synchronized (cache) {
+            return misses;
+        }
+    }
+
+    long cachedBytes() {
+        synchronized (cache) {
+            return cachedBytes;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            channel.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int addSlot(long offset, int length) {
+        if (slotCount == offsets.length) {
+            offsets = Arrays.copyOf(offsets, slotCount * 2);
+            lengths = Arrays.copyOf(lengths, slotCount * 2);
+        }
+        offsets[slotCount] = offset;
+        lengths[slotCount] = length;
+        return slotCount++;
+    }
+
+    private static byte[] encode(String description, List<Subtask> subtasks) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + (description == null ? 0 : description.length()));
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            BinaryStorageFormat.writeString(out, description);
+            out.writeInt(subtasks.size());
+            for (Subtask subtask : subtasks) {
+                BinaryStorageFormat.writeString(out, subtask.getText());
+                out.writeBoolean(subtask.isCompleted());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static TaskDetails decode(ByteBuffer in) {
+        String description = BinaryStorageFormat.readString(in);
+        int count = in.getInt();
+        List<Subtask> subtasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Subtask subtask = new Subtask(BinaryStorageFormat.readString(in));
+            subtask.setCompleted(in.get() != 0);
+            subtasks.add(subtask);
+        }
+        return new TaskDetails(description, subtasks);
+    }
+
+    private static void writeHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putShort(VERSION);
+        header.flip();
+        while (header.hasRemaining()) channel.write(header, header.position());
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of task details file");
+            }
+        }
+    }
+}
@@ -0,0 +1,439 @@
+package org.example.storage;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.example.model.Subtask;
+import org.example.model.Task;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Append-only write-ahead journal for tasks.
+ *
+ * Every mutation is appended as one compact JSON line to the active segment
+ * ({@code segment-N.log}). Appends are buffered in memory and written + fsynced
+ * together once per group-commit window. Sealed segments are periodically folded
+ * into {@code snapshot-N.json} on a background thread; loading streams the latest
+ * snapshot with the newer segments applied on top.
+ */
+public class TaskJournal implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".json";
+
+    private static final String OP_PUT = "put";
+    private static final String OP_DELETE = "delete";
+    private static final String OP_SUBTASK_ADD = "subtask_add";
+    private static final String OP_SUBTASK_DONE = "subtask_done";
+
+    private final Path directory;
+    private final Gson gson;
+    private final long compactThresholdBytes;
+    private final ScheduledExecutorService executor;
+
+    private final Object lock = new Object();
+    private final Object compactionLock = new Object();
+    private StringBuilder pending = new StringBuilder();
+    private FileChannel segment;
+    private long segmentNumber;
+    private long segmentBytes;
+    private boolean compacting;
+    private boolean closed;
+
+    public TaskJournal(Path directory, Gson gson, long groupCommitMillis, long compactThresholdBytes) throws IOException {
+        this.directory = directory;
+        this.gson = gson;
+        this.compactThresholdBytes = compactThresholdBytes;
+        Files.createDirectories(directory);
+
+        List<Long> segments = listNumbers(SEGMENT_PREFIX, SEGMENT_SUFFIX);
+        for (long n : segments) {
+            if (Files.size(segmentPath(n)) == 0) Files.delete(segmentPath(n));
+        }
+        long lastSnapshot = latestSnapshot();
+        long lastSegment = segments.isEmpty() ? 0 : segments.get(segments.size() - 1);
+        // Never append after a crash-torn tail: always start a fresh segment.
+        openSegment(Math.max(lastSegment, lastSnapshot) + 1);
+
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "task-journal");
+            t.setDaemon(true);
+            return t;
+        });
+        long window = Math.max(1, groupCommitMillis);
+        executor.scheduleWithFixedDelay(this::commitQuietly, window, window, TimeUnit.MILLISECONDS);
+    }
+
+    /** True if the journal directory already holds a snapshot or any segment data. */
+    public boolean hasData() throws IOException {
+        if (latestSnapshot() > 0) return true;
+        for (long n : listNumbers(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            if (Files.size(segmentPath(n)) > 0) return true;
+        }
+        return false;
+    }
+
+    // --- Appending ---
+
+    public void logPut(Task task) {
+        JsonObject record = new JsonObject();
+        record.addProperty("op", OP_PUT);
+        record.add("task", gson.toJsonTree(task));
+        append(record);
+    }
+
+    public void logDelete(String taskId) {
+        JsonObject record = new JsonObject();
+        record.addProperty("op", OP_DELETE);
+        record.addProperty("id", taskId);
+        append(record);
+    }
+
+    public void logSubtaskAdded(Task task, Subtask subtask) {
+        JsonObject record = new JsonObject();
+        record.addProperty("op", OP_SUBTASK_ADD);
+        record.addProperty("id", task.getId());
+        record.addProperty("text", subtask.getText());
+        append(record);
+    }
+
+    public void logSubtaskCompleted(Task task, int index, boolean completed) {
+        JsonObject record = new JsonObject();
+        record.addProperty("op", OP_SUBTASK_DONE);
+        record.addProperty("id", task.getId());
+        record.addProperty("index", index);
+        record.addProperty("completed", completed);
+        append(record);
+    }
+
+    /** Replaces the whole journal content with the given tasks (used to migrate legacy files). */
+    public void reset(List<Task> tasks) throws IOException {
+        rewriteSnapshot(null, sink -> tasks.forEach(sink));
+    }
+
+    /**
+     * Streams the current state and {@code imported} into a new snapshot, an imported task
+     * replacing the stored one with its ID (the last row wins if the input repeats an ID).
+     * Used for bulk imports: the rows are spooled to a temp file first, so memory stays
+     * bounded by the uncompacted log tail plus the imported IDs.
+     */
+    public TaskStorage.ImportResult importIntoSnapshot(Iterator<Task> imported) throws IOException {
+        Path spool = directory.resolve("import.tmp");
+        Map<String, Integer> lastRow = new HashMap<>(); // ID -> index of its last row
+        try {
+            int rows = 0;
+            try (JsonWriter json = new JsonWriter(Files.newBufferedWriter(spool, StandardCharsets.UTF_8))) {
+                json.beginArray();
+                while (imported.hasNext()) {
+                    Task task = imported.next();
+                    gson.toJson(task, Task.class, json);
+                    lastRow.put(task.getId(), rows++);
+                }
+                json.endArray();
+            }
+            long[] updated = {0};
+            long stored = rewriteSnapshot(task -> {
+                if (!lastRow.containsKey(task.getId())) return true;
+                updated[0]++;
+                return false;
+            }, sink -> {
+                try (JsonReader reader = new JsonReader(Files.newBufferedReader(spool, StandardCharsets.UTF_8))) {
+                    reader.beginArray();
+                    for (int row = 0; reader.hasNext(); row++) {
+                        Task task = gson.fromJson(reader, Task.class);
+                        if (lastRow.get(task.getId()) == row) sink.accept(task);
+                    }
+                    reader.endArray();
+                }
+            });
+            return new TaskStorage.ImportResult(lastRow.size() - updated[0], updated[0], stored);
+        } finally {
+            Files.deleteIfExists(spool);
+        }
+    }
+
+    // keepCurrent selects the stored tasks to carry over; null drops them all
+    private long rewriteSnapshot(Predicate<Task> keepCurrent, SnapshotSource extra) throws IOException {
+        synchronized (compactionLock) {
+            long sealed;
+            synchronized (lock) {
+                commit();
+                sealed = segmentNumber;
+                openSegment(sealed + 1);
+            }
+            long count = writeSnapshot(sealed, sink -> {
+                if (keepCurrent != null) {
+                    replayUpTo(sealed, task -> {
+                        if (keepCurrent.test(task)) sink.accept(task);
+                    });
+                }
+                extra.writeTo(sink);
+            });
+            deleteUpTo(sealed);
+            return count;
+        }
+    }
+
+    private void append(JsonObject record) {
+        synchronized (lock) {
+            if (closed) throw new IllegalStateException("Journal is closed");
+            pending.append(gson.toJson(record)).append('\n');
+        }
+    }
+
+    /** Writes and fsyncs everything appended so far. */
+    public void commit() throws IOException {
+        synchronized (lock) {
+            if (pending.length() == 0) return;
+            ByteBuffer buffer = ByteBuffer.wrap(pending.toString().getBytes(StandardCharsets.UTF_8));
+            pending = new StringBuilder();
+            while (buffer.hasRemaining()) {
+                segmentBytes += segment.write(buffer);
+            }
+            segment.force(false);
+            if (segmentBytes >= compactThresholdBytes && !compacting && !executor.isShutdown()) {
+                compacting = true;
+                long sealed = segmentNumber;
+                openSegment(sealed + 1);
+                executor.execute(() -> compactQuietly(sealed));
+            }
+        }
+    }
+
+    private void commitQuietly() {
+        try {
+            commit();
+        } catch (IOException e) {
+            System.err.println("Journal commit failed: " + e.getMessage());
+        }
+    }
+
+    // --- Replay ---
+
+    public List<Task> replay() throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        replay(tasks::add);
+        return tasks;
+    }
+
+    /**
+     * Streams the current state to {@code sink} one task at a time. Only the log
+     * tail is held in memory; snapshot tasks are read token by token.
+     */
+    public void replay(Consumer<Task> sink) throws IOException {
+        synchronized (compactionLock) {
+            commit();
+            replayUpTo(Long.MAX_VALUE, sink);
+        }
+    }
+
+    private void replayUpTo(long lastSegment, Consumer<Task> sink) throws IOException {
+        long snapshot = latestSnapshot();
+        Map<String, List<JsonObject>> tail = new LinkedHashMap<>();
+        for (long n : listNumbers(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            if (n > snapshot && n <= lastSegment) {
+                readSegment(segmentPath(n), tail);
+            }
+        }
+        if (snapshot > 0) {
+            try (JsonReader reader = new JsonReader(Files.newBufferedReader(snapshotPath(snapshot), StandardCharsets.UTF_8))) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    Task task = gson.fromJson(reader, Task.class);
+                    List<JsonObject> records = tail.remove(task.getId());
+                    if (records != null) task = applyAll(task, records);
+                    if (task != null) sink.accept(task);
+                }
+                reader.endArray();
+            }
+        }
+        for (List<JsonObject> records : tail.values()) {
+            Task task = applyAll(null, records);
+            if (task != null) sink.accept(task);
+        }
+    }
+
+    private void readSegment(Path path, Map<String, List<JsonObject>> tail) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                JsonObject record;
+                try {
+                    record = gson.fromJson(line, JsonObject.class);
+                } catch (JsonParseException e) {
+                    // Torn write from a crash; nothing after it was acknowledged.
+                    break;
+                }
+                String id = record.has("id") ? record.get("id").getAsString()
+                        : record.getAsJsonObject("task").get("id").getAsString();
+                tail.computeIfAbsent(id, k -> new ArrayList<>()).add(record);
+            }
+        }
+    }
+
+    private Task applyAll(Task task, List<JsonObject> records) {
+        for (JsonObject record : records) {
+            task = apply(record, task);
+        }
+        return task;
+    }
+
+    private Task apply(JsonObject record, Task task) {
+        String op = record.get("op").getAsString();
+        switch (op) {
+            case OP_PUT:
+                return gson.fromJson(record.get("task"), Task.class);
+            case OP_DELETE:
+                return null;
+            case OP_SUBTASK_ADD:
+                if (task != null) task.addSubtask(new Subtask(record.get("text").getAsString()));
+                return task;
+            case OP_SUBTASK_DONE: {
+                int index = record.get("index").getAsInt();
+                if (task != null && index < task.getSubtasks().size()) {
+                    task.getSubtasks().get(index).setCompleted(record.get("completed").getAsBoolean());
+                }
+                return task;
+            }
+            default:
+                System.err.println("Skipping unknown journal record: " + op);
+                return task;
+        }
+    }
+
+    // --- Compaction ---
+
+    private void compactQuietly(long sealed) {
+        try {
+            compact(sealed);
+        } catch (IOException e) {
+            System.err.println("Journal compaction failed: " + e.getMessage());
+        } finally {
+            synchronized (lock) {
+                compacting = false;
+            }
+        }
+    }
+
+    /** Folds the latest snapshot and all segments up to {@code sealed} into a new snapshot. */
+    private void compact(long sealed) throws IOException {
+        synchronized (compactionLock) {
+            writeSnapshot(sealed, sink -> replayUpTo(sealed, sink));
+            deleteUpTo(sealed);
+        }
+    }
+
+    private interface SnapshotSource {
+        void writeTo(Consumer<Task> sink) throws IOException;
+    }
+
+    /** Streams tasks into {@code snapshot-<number>.json}; nothing is materialized. */
+    private long writeSnapshot(long number, SnapshotSource source) throws IOException {
+        Path target = snapshotPath(number);
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        long[] count = {0};
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8)) {
+            JsonWriter json = new JsonWriter(writer);
+            json.beginArray();
+            source.writeTo(task -> {
+                gson.toJson(task, Task.class, json);
+                count[0]++;
+            });
+            json.endArray();
+            json.flush();
+            channel.force(true);
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return count[0];
+    }
+
+    private void deleteUpTo(long number) throws IOException {
+        for (long n : listNumbers(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (n < number) Files.deleteIfExists(snapshotPath(n));
+        }
+        for (long n : listNumbers(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            if (n <= number) Files.deleteIfExists(segmentPath(n));
+        }
+    }
+
+    // --- Files ---
+
+    private void openSegment(long number) throws IOException {
+        if (segment != null) segment.close();
+        segmentNumber = number;
+        segment = FileChannel.open(segmentPath(number), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segmentBytes = segment.size();
+    }
+
+    private long latestSnapshot() throws IOException {
+        List<Long> snapshots = listNumbers(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        return snapshots.isEmpty() ? 0 : snapshots.get(snapshots.size() - 1);
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    private Path snapshotPath(long number) {
+        return directory.resolve(String.format("%s%08d%s", SNAPSHOT_PREFIX, number, SNAPSHOT_SUFFIX));
+    }
+
+    private List<Long> listNumbers(String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(p -> p.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+                    .map(name -> Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (lock) {
+            if (closed) return;
+            commit();
+            closed = true;
+            segment.close();
+        }
+    }
+}
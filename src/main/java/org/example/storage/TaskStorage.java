@@ -1,62 +1,227 @@
 package org.example.storage;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
-import com.google.gson.TypeAdapter;
-import com.google.gson.stream.JsonReader;
-import com.google.gson.stream.JsonWriter;
+import org.example.metrics.Metrics;
+import org.example.metrics.Timer;
+import org.example.model.Subtask;
 import org.example.model.Task;
 
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.Closeable;
 import java.io.IOException;
-import java.lang.reflect.Type;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.time.LocalDate;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
-public class TaskStorage {
+public class TaskStorage implements Closeable {
 
-    private static final String FILE_PATH = "data/task.json";
-    private final Gson gson;
+    private static final String DATA_DIR = "data";
+    private static final long COMPACT_THRESHOLD_BYTES = 4L * 1024 * 1024;
+    private static final Timer LOAD_TIMER = Metrics.timer("storage.load");
+    private static final Timer SAVE_TIMER = Metrics.timer("storage.save");
+
+    private final StorageFormat format;
+    private final Path dataDir;
+    private final Path dataFile;
+    private final Path journalDir;
+    private final Gson compactGson;
+    private volatile TaskJournal journal;
 
     public TaskStorage() {
-        this.gson = new GsonBuilder()
-                .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
-                .setPrettyPrinting()
-                .create();
+        this(new JsonStorageFormat());
+    }
+
+    public TaskStorage(StorageFormat format) {
+        this(format, Paths.get(DATA_DIR));
+    }
+
+    public TaskStorage(StorageFormat format, Path dataDir) {
+        this.format = format;
+        this.dataDir = dataDir;
+        this.dataFile = dataDir.resolve(format.fileName());
+        this.journalDir = dataDir.resolve("journal");
+        this.compactGson = JsonStorageFormat.gsonBuilder().create();
+    }
+
+    /**
+     * Switches to journaled mode: edits are appended to {@code <dataDir>/journal} as they
+     * happen and fsynced once per group-commit window, instead of rewriting the
+     * whole file on close. An existing data file is migrated on first use.
+     */
+    public void enableJournal(long groupCommitMillis) throws IOException {
+        if (journal != null) return;
+        journal = new TaskJournal(journalDir, compactGson, groupCommitMillis, COMPACT_THRESHOLD_BYTES);
+        if (!journal.hasData() && Files.exists(dataFile)) {
+            journal.reset(format.readAll(dataFile));
+        }
+    }
+
+    /** Directory holding the data file, the journal and the engine's history. */
+    public Path getDataDir() {
+        return dataDir;
+    }
+
+    public boolean isJournaled() {
+        return journal != null;
+    }
+
+    /**
+     * Drops the task's description and subtasks from memory if the storage format can
+     * read them back on demand and they are saved; see {@link LazyStorageFormat}.
+     */
+    public boolean releaseDetails(Task task) {
+        return format.releaseDetails(task);
     }
 
     public void saveTasks(List<Task> tasks) throws IOException {
-        Files.createDirectories(Paths.get(FILE_PATH).getParent());
-        try (FileWriter writer = new FileWriter(FILE_PATH)) {
-            gson.toJson(tasks, writer);
+        long start = SAVE_TIMER.start();
+        try {
+            if (journal != null) {
+                // Every edit is already in the journal; just make sure the tail is durable.
+                // The journal stays open for further edits until close().
+                journal.commit();
+                return;
+            }
+            Files.createDirectories(dataFile.getParent());
+            // Write next to the target and swap it in, so a crash never leaves a half-written file
+            Path tmp = dataFile.resolveSibling(dataFile.getFileName() + ".tmp");
+            format.write(tasks, tmp);
+            Files.move(tmp, dataFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            SAVE_TIMER.stop(start);
         }
     }
 
     public List<Task> loadTasks() throws IOException {
-        if (!Files.exists(Paths.get(FILE_PATH))) {
-            return new ArrayList<>();
+        long start = LOAD_TIMER.start();
+        try {
+            if (journal != null) {
+                return journal.replay();
+            }
+            if (!Files.exists(dataFile)) {
+                return new ArrayList<>();
+            }
+            return format.readAll(dataFile);
+        } finally {
+            LOAD_TIMER.stop(start);
         }
-        try (FileReader reader = new FileReader(FILE_PATH)) {
-            Type taskListType = new TypeToken<ArrayList<Task>>() {}.getType();
-            List<Task> tasks = gson.fromJson(reader, taskListType);
-            return tasks == null ? new ArrayList<>() : tasks;
+    }
+
+    /**
+     * Streams tasks to {@code batchConsumer} in batches of {@code batchSize} as they are
+     * parsed, so callers on a background thread can show the first rows before the whole
+     * file has been read. Blocks until every task has been delivered; timed as a load,
+     * including the time {@code batchConsumer} takes.
+     */
+    public void streamTasks(int batchSize, Consumer<List<Task>> batchConsumer) throws IOException {
+        long start = LOAD_TIMER.start();
+        try {
+            stream(batchSize, batchConsumer);
+        } finally {
+            LOAD_TIMER.stop(start);
         }
     }
 
-    private static class LocalDateAdapter extends TypeAdapter<LocalDate> {
-        @Override
-        public void write(JsonWriter out, LocalDate value) throws IOException {
-            out.value(value.toString());
+    private void stream(int batchSize, Consumer<List<Task>> batchConsumer) throws IOException {
+        List<Task> batch = new ArrayList<>(batchSize);
+        Consumer<Task> sink = task -> {
+            batch.add(task);
+            if (batch.size() >= batchSize) {
+                batchConsumer.accept(new ArrayList<>(batch));
+                batch.clear();
+            }
+        };
+        if (journal != null) {
+            journal.replay(sink);
+        } else if (Files.exists(dataFile)) {
+            format.read(dataFile, sink);
+        }
+        if (!batch.isEmpty()) {
+            batchConsumer.accept(new ArrayList<>(batch));
         }
+    }
+
+    /**
+     * Adds {@code imported} to the stored tasks without going through the in-memory model;
+     * a task whose ID is already stored replaces the stored one, and if the input repeats
+     * an ID its last row wins. In journal mode the tasks are streamed into a new snapshot,
+     * holding only their IDs in memory however long the input is; the file formats have to
+     * be rewritten as a whole and hold every task while doing so.
+     */
+    public ImportResult importTasks(Iterator<Task> imported) throws IOException {
+        if (journal != null) {
+            return journal.importIntoSnapshot(imported);
+        }
+        Map<String, Task> tasks = new LinkedHashMap<>();
+        for (Task task : loadTasks()) tasks.put(task.getId(), task);
+        Set<String> seen = new HashSet<>();
+        long added = 0;
+        long updated = 0;
+        while (imported.hasNext()) {
+            Task task = imported.next();
+            Task previous = tasks.put(task.getId(), task);
+            if (!seen.add(task.getId())) continue;
+            if (previous == null) added++;
+            else updated++;
+        }
+        saveTasks(new ArrayList<>(tasks.values()));
+        return new ImportResult(added, updated, tasks.size());
+    }
+
+    /** Outcome of {@link #importTasks}: distinct imported IDs new to the store or replacing a stored task. */
+    public static final class ImportResult {
+        private final long added;
+        private final long updated;
+        private final long stored;
+
+        ImportResult(long added, long updated, long stored) {
+            this.added = added;
+            this.updated = updated;
+            this.stored = stored;
+        }
+
+        public long getAdded() { return added; }
+        public long getUpdated() { return updated; }
+        /** Tasks stored afterwards. */
+        public long getStored() { return stored; }
 
         @Override
-        public LocalDate read(JsonReader in) throws IOException {
-            return LocalDate.parse(in.nextString());
+        public String toString() {
+            return String.format("%,d added, %,d updated, %,d tasks stored", added, updated, stored);
+        }
+    }
+
+    /** Flushes and closes the journal, if any. */
+    @Override
+    public void close() throws IOException {
+        if (journal != null) journal.close();
+    }
+
+    // --- Journal records (no-ops in plain file mode) ---
+
+    public void taskSaved(Task task) {
+        if (journal != null) journal.logPut(task);
+    }
+
+    public void taskDeleted(Task task) {
+        if (journal != null) journal.logDelete(task.getId());
+    }
+
+    public void subtaskAdded(Task task, Subtask subtask) {
+        if (journal != null) journal.logSubtaskAdded(task, subtask);
+    }
+
+    public void subtaskCompleted(Task task, Subtask subtask) {
+        if (journal != null) {
+            journal.logSubtaskCompleted(task, task.getSubtasks().indexOf(subtask), subtask.isCompleted());
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,59 @@
+package org.example.sync;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.function.Consumer;
+
+/**
+ * Accepts sync connections from other instances ({@link TaskSync#sync}) on a loopback
+ * port. Sessions are short and rare, so they are served one at a time on a single daemon
+ * thread; {@code onSynced} is told the outcome of each.
+ */
+public class SyncServer implements Closeable {
+
+    private final TaskSync sync;
+    private final Consumer<TaskSync.Result> onSynced;
+    private final ServerSocket server;
+    private final Thread acceptor;
+
+    public SyncServer(TaskSync sync, int port, Consumer<TaskSync.Result> onSynced) throws IOException {
+        this.sync = sync;
+        this.onSynced = onSynced;
+        this.server = new ServerSocket();
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        this.acceptor = new Thread(this::acceptLoop, "sync-server");
+        acceptor.setDaemon(true);
+    }
+
+    public void start() {
+        acceptor.start();
+        System.out.printf("Sync listening on %s:%d (replica %s)%n",
+                server.getInetAddress().getHostAddress(), getPort(), sync.getReplica());
+    }
+
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+    }
+
+    private void acceptLoop() {
+        while (!server.isClosed()) {
+            try (Socket socket = server.accept()) {
+                onSynced.accept(sync.serve(socket));
+            } catch (SocketException e) {
+                if (!server.isClosed()) System.err.println("Sync connection failed: " + e.getMessage());
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Sync failed: " + e.getMessage());
+            }
+        }
+    }
+}
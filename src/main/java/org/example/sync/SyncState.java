@@ -0,0 +1,513 @@
+package org.example.sync;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Sync bookkeeping of one data directory: a random ID for this replica, a version vector
+ * (one counter per replica that edited it) for every task and for every deleted task's
+ * tombstone, and the knowledge vector, i.e. up to which counter the changes of each
+ * replica have all been received here.
+ *
+ * For every replica the (counter, task) pairs are also kept sorted by counter, so the
+ * tasks a peer has not seen yet, given its knowledge vector, are found by a binary search
+ * and a scan of the tail: the cost of a delta follows the number of changes, not the
+ * board size.
+ *
+ * Lives in {@code <data>/sync/}: {@code state.bin}, a snapshot, and {@code changes.log},
+ * every change since, written through as it happens. The log is folded into the snapshot
+ * when the state is opened, when it passes 4 MB, and on close.
+ */
+public class SyncState implements Closeable {
+
+    public static final String DIR_NAME = "sync";
+
+    private static final String STATE_FILE = "state.bin";
+    private static final String LOG_FILE = "changes.log";
+    private static final int MAGIC = 0x4D4E5353; // "MNSS"
+    private static final int VERSION = 1;
+    private static final long COMPACT_LOG_BYTES = 4L << 20;
+    private static final byte LOG_REPLICA = 'R';
+    private static final byte LOG_TASK = 'T';
+    private static final byte LOG_KNOWLEDGE = 'K';
+
+    /** How a received version compares with the local one. */
+    public enum Outcome {
+        /** The received version is newer, or wins a conflict: store it. */
+        ACCEPT,
+        /** Concurrent, and the local version wins; only the vectors are merged. */
+        KEEP,
+        /** Already known. */
+        IGNORE
+    }
+
+    /** Version of a task or tombstone as exchanged between replicas. */
+    public static final class Version {
+        private final Map<String, Long> vector;
+        private final String writer;
+        private final long millis;
+        private final boolean deleted;
+
+        public Version(Map<String, Long> vector, String writer, long millis, boolean deleted) {
+            this.vector = vector;
+            this.writer = writer;
+            this.millis = millis;
+            this.deleted = deleted;
+        }
+
+        public Map<String, Long> getVector() { return vector; }
+        /** Replica that made the change this version holds. */
+        public String getWriter() { return writer; }
+        /** Wall-clock time of that change; only used to pick a conflict winner. */
+        public long getMillis() { return millis; }
+        public boolean isDeleted() { return deleted; }
+    }
+
+    private static final class Meta {
+        long[] vector; // by replica ordinal
+        int writer;
+        long millis;
+        boolean deleted;
+
+        long get(int replica) {
+            return replica < vector.length ? vector[replica] : 0;
+        }
+    }
+
+    // (counter, task) pairs of one replica, sorted by counter. Entries a later change has
+    // superseded stay until the next compaction and are skipped when read.
+    private static final class CounterLog {
+        long[] counters = new long[16];
+        String[] ids = new String[16];
+        int size;
+
+        void add(long counter, String id) {
+            if (size == counters.length) {
+                counters = Arrays.copyOf(counters, size * 2);
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            int i = size;
+            while (i > 0 && counters[i - 1] > counter) i--; // counters mostly arrive in order
+            System.arraycopy(counters, i, counters, i + 1, size - i);
+            System.arraycopy(ids, i, ids, i + 1, size - i);
+            counters[i] = counter;
+            ids[i] = id;
+            size++;
+        }
+
+        // First index with a counter above {@code counter}
+        int after(long counter) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (counters[mid] <= counter) low = mid + 1;
+                else high = mid;
+            }
+            return low;
+        }
+    }
+
+    private final Path dir;
+    private boolean opened;
+    private String replica;
+    private final List<String> replicas = new ArrayList<>(); // by ordinal; 0 is this replica
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final Map<String, Meta> metas = new HashMap<>();
+    private final List<CounterLog> logs = new ArrayList<>();
+    private long[] knowledge = new long[1];
+    private DataOutputStream log;
+    private long logBytes;
+
+    public SyncState(Path dir) {
+        this.dir = dir;
+    }
+
+    /** This replica's ID. */
+    public synchronized String getReplica() {
+        open();
+        return replica;
+    }
+
+    /** Number of tasks and tombstones with a version. */
+    public synchronized int size() {
+        open();
+        return metas.size();
+    }
+
+    // --- Local changes ---
+
+    /** Records an edit, creation or deletion made here: it gets this replica's next counter. */
+    public synchronized void localChange(String id, boolean deleted) {
+        open();
+        record(id, deleted);
+        flush();
+    }
+
+    /**
+     * Brings the state in line with the tasks loaded from storage: tasks it has no version
+     * for, e.g. from before sync was used, become local changes; versioned tasks that are
+     * no longer stored get tombstones.
+     */
+    public synchronized void reconcile(Collection<String> liveIds) {
+        open();
+        Set<String> live = new HashSet<>(liveIds);
+        for (String id : live) {
+            Meta meta = metas.get(id);
+            if (meta == null || meta.deleted) record(id, false);
+        }
+        List<String> gone = new ArrayList<>();
+        for (Map.Entry<String, Meta> entry : metas.entrySet()) {
+            if (!entry.getValue().deleted && !live.contains(entry.getKey())) gone.add(entry.getKey());
+        }
+        for (String id : gone) record(id, true);
+        flush();
+    }
+
+    private void record(String id, boolean deleted) {
+        long counter = ++knowledge[0];
+        Meta meta = metas.get(id);
+        if (meta == null) {
+            meta = new Meta();
+            meta.vector = new long[1];
+            metas.put(id, meta);
+        } else if (meta.vector.length == 0) {
+            meta.vector = new long[1];
+        }
+        meta.vector[0] = counter;
+        meta.writer = 0;
+        meta.millis = System.currentTimeMillis();
+        meta.deleted = deleted;
+        logs.get(0).add(counter, id);
+        appendTask(id, meta);
+    }
+
+    // --- Exchange ---
+
+    /** How far the changes of each replica have all been received here. */
+    public synchronized Map<String, Long> getKnowledge() {
+        open();
+        Map<String, Long> vector = new LinkedHashMap<>();
+        for (int r = 0; r < knowledge.length; r++) {
+            if (knowledge[r] > 0) vector.put(replicas.get(r), knowledge[r]);
+        }
+        return vector;
+    }
+
+    /** Tasks and tombstones with a change that a replica with knowledge {@code peer} has not seen. */
+    public synchronized List<String> changedSince(Map<String, Long> peer) {
+        open();
+        Set<String> ids = new LinkedHashSet<>();
+        for (int r = 0; r < replicas.size(); r++) {
+            CounterLog counters = logs.get(r);
+            for (int i = counters.after(peer.getOrDefault(replicas.get(r), 0L)); i < counters.size; i++) {
+                Meta meta = metas.get(counters.ids[i]);
+                if (meta.get(r) == counters.counters[i]) ids.add(counters.ids[i]);
+            }
+        }
+        return new ArrayList<>(ids);
+    }
+
+    /** The current version of a task or tombstone, or null if it has none. */
+    public synchronized Version getVersion(String id) {
+        open();
+        Meta meta = metas.get(id);
+        if (meta == null) return null;
+        Map<String, Long> vector = new LinkedHashMap<>();
+        for (int r = 0; r < meta.vector.length; r++) {
+            if (meta.vector[r] > 0) vector.put(replicas.get(r), meta.vector[r]);
+        }
+        return new Version(vector, replicas.get(meta.writer), meta.millis, meta.deleted);
+    }
+
+    /**
+     * Compares a received version with the local one and records the result: the vectors
+     * are merged and, for {@link Outcome#ACCEPT}, the received writer and deletion flag
+     * are taken over. The caller then stores the received task (or deletes it) on ACCEPT.
+     *
+     * Concurrent versions are resolved the same way on every replica: the later change by
+     * wall-clock time wins, ties going to the greater writer ID.
+     */
+    public synchronized Outcome merge(String id, Version remote) {
+        open();
+        long[] incoming = toOrdinals(remote.getVector());
+        Meta meta = metas.get(id);
+        Outcome outcome;
+        if (meta == null) {
+            outcome = Outcome.ACCEPT;
+        } else {
+            boolean localNewer = false;
+            boolean remoteNewer = false;
+            for (int r = 0; r < Math.max(incoming.length, meta.vector.length); r++) {
+                long theirs = r < incoming.length ? incoming[r] : 0;
+                long ours = meta.get(r);
+                if (ours > theirs) localNewer = true;
+                if (theirs > ours) remoteNewer = true;
+            }
+            if (!remoteNewer) return Outcome.IGNORE;
+            if (!localNewer) {
+                outcome = Outcome.ACCEPT;
+            } else {
+                int order = Long.compare(remote.getMillis(), meta.millis);
+                if (order == 0) order = remote.getWriter().compareTo(replicas.get(meta.writer));
+                outcome = order > 0 ? Outcome.ACCEPT : Outcome.KEEP;
+            }
+        }
+        if (meta == null) {
+            meta = new Meta();
+            meta.vector = new long[0];
+            metas.put(id, meta);
+        }
+        if (meta.vector.length < incoming.length) meta.vector = Arrays.copyOf(meta.vector, incoming.length);
+        for (int r = 0; r < incoming.length; r++) {
+            if (incoming[r] > meta.vector[r]) {
+                meta.vector[r] = incoming[r];
+                logs.get(r).add(incoming[r], id);
+            }
+        }
+        if (outcome == Outcome.ACCEPT) {
+            meta.writer = ordinal(remote.getWriter());
+            meta.millis = remote.getMillis();
+            meta.deleted = remote.isDeleted();
+        }
+        appendTask(id, meta);
+        flush();
+        return outcome;
+    }
+
+    /**
+     * Records that every change a peer with knowledge {@code peer} had has been received,
+     * i.e. the delta it sent was computed against this replica's knowledge.
+     */
+    public synchronized void mergeKnowledge(Map<String, Long> peer) {
+        open();
+        long[] incoming = toOrdinals(peer);
+        boolean changed = false;
+        for (int r = 1; r < incoming.length; r++) { // this replica's own counter is never behind
+            if (incoming[r] > knowledge[r]) {
+                knowledge[r] = incoming[r];
+                changed = true;
+            }
+        }
+        if (!changed) return;
+        try {
+            log.writeByte(LOG_KNOWLEDGE);
+            writeVector(log, knowledge);
+            logBytes = log.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        flush();
+    }
+
+    /** Folds the change log into the snapshot once it has grown past 4 MB. */
+    public synchronized void save() throws IOException {
+        if (opened && logBytes > COMPACT_LOG_BYTES) compact();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!opened || log == null) return;
+        if (logBytes > 0) compact();
+        log.close();
+        log = null;
+        opened = false;
+        metas.clear();
+        logs.clear();
+        replicas.clear();
+        ordinals.clear();
+    }
+
+    // --- Replica ordinals ---
+
+    private int ordinal(String id) {
+        Integer ordinal = ordinals.get(id);
+        if (ordinal != null) return ordinal;
+        int next = replicas.size();
+        replicas.add(id);
+        ordinals.put(id, next);
+        logs.add(new CounterLog());
+        if (knowledge.length <= next) knowledge = Arrays.copyOf(knowledge, next + 1);
+        if (log != null) {
+            try {
+                log.writeByte(LOG_REPLICA);
+                log.writeUTF(id);
+                logBytes = log.size();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next;
+    }
+
+    private long[] toOrdinals(Map<String, Long> vector) {
+        long[] counters = new long[0];
+        for (Map.Entry<String, Long> entry : vector.entrySet()) {
+            int r = ordinal(entry.getKey());
+            if (counters.length <= r) counters = Arrays.copyOf(counters, r + 1);
+            counters[r] = entry.getValue();
+        }
+        return counters;
+    }
+
+    // --- Files ---
+
+    // Reads the snapshot and replays the log, then writes a fresh snapshot
+    private void open() {
+        if (opened) return;
+        opened = true;
+        try {
+            Files.createDirectories(dir);
+            Path state = dir.resolve(STATE_FILE);
+            if (Files.exists(state)) {
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(state), 1 << 16))) {
+                    if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                        throw new IOException("Not a MiniNotion sync state: " + state);
+                    }
+                    replica = in.readUTF();
+                    int count = in.readInt();
+                    for (int i = 0; i < count; i++) ordinal(in.readUTF());
+                    knowledge = Arrays.copyOf(readVector(in), Math.max(count, 1));
+                    int tasks = in.readInt();
+                    for (int i = 0; i < tasks; i++) readTask(in);
+                }
+            } else {
+                replica = UUID.randomUUID().toString();
+                ordinal(replica);
+            }
+            Path changes = dir.resolve(LOG_FILE);
+            if (Files.exists(changes)) {
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(changes), 1 << 16))) {
+                    replay(in);
+                }
+            }
+            rebuildLogs();
+            compact();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // A record torn by a crash ends the log
+    private void replay(DataInputStream in) throws IOException {
+        try {
+            while (true) {
+                byte type = in.readByte();
+                if (type == LOG_REPLICA) {
+                    ordinal(in.readUTF());
+                } else if (type == LOG_TASK) {
+                    readTask(in);
+                } else if (type == LOG_KNOWLEDGE) {
+                    long[] vector = readVector(in);
+                    knowledge = Arrays.copyOf(vector, Math.max(vector.length, knowledge.length));
+                } else {
+                    return;
+                }
+            }
+        } catch (EOFException e) {
+            // done
+        }
+    }
+
+    private void readTask(DataInputStream in) throws IOException {
+        String id = in.readUTF();
+        Meta meta = new Meta();
+        meta.deleted = in.readBoolean();
+        meta.writer = in.readInt();
+        meta.millis = in.readLong();
+        meta.vector = readVector(in);
+        metas.put(id, meta);
+    }
+
+    private void rebuildLogs() {
+        for (int r = 0; r < logs.size(); r++) logs.set(r, new CounterLog());
+        List<Map.Entry<String, Meta>> entries = new ArrayList<>(metas.entrySet());
+        for (int r = 0; r < logs.size(); r++) {
+            int replicaOrdinal = r;
+            entries.sort((a, b) -> Long.compare(a.getValue().get(replicaOrdinal), b.getValue().get(replicaOrdinal)));
+            CounterLog counters = logs.get(r);
+            for (Map.Entry<String, Meta> entry : entries) {
+                long counter = entry.getValue().get(r);
+                if (counter > 0) counters.add(counter, entry.getKey());
+            }
+        }
+    }
+
+    private void compact() throws IOException {
+        Path tmp = dir.resolve(STATE_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(replica);
+            out.writeInt(replicas.size());
+            for (String id : replicas) out.writeUTF(id);
+            writeVector(out, knowledge);
+            out.writeInt(metas.size());
+            for (Map.Entry<String, Meta> entry : metas.entrySet()) writeTask(out, entry.getKey(), entry.getValue());
+        }
+        Files.move(tmp, dir.resolve(STATE_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (log != null) log.close();
+        log = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(dir.resolve(LOG_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE), 1 << 16));
+        logBytes = 0;
+    }
+
+    private void appendTask(String id, Meta meta) {
+        try {
+            log.writeByte(LOG_TASK);
+            writeTask(log, id, meta);
+            logBytes = log.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void flush() {
+        try {
+            log.flush();
+            if (logBytes > COMPACT_LOG_BYTES) compact();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeTask(DataOutputStream out, String id, Meta meta) throws IOException {
+        out.writeUTF(id);
+        out.writeBoolean(meta.deleted);
+        out.writeInt(meta.writer);
+        out.writeLong(meta.millis);
+        writeVector(out, meta.vector);
+    }
+
+    private static void writeVector(DataOutputStream out, long[] vector) throws IOException {
+        out.writeShort(vector.length);
+        for (long counter : vector) out.writeLong(counter);
+    }
+
+    private static long[] readVector(DataInputStream in) throws IOException {
+        long[] vector = new long[in.readUnsignedShort()];
+        for (int i = 0; i < vector.length; i++) vector[i] = in.readLong();
+        return vector;
+    }
+}
@@ -0,0 +1,395 @@
+package org.example.sync;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.example.engine.TaskEngine;
+import org.example.model.Task;
+import org.example.storage.JsonStorageFormat;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Exchanges changed tasks with another MiniNotion instance, either over a socket (see
+ * {@link SyncServer}) or through a shared folder. Both sides send only the tasks and
+ * tombstones the other's knowledge vector says it has not seen (see {@link SyncState}),
+ * so a sync costs the number of changes, not the board size.
+ *
+ * The wire format is JSON lines: a header, then one record per changed task.
+ *
+ * <pre>
+ * client: {"type":"hello","replica":..,"knowledge":{..}}
+ * server: {"type":"delta","replica":..,"knowledge":{..},"count":n}  + n records
+ * client: {"type":"delta","replica":..,"knowledge":{..},"count":m}  + m records
+ * server: {"type":"done","count":applied}
+ * record: {"id":..,"version":{..},"writer":..,"millis":..,"deleted":..,"task":{..}}
+ * </pre>
+ *
+ * In a folder every replica keeps one file, {@code <replica>.delta}, holding a delta
+ * header (plus {@code base}, the knowledge it was computed against) and its records; a
+ * folder sync reads the others' files, then rewrites its own.
+ *
+ * Tasks are read and written on {@code engineExecutor} in batches; the I/O runs on the
+ * calling thread.
+ */
+public class TaskSync {
+
+    public static final String DELTA_SUFFIX = ".delta";
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final TaskEngine engine;
+    private final Executor engineExecutor;
+    private final Gson gson = JsonStorageFormat.gsonBuilder().create();
+
+    /** Counts of one sync. */
+    public static final class Result {
+        private int sent;
+        private int received;
+        private int applied;
+        private long bytesSent;
+        private long bytesReceived;
+        private long millis;
+
+        public int getSent() { return sent; }
+        public int getReceived() { return received; }
+        /** Received changes that were newer than, or won a conflict against, the local version. */
+        public int getApplied() { return applied; }
+        public long getBytesSent() { return bytesSent; }
+        public long getBytesReceived() { return bytesReceived; }
+        public long getMillis() { return millis; }
+
+        @Override
+        public String toString() {
+            return String.format("sent %,d changes (%,d bytes), received %,d (%,d bytes), applied %,d in %d ms",
+                    sent, bytesSent, received, bytesReceived, applied, millis);
+        }
+    }
+
+    private static final class Header {
+        String type;
+        String replica;
+        Map<String, Long> knowledge;
+        Map<String, Long> base;
+        int count;
+    }
+
+    private static final class Record {
+        String id;
+        Map<String, Long> version;
+        String writer;
+        long millis;
+        boolean deleted;
+        Task task;
+    }
+
+    public TaskSync(TaskEngine engine, Executor engineExecutor) {
+        this.engine = engine;
+        this.engineExecutor = engineExecutor;
+    }
+
+    /** This replica's ID, which also names its file in a sync folder. */
+    public String getReplica() {
+        return state().getReplica();
+    }
+
+    // --- Socket ---
+
+    /** Syncs with the instance listening at {@code host:port}. */
+    public Result sync(String host, int port) throws IOException {
+        long start = System.nanoTime();
+        Result result = new Result();
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(host, port), 5000);
+            socket.setTcpNoDelay(true);
+            Connection connection = new Connection(socket);
+            Header hello = new Header();
+            hello.type = "hello";
+            hello.replica = state().getReplica();
+            hello.knowledge = call(state()::getKnowledge);
+            connection.write(gson.toJson(hello));
+            connection.flush();
+
+            Header delta = header(connection, "delta");
+            receive(connection, delta.count, result);
+            state().mergeKnowledge(delta.knowledge);
+
+            sendDelta(connection, delta.knowledge, null, result);
+            connection.flush();
+            header(connection, "done");
+            result.bytesSent = connection.bytesSent;
+            result.bytesReceived = connection.bytesReceived;
+        }
+        result.millis = (System.nanoTime() - start) / 1_000_000;
+        return result;
+    }
+
+    // The other half of {@link #sync}, run by {@link SyncServer} for each connection
+    Result serve(Socket socket) throws IOException {
+        long start = System.nanoTime();
+        Result result = new Result();
+        socket.setTcpNoDelay(true);
+        Connection connection = new Connection(socket);
+        Header hello = header(connection, "hello");
+        sendDelta(connection, hello.knowledge, null, result);
+        connection.flush();
+
+        Header delta = header(connection, "delta");
+        receive(connection, delta.count, result);
+        state().mergeKnowledge(delta.knowledge);
+
+        Header done = new Header();
+        done.type = "done";
+        done.count = result.applied;
+        connection.write(gson.toJson(done));
+        connection.flush();
+        result.bytesSent = connection.bytesSent;
+        result.bytesReceived = connection.bytesReceived;
+        result.millis = (System.nanoTime() - start) / 1_000_000;
+        return result;
+    }
+
+    // --- Folder ---
+
+    /**
+     * Applies the delta files other replicas left in {@code dir}, then replaces this
+     * replica's own file with the changes the least up-to-date of them has not seen (all
+     * tasks if there are none yet). The file is written to a temporary name and moved into
+     * place, so a peer never reads half of it.
+     */
+    public Result syncFolder(Path dir) throws IOException {
+        long start = System.nanoTime();
+        Result result = new Result();
+        Files.createDirectories(dir);
+        String replica = state().getReplica();
+        Map<String, Long> base = null;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + DELTA_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.equals(replica + DELTA_SUFFIX)) continue;
+                Map<String, Long> peerKnowledge = applyFile(file, result);
+                base = base == null ? peerKnowledge : minimum(base, peerKnowledge);
+            }
+        }
+
+        Path target = dir.resolve(replica + DELTA_SUFFIX);
+        Path temp = dir.resolve(replica + DELTA_SUFFIX + ".tmp");
+        try (Writer out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            Connection connection = new Connection(null, out);
+            if (base == null) base = new HashMap<>();
+            sendDelta(connection, base, base, result);
+            connection.flush();
+            result.bytesSent = connection.bytesSent;
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        result.millis = (System.nanoTime() - start) / 1_000_000;
+        return result;
+    }
+
+    // Returns the knowledge the peer had when it wrote the file
+    private Map<String, Long> applyFile(Path file, Result result) throws IOException {
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Connection connection = new Connection(in, null);
+            Header delta = header(connection, "delta");
+            receive(connection, delta.count, result);
+            result.bytesReceived += connection.bytesReceived;
+            // The file holds everything after its base; if that is all known here, so is the rest
+            Map<String, Long> local = call(state()::getKnowledge);
+            if (delta.base != null && covers(local, delta.base)) state().mergeKnowledge(delta.knowledge);
+            return delta.knowledge;
+        }
+    }
+
+    // --- Delta ---
+
+    private void sendDelta(Connection connection, Map<String, Long> peerKnowledge, Map<String, Long> base,
+                           Result result) throws IOException {
+        // Knowledge and the changed IDs must come from the same moment, so both are read at once
+        List<String> ids = new ArrayList<>();
+        Header delta = call(() -> {
+            Header header = new Header();
+            header.knowledge = state().getKnowledge();
+            ids.addAll(state().changedSince(peerKnowledge));
+            return header;
+        });
+        delta.type = "delta";
+        delta.replica = state().getReplica();
+        delta.base = base;
+        delta.count = ids.size();
+        connection.write(gson.toJson(delta));
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<String> batch = ids.subList(from, Math.min(ids.size(), from + BATCH_SIZE));
+            for (String line : call(() -> encode(batch))) connection.write(line);
+        }
+        result.sent += ids.size();
+    }
+
+    private List<String> encode(List<String> ids) {
+        List<String> lines = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            SyncState.Version version = state().getVersion(id);
+            Record record = new Record();
+            record.id = id;
+            record.version = version.getVector();
+            record.writer = version.getWriter();
+            record.millis = version.getMillis();
+            record.deleted = version.isDeleted();
+            if (!record.deleted) {
+                record.task = engine.getTask(id);
+                if (record.task == null) continue; // versioned but not stored; reconciled on the next load
+            }
+            lines.add(gson.toJson(record));
+        }
+        return lines;
+    }
+
+    private void receive(Connection connection, int count, Result result) throws IOException {
+        List<Record> batch = new ArrayList<>(Math.min(count, BATCH_SIZE));
+        for (int i = 0; i < count; i++) {
+            String line = connection.read();
+            if (line == null) throw new IOException("Sync stream ended after " + i + " of " + count + " changes");
+            batch.add(parse(line, Record.class));
+            if (batch.size() == BATCH_SIZE || i == count - 1) {
+                List<Record> records = batch;
+                result.applied += call(() -> apply(records));
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+        result.received += count;
+    }
+
+    private int apply(List<Record> records) {
+        int applied = 0;
+        for (Record record : records) {
+            SyncState.Version version = new SyncState.Version(record.version, record.writer, record.millis, record.deleted);
+            if (state().merge(record.id, version) != SyncState.Outcome.ACCEPT) continue;
+            if (record.deleted) {
+                engine.removeSynced(record.id);
+            } else {
+                engine.putSynced(record.task);
+            }
+            applied++;
+        }
+        return applied;
+    }
+
+    // --- Helpers ---
+
+    private SyncState state() {
+        return engine.getSyncState();
+    }
+
+    private <T> T call(Supplier<T> action) throws IOException {
+        try {
+            return CompletableFuture.supplyAsync(action, engineExecutor).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Sync interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Sync failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private Header header(Connection connection, String type) throws IOException {
+        String line = connection.read();
+        if (line == null) throw new IOException("Sync stream ended before " + type);
+        Header header = parse(line, Header.class);
+        if (!type.equals(header.type)) throw new IOException("Expected " + type + " but got " + header.type);
+        if (header.knowledge == null) header.knowledge = new HashMap<>();
+        return header;
+    }
+
+    private <T> T parse(String line, Class<T> type) throws IOException {
+        try {
+            return gson.fromJson(line, type);
+        } catch (JsonParseException e) {
+            throw new IOException("Malformed sync message: " + e.getMessage(), e);
+        }
+    }
+
+    private static boolean covers(Map<String, Long> knowledge, Map<String, Long> base) {
+        for (Map.Entry<String, Long> entry : base.entrySet()) {
+            if (knowledge.getOrDefault(entry.getKey(), 0L) < entry.getValue()) return false;
+        }
+        return true;
+    }
+
+    private static Map<String, Long> minimum(Map<String, Long> a, Map<String, Long> b) {
+        Map<String, Long> min = new HashMap<>();
+        for (Map.Entry<String, Long> entry : a.entrySet()) {
+            long other = b.getOrDefault(entry.getKey(), 0L);
+            if (other > 0) min.put(entry.getKey(), Math.min(entry.getValue(), other));
+        }
+        return min;
+    }
+
+    // Line reader/writer that counts the bytes passing through (ASCII plus UTF-8 text)
+    private static final class Connection {
+        private final BufferedReader in;
+        private final BufferedWriter out;
+        long bytesSent;
+        long bytesReceived;
+
+        Connection(Socket socket) throws IOException {
+            this(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8),
+                    new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+        }
+
+        Connection(Reader in, Writer out) {
+            this.in = in == null ? null : new BufferedReader(in, 1 << 16);
+            this.out = out == null ? null : new BufferedWriter(out, 1 << 16);
+        }
+
+        String read() throws IOException {
+            String line = in.readLine();
+            if (line != null) bytesReceived += utf8Length(line) + 1;
+            return line;
+        }
+
+        void write(String line) throws IOException {
+            out.write(line);
+            out.write('\n');
+            bytesSent += utf8Length(line) + 1;
+        }
+
+        void flush() throws IOException {
+            out.flush();
+        }
+
+        private static int utf8Length(String s) {
+            int length = s.length();
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (Character.isHighSurrogate(c)) {
+                    length += 2; // four bytes for the pair
+                    i++;
+                } else if (c >= 0x800) {
+                    length += 2;
+                } else if (c >= 0x80) {
+                    length++;
+                }
+            }
+            return length;
+        }
+    }
+}